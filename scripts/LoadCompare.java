@@ -0,0 +1,130 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Closed-loop load driver for comparing execution modes; run with a Java 21 launcher:
+//   java scripts/LoadCompare.java <baseUrl> <concurrency> <seconds> <users> <label>
+// Each client loops over a fixed mix (70% /score, 20% /tips, 10% /report) for random users.
+public class LoadCompare {
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8085";
+        int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 400;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        int users = args.length > 3 ? Integer.parseInt(args[3]) : 1000;
+        String label = args.length > 4 ? args[4] : "run";
+
+        HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        seed(client, baseUrl, users);
+
+        AtomicLong ok = new AtomicLong();
+        AtomicLong rejected = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        long warmupEnd = System.nanoTime() + Duration.ofSeconds(Math.min(5, seconds / 5)).toNanos();
+        long end = warmupEnd + Duration.ofSeconds(seconds).toNanos();
+
+        List<Future<long[]>> results = new ArrayList<>();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                results.add(clients.submit(() -> {
+                    long[] samples = new long[1024];
+                    int n = 0;
+                    while (System.nanoTime() < end) {
+                        long userId = 1 + ThreadLocalRandom.current().nextInt(users);
+                        int pick = ThreadLocalRandom.current().nextInt(100);
+                        String path = pick < 70 ? "/api/credit/score" : pick < 90 ? "/api/credit/tips" : "/api/credit/report";
+                        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                                .header("User-ID", String.valueOf(userId))
+                                .timeout(Duration.ofSeconds(30))
+                                .build();
+                        long start = System.nanoTime();
+                        int status;
+                        try {
+                            status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                        } catch (Exception e) {
+                            status = -1;
+                        }
+                        long elapsed = System.nanoTime() - start;
+                        if (start < warmupEnd) {
+                            continue;
+                        }
+                        if (status == 200) {
+                            ok.incrementAndGet();
+                            if (n == samples.length) {
+                                samples = Arrays.copyOf(samples, n * 2);
+                            }
+                            samples[n++] = elapsed;
+                        } else if (status == 503) {
+                            rejected.incrementAndGet();
+                        } else {
+                            failed.incrementAndGet();
+                        }
+                    }
+                    return Arrays.copyOf(samples, n);
+                }));
+            }
+        }
+
+        long[] all = new long[0];
+        for (Future<long[]> result : results) {
+            long[] samples = result.get();
+            int pos = all.length;
+            all = Arrays.copyOf(all, pos + samples.length);
+            System.arraycopy(samples, 0, all, pos, samples.length);
+        }
+        Arrays.sort(all);
+
+        System.out.printf("%-10s concurrency=%d ok/s=%.0f 503/s=%.0f errors=%d p50=%.1fms p95=%.1fms p99=%.1fms max=%.1fms%n",
+                label, concurrency, ok.get() / (double) seconds, rejected.get() / (double) seconds, failed.get(),
+                percentile(all, 0.50), percentile(all, 0.95), percentile(all, 0.99), percentile(all, 1.0));
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1_000_000.0;
+    }
+
+    // Creates users 1..n with a few accounts and one score each; users that already exist are left alone
+    private static void seed(HttpClient client, String baseUrl, int users) throws Exception {
+        try (ExecutorService seeders = Executors.newFixedThreadPool(16)) {
+            for (int userId = 1; userId <= users; userId++) {
+                long id = userId;
+                seeders.submit(() -> {
+                    HttpRequest exists = HttpRequest.newBuilder(URI.create(baseUrl + "/api/credit/tips"))
+                            .header("User-ID", String.valueOf(id)).build();
+                    if (client.send(exists, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        return null;
+                    }
+                    String body = "{\"userId\":" + id + ",\"onTimePayments\":" + (10 + id % 50) + ",\"latePayments\":" + (id % 3)
+                            + ",\"missedPayments\":" + (id % 2) + ",\"publicRecords\":0,\"creditUtilization\":" + (id % 80)
+                            + ",\"totalDebt\":" + (id * 97 % 90000) + ",\"oldestAccountAge\":" + (id % 200)
+                            + ",\"recentInquiries\":" + (id % 4) + ",\"newAccounts\":" + (id % 3)
+                            + ",\"creditAccounts\":[{\"accountType\":\"credit card\",\"balance\":1000,\"creditLimit\":5000},"
+                            + "{\"accountType\":\"loan\",\"balance\":15000,\"creditLimit\":15000}]}";
+                    client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/credit/data"))
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(body)).build(), HttpResponse.BodyHandlers.discarding());
+                    client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/credit/score"))
+                            .header("User-ID", String.valueOf(id)).build(), HttpResponse.BodyHandlers.discarding());
+                    return null;
+                });
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+#!/usr/bin/env bash
+# Runs the same closed-loop load against the platform-thread (default) and virtual-thread
+# (profile "virtual") execution modes and prints one summary line per mode.
+#
+#   scripts/load-compare.sh [concurrency] [seconds] [users]
+#
+# Needs a Java 21 JDK (JAVA21_HOME, or JAVA_HOME if that is already 21) and the database the
+# service normally uses (DATABASE_URL, DATABASE_USER, DATABASE_PASS). Extra service arguments
+# can be passed in APP_ARGS.
+set -euo pipefail
+
+CONCURRENCY=${1:-400}
+SECONDS_PER_MODE=${2:-60}
+USERS=${3:-1000}
+JAVA21=${JAVA21_HOME:-${JAVA_HOME:-}}
+JAVA="${JAVA21:+$JAVA21/bin/}java"
+PORT=${PORT:-8085}
+
+cd "$(dirname "$0")/.."
+mvn -B -q -Pjava21 -DskipTests package
+JAR=$(ls target/tax-demo-*.jar | grep -v original | head -1)
+
+for mode in platform virtual; do
+    profile=""
+    if [ "$mode" = virtual ]; then
+        profile="--spring.profiles.active=virtual"
+    fi
+    "$JAVA" -jar "$JAR" --server.port="$PORT" --eureka.client.enabled=false $profile ${APP_ARGS:-} \
+        > "target/load-$mode.log" 2>&1 &
+    pid=$!
+    trap 'kill $pid 2>/dev/null || true' EXIT
+
+    until curl -sf "http://localhost:$PORT/actuator/health" > /dev/null; do
+        kill -0 $pid 2>/dev/null || { echo "service failed to start, see target/load-$mode.log"; exit 1; }
+        sleep 1
+    done
+
+    "$JAVA" scripts/LoadCompare.java "http://localhost:$PORT" "$CONCURRENCY" "$SECONDS_PER_MODE" "$USERS" "$mode" \
+        | tee -a target/load-compare.txt
+
+    kill $pid
+    wait $pid 2>/dev/null || true
+done
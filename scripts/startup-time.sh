@@ -0,0 +1,53 @@
+#!/usr/bin/env bash
+# Measures time to first successful GET /api/credit/score, from launching the JVM, for the default
+# fat jar and the fast-start build (AOT, CDS archive, faststart profile). Prints one line per run and
+# the median per mode, and appends every run to target/startup-times.csv to track regressions.
+#
+#   scripts/startup-time.sh [runs]
+#
+# Needs the database the service normally uses (DATABASE_URL, DATABASE_USER, DATABASE_PASS) with an
+# up-to-date schema (the faststart profile only validates it) and credit data for USER_ID (default 1).
+# Extra service arguments can be passed in APP_ARGS.
+set -euo pipefail
+
+RUNS=${1:-5}
+USER_ID=${USER_ID:-1}
+PORT=${PORT:-8085}
+JAVA="${JAVA_HOME:+$JAVA_HOME/bin/}java"
+
+cd "$(dirname "$0")/.."
+mvn -B -q -Pfaststart -DskipTests verify
+JAR=$(ls target/tax-demo-*.jar | grep -v original | head -1)
+FASTSTART_JAR=$(ls target/faststart/tax-demo-*-faststart.jar | head -1)
+COMMIT=$(git rev-parse --short HEAD 2>/dev/null || echo unknown)
+[ -f target/startup-times.csv ] || echo "time,commit,mode,run,ms" > target/startup-times.csv
+
+for mode in default faststart; do
+    times=()
+    for run in $(seq 1 "$RUNS"); do
+        if [ "$mode" = faststart ]; then
+            command=("$JAVA" -XX:SharedArchiveFile=target/faststart/application.jsa -Dspring.aot.enabled=true
+                -jar "$FASTSTART_JAR" --spring.profiles.active=faststart)
+        else
+            command=("$JAVA" -jar "$JAR")
+        fi
+        start=$(date +%s%N)
+        "${command[@]}" --server.port="$PORT" ${APP_ARGS:-} > "target/startup-$mode.log" 2>&1 &
+        pid=$!
+        trap 'kill $pid 2>/dev/null || true' EXIT
+
+        until curl -sf -H "User-ID: $USER_ID" "http://localhost:$PORT/api/credit/score" > /dev/null; do
+            kill -0 $pid 2>/dev/null || { echo "service failed to start, see target/startup-$mode.log"; exit 1; }
+            sleep 0.05
+        done
+        ms=$(( ($(date +%s%N) - start) / 1000000 ))
+        times+=("$ms")
+        echo "$mode run $run: $ms ms to first /score"
+        echo "$(date -u +%Y-%m-%dT%H:%M:%SZ),$COMMIT,$mode,$run,$ms" >> target/startup-times.csv
+
+        kill $pid
+        wait $pid 2>/dev/null || true
+    done
+    median=$(printf '%s\n' "${times[@]}" | sort -n | sed -n "$(( (RUNS + 1) / 2 ))p")
+    echo "$mode median: $median ms over $RUNS runs"
+done
@@ -0,0 +1,49 @@
+package com.skillstorm.taxdemo.benchmarks;
+
+import com.skillstorm.taxdemo.dtos.HistoryEntry;
+import com.skillstorm.taxdemo.models.CreditAccount;
+import com.skillstorm.taxdemo.models.CreditScoreHistory;
+import com.skillstorm.taxdemo.models.UserCreditData;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Deterministic fixtures shared by the benchmarks, so runs are comparable across releases
+final class BenchmarkData {
+
+    private static final String[] ACCOUNT_TYPES = { "Mortgage", "Auto", "Student", "Retail", "Credit Card", "Loan" };
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    private BenchmarkData() {
+    }
+
+    // Accounts are ordered so the credit card and loan sit at the end of the list: the worst case for the credit mix scan
+    static UserCreditData creditData(int accounts) {
+        List<CreditAccount> creditAccounts = new ArrayList<>(accounts);
+        for (int i = 0; i < accounts; i++) {
+            String type = ACCOUNT_TYPES[Math.max(0, ACCOUNT_TYPES.length - accounts + i) % ACCOUNT_TYPES.length];
+            creditAccounts.add(new CreditAccount((long) i, type, 1000 + i * 10, 5000, null));
+        }
+        return new UserCreditData(1L, 1L, 40, 3, 2, 1, 65, 72000, 130, creditAccounts, 4, 3);
+    }
+
+    // Newest first, as the repository returns it
+    static List<HistoryEntry> historyEntries(int rows) {
+        Random random = new Random(42);
+        List<HistoryEntry> history = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            history.add(HistoryEntry.raw((long) (rows - i), 300 + random.nextInt(551), NOW.minusMinutes(i)));
+        }
+        return history;
+    }
+
+    static List<CreditScoreHistory> historyRows(int rows) {
+        List<CreditScoreHistory> history = new ArrayList<>(rows);
+        for (HistoryEntry entry : historyEntries(rows)) {
+            history.add(new CreditScoreHistory(entry.id(), 1L, entry.score(), entry.timestamp()));
+        }
+        return history;
+    }
+}
@@ -0,0 +1,81 @@
+package com.skillstorm.taxdemo.benchmarks;
+
+import com.skillstorm.taxdemo.dtos.HistoryEntry;
+import com.skillstorm.taxdemo.dtos.HistoryWindow;
+import com.skillstorm.taxdemo.metrics.CreditMetrics;
+import com.skillstorm.taxdemo.models.UserCreditData;
+import com.skillstorm.taxdemo.repositories.CreditScoreHistoryRepository;
+import com.skillstorm.taxdemo.services.CreditReportWriter;
+import com.skillstorm.taxdemo.services.CreditScoreService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.io.Writer;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+// Report rendering over history lengths from a new user to a long-lived one, through
+// CreditScoreService.writeCreditReport as /report serves it: rows come from an in-memory stream in
+// place of the database cursor, and the output goes to a discarding Writer like the HTTP response.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+public class ReportBenchmark {
+
+    // Without Spring Boot's logging setup the per-report INFO line goes straight to the console and dwarfs small reports
+    private static final Logger SERVICE_LOGGER = Logger.getLogger(CreditScoreService.class.getName());
+
+    @Param({ "10", "1000", "100000" })
+    public int historyRows;
+
+    private UserCreditData creditData;
+    private CreditScoreService creditScoreService;
+
+    @Setup
+    public void setUp() {
+        SERVICE_LOGGER.setLevel(Level.WARNING);
+        creditData = BenchmarkData.creditData(5);
+        List<HistoryEntry> history = BenchmarkData.historyEntries(historyRows);
+        CreditScoreHistoryRepository repository = (CreditScoreHistoryRepository) Proxy.newProxyInstance(
+                CreditScoreHistoryRepository.class.getClassLoader(), new Class<?>[] { CreditScoreHistoryRepository.class },
+                (proxy, method, args) -> {
+                    if (method.getName().equals("streamHistory")) {
+                        return history.stream();
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        creditScoreService = new CreditScoreService();
+        ReflectionTestUtils.setField(creditScoreService, "creditScoreHistoryRepository", repository);
+        ReflectionTestUtils.setField(creditScoreService, "creditMetrics",
+                new CreditMetrics(new SimpleMeterRegistry(), false, 300_000, 10_000));
+    }
+
+    @Benchmark
+    public void textStreaming() {
+        creditScoreService.writeCreditReport(creditData, HistoryWindow.unbounded(), CreditReportWriter.Format.TEXT, Writer.nullWriter());
+    }
+
+    @Benchmark
+    public void jsonStreaming() {
+        creditScoreService.writeCreditReport(creditData, HistoryWindow.unbounded(), CreditReportWriter.Format.JSON, Writer.nullWriter());
+    }
+}
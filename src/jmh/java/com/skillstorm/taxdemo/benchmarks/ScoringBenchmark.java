@@ -0,0 +1,73 @@
+package com.skillstorm.taxdemo.benchmarks;
+
+import com.skillstorm.taxdemo.models.UserCreditData;
+import com.skillstorm.taxdemo.scoring.CreditSnapshot;
+import com.skillstorm.taxdemo.scoring.ScoreBreakdown;
+import com.skillstorm.taxdemo.scoring.ScoringEngine;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Score calculation, split into the account scan (snapshot) and the arithmetic on the snapshot.
+// The plain fixtures have no stored account type mask, so CreditSnapshot.of scans their accounts.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScoringBenchmark {
+
+    @Param({ "1", "5", "25", "200" })
+    public int accounts;
+
+    private UserCreditData creditData;
+    private UserCreditData maskedCreditData;
+    private CreditSnapshot snapshot;
+
+    @Setup
+    public void setUp() {
+        creditData = BenchmarkData.creditData(accounts);
+        maskedCreditData = BenchmarkData.creditData(accounts);
+        maskedCreditData.refreshAccountTypeMask();
+        snapshot = CreditSnapshot.of(creditData);
+    }
+
+    @Benchmark
+    public int scoreFromEntity() {
+        return ScoringEngine.score(CreditSnapshot.of(creditData));
+    }
+
+    // Rows with a stored account type mask skip the account scan entirely
+    @Benchmark
+    public int scoreFromStoredMask() {
+        return ScoringEngine.score(CreditSnapshot.of(maskedCreditData));
+    }
+
+    @Benchmark
+    public boolean creditMix() {
+        CreditSnapshot credit = CreditSnapshot.of(creditData);
+        return credit.hasCreditCard() && credit.hasLoan();
+    }
+
+    @Benchmark
+    public int scoreFromSnapshot() {
+        return ScoringEngine.score(snapshot);
+    }
+
+    @Benchmark
+    public ScoreBreakdown breakdown() {
+        return ScoringEngine.breakdown(snapshot);
+    }
+}
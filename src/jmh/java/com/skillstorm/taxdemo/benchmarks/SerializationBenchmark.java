@@ -0,0 +1,77 @@
+package com.skillstorm.taxdemo.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.skillstorm.taxdemo.models.CreditScoreHistory;
+import com.skillstorm.taxdemo.models.UserCreditData;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Jackson serialization of the entities returned by /data and /history, configured like Spring Boot's ObjectMapper
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+public class SerializationBenchmark {
+
+    private static ObjectMapper mapper() {
+        return JsonMapper.builder()
+                .findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+    }
+
+    @State(Scope.Benchmark)
+    public static class CreditDataState {
+        @Param({ "5", "200" })
+        public int accounts;
+
+        private final ObjectMapper mapper = mapper();
+        private UserCreditData creditData;
+
+        @Setup
+        public void setUp() {
+            creditData = BenchmarkData.creditData(accounts);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class HistoryState {
+        @Param({ "10", "1000", "100000" })
+        public int historyRows;
+
+        private final ObjectMapper mapper = mapper();
+        private List<CreditScoreHistory> history;
+
+        @Setup
+        public void setUp() {
+            history = BenchmarkData.historyRows(historyRows);
+        }
+    }
+
+    @Benchmark
+    public byte[] userCreditData(CreditDataState state) throws JsonProcessingException {
+        return state.mapper.writeValueAsBytes(state.creditData);
+    }
+
+    @Benchmark
+    public byte[] historyList(HistoryState state) throws JsonProcessingException {
+        return state.mapper.writeValueAsBytes(state.history);
+    }
+}
@@ -0,0 +1,56 @@
+package com.skillstorm.taxdemo.benchmarks;
+
+import com.skillstorm.taxdemo.dtos.CreditProfile;
+import com.skillstorm.taxdemo.services.TipRuleTable;
+
+import java.util.ArrayList;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// The compiled tip rule table for a profile that triggers every rule, one that triggers none,
+// and a batch of 1000 mixed profiles evaluated in one pass
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TipsBenchmark {
+
+    private final CreditProfile troubled = new CreditProfile(1L, 10, 4, 3, 1, 80, 90000, 24, 5, 4, 0, 1L);
+    private final CreditProfile healthy = new CreditProfile(2L, 120, 0, 0, 0, 10, 5000, 180, 0, 0, 6, 1L);
+    private final TipRuleTable table = TipRuleTable.defaults();
+    private final List<CreditProfile> batch = new ArrayList<>();
+
+    public TipsBenchmark() {
+        for (int i = 0; i < 1000; i++) {
+            batch.add(i % 2 == 0 ? troubled : healthy);
+        }
+    }
+
+    @Benchmark
+    public List<String> allRulesMatch() {
+        return table.tipsFor(troubled);
+    }
+
+    @Benchmark
+    public List<String> noRulesMatch() {
+        return table.tipsFor(healthy);
+    }
+
+    @Benchmark
+    public long[] batchOf1000() {
+        return table.match(batch);
+    }
+}
@@ -0,0 +1,300 @@
+package com.skillstorm.taxdemo.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Logger;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+// Open-model workload over the CreditScoreController endpoints. Each operation has its own arrival
+// rate and scheduler thread, which hands requests at their intended start times to a fixed set of
+// keep-alive connections whether or not earlier ones have completed. Latency is measured from the
+// intended start, so time a request spent queued for a connection or behind a slow server is counted
+// instead of hidden (coordinated omission).
+public class LoadDriver {
+
+    private static final Logger logger = Logger.getLogger(LoadDriver.class.getName());
+
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+    enum Operation {
+        SCORE, TIPS, HISTORY, HISTORY_PAGE, REPORT, SCORE_BATCH, HISTORY_BATCH, TIPS_BATCH, SIMULATE, CREATE, UPDATE, PATCH, IMPORT;
+
+        String key() {
+            return name().toLowerCase(Locale.ROOT).replace('_', '-');
+        }
+
+        static Operation of(String key) {
+            return valueOf(key.toUpperCase(Locale.ROOT).replace('-', '_'));
+        }
+    }
+
+    private static final class Stats {
+        private final Histogram latency = new ConcurrentHistogram(MAX_LATENCY_MICROS, 3);
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        // Keyed by status code, or by exception class for requests that got no response
+        private final Map<String, LongAdder> errorsByCause = new ConcurrentHashMap<>();
+
+        private void error(String cause) {
+            errors.increment();
+            errorsByCause.computeIfAbsent(cause, key -> new LongAdder()).increment();
+        }
+    }
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final String baseUrl;
+    private final LoadTestSettings settings;
+    private final StatementCounter statementCounter;
+    private final AtomicLong nextNewUserId;
+    private final AtomicLong inFlight = new AtomicLong();
+    private final ExecutorService connections;
+
+    public LoadDriver(int port, LoadTestSettings settings, StatementCounter statementCounter) {
+        this.baseUrl = "http://localhost:" + port + "/api/credit";
+        this.settings = settings;
+        this.statementCounter = statementCounter;
+        this.nextNewUserId = new AtomicLong(settings.seed().users());
+        this.connections = Executors.newFixedThreadPool(settings.connections());
+    }
+
+    public Map<String, Object> run() throws InterruptedException {
+        Map<Operation, Double> rates = new LinkedHashMap<>();
+        settings.rates().forEach((key, rate) -> {
+            if (rate != null && rate > 0) {
+                rates.put(Operation.of(key), rate);
+            }
+        });
+
+        try {
+            logger.info("Warming up for " + settings.warmupSeconds() + " s");
+            runPhase(rates, settings.warmupSeconds(), null);
+            statementCounter.reset();
+
+            logger.info("Measuring for " + settings.durationSeconds() + " s at " + rates + " over " + settings.connections() + " connections");
+            Map<Operation, Stats> stats = new LinkedHashMap<>();
+            rates.keySet().forEach(operation -> stats.put(operation, new Stats()));
+            long start = System.nanoTime();
+            runPhase(rates, settings.durationSeconds(), stats);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            return report(rates, stats, seconds);
+        } finally {
+            connections.shutdownNow();
+        }
+    }
+
+    private void runPhase(Map<Operation, Double> rates, int durationSeconds, Map<Operation, Stats> stats) throws InterruptedException {
+        long phaseStart = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+        long phaseEnd = phaseStart + TimeUnit.SECONDS.toNanos(durationSeconds);
+        List<Thread> schedulers = new ArrayList<>();
+        for (Map.Entry<Operation, Double> entry : rates.entrySet()) {
+            Operation operation = entry.getKey();
+            double intervalNanos = 1e9 / entry.getValue();
+            Stats target = stats != null ? stats.get(operation) : null;
+            Thread scheduler = new Thread(() -> {
+                for (long i = 0;; i++) {
+                    long intended = phaseStart + (long) (i * intervalNanos);
+                    if (intended >= phaseEnd) {
+                        return;
+                    }
+                    long wait = intended - System.nanoTime();
+                    if (wait > 0) {
+                        LockSupport.parkNanos(wait);
+                    }
+                    inFlight.incrementAndGet();
+                    connections.execute(() -> send(operation, intended, target));
+                }
+            }, "load-" + operation.key());
+            scheduler.setDaemon(true);
+            scheduler.start();
+            schedulers.add(scheduler);
+        }
+        for (Thread scheduler : schedulers) {
+            scheduler.join();
+        }
+        // Let the stragglers finish so they are measured too
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private void send(Operation operation, long intended, Stats stats) {
+        try {
+            HttpResponse<Void> response = client.send(request(operation, ThreadLocalRandom.current()), BodyHandlers.discarding());
+            if (stats != null && response.statusCode() >= 400) {
+                stats.error(Integer.toString(response.statusCode()));
+            }
+        } catch (IOException | RuntimeException e) {
+            if (stats != null) {
+                stats.error(e.getClass().getSimpleName());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            inFlight.decrementAndGet();
+            if (stats != null) {
+                stats.latency.recordValue(Math.min(MAX_LATENCY_MICROS, (System.nanoTime() - intended) / 1000));
+                stats.requests.increment();
+            }
+        }
+    }
+
+    private HttpRequest request(Operation operation, ThreadLocalRandom random) {
+        long userId = 1 + random.nextLong(settings.seed().users());
+        return switch (operation) {
+            case SCORE -> builder(operation, "/score", userId).GET().build();
+            case TIPS -> builder(operation, "/tips", userId).GET().build();
+            case HISTORY -> builder(operation, "/history", userId).GET().build();
+            case HISTORY_PAGE -> builder(operation, "/history/page?limit=50", userId).GET().build();
+            case REPORT -> builder(operation, "/report", userId).GET().build();
+            case SCORE_BATCH -> post(operation, "/score/batch", userId, userIds(random), "application/json");
+            case HISTORY_BATCH -> post(operation, "/history/batch", userId, userIds(random), "application/json");
+            case TIPS_BATCH -> post(operation, "/tips/batch", userId, userIds(random), "application/json");
+            case SIMULATE -> post(operation, "/simulate", userId, scenarios(random), "application/json");
+            case CREATE -> post(operation, "/data", userId, creditData(nextNewUserId.incrementAndGet(), random), "application/json");
+            case UPDATE -> builder(operation, "/data", userId)
+                    .PUT(BodyPublishers.ofString(creditData(userId, random)))
+                    .header("Content-Type", "application/json")
+                    .build();
+            case PATCH -> builder(operation, "/data", userId)
+                    .method("PATCH", BodyPublishers.ofString("{\"recentInquiries\":" + random.nextInt(8) + "}"))
+                    .header("Content-Type", "application/json")
+                    .build();
+            case IMPORT -> post(operation, "/data/import?mode=insert", userId, importBody(random), "application/x-ndjson");
+        };
+    }
+
+    private HttpRequest.Builder builder(Operation operation, String path, long userId) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofMinutes(2))
+                .header("User-ID", Long.toString(userId))
+                .header(StatementCounter.OPERATION_HEADER, operation.key());
+    }
+
+    private HttpRequest post(Operation operation, String path, long userId, String body, String contentType) {
+        return builder(operation, path, userId)
+                .POST(BodyPublishers.ofString(body))
+                .header("Content-Type", contentType)
+                .build();
+    }
+
+    private String userIds(ThreadLocalRandom random) {
+        StringBuilder body = new StringBuilder("{\"userIds\":[");
+        for (int i = 0; i < settings.batchUsers(); i++) {
+            body.append(i > 0 ? "," : "").append(1 + random.nextLong(settings.seed().users()));
+        }
+        return body.append("]}").toString();
+    }
+
+    private String scenarios(ThreadLocalRandom random) {
+        StringBuilder body = new StringBuilder("{\"scenarios\":[");
+        for (int i = 0; i < settings.simulateScenarios(); i++) {
+            body.append(i > 0 ? "," : "").append("{\"name\":\"s").append(i).append("\"");
+            body.append(",\"creditUtilization\":").append(-random.nextInt(30));
+            body.append(",\"totalDebt\":").append(-1000 * random.nextInt(20));
+            body.append(",\"recentInquiries\":").append(-random.nextInt(3));
+            if (i % 4 == 0) {
+                body.append(",\"openAccounts\":[\"loan\"]");
+            }
+            body.append("}");
+        }
+        return body.append("]}").toString();
+    }
+
+    private static String creditData(long userId, ThreadLocalRandom random) {
+        return "{\"userId\":" + userId
+                + ",\"onTimePayments\":" + random.nextInt(200)
+                + ",\"latePayments\":" + random.nextInt(10)
+                + ",\"missedPayments\":" + random.nextInt(5)
+                + ",\"publicRecords\":0"
+                + ",\"creditUtilization\":" + random.nextInt(100)
+                + ",\"totalDebt\":" + random.nextInt(120_000)
+                + ",\"oldestAccountAge\":" + random.nextInt(300)
+                + ",\"recentInquiries\":" + random.nextInt(8)
+                + ",\"newAccounts\":" + random.nextInt(5)
+                + ",\"creditAccounts\":[{\"accountType\":\"Credit Card\",\"balance\":" + random.nextInt(5000)
+                + ",\"creditLimit\":10000},{\"accountType\":\"Loan\",\"balance\":" + random.nextInt(20_000)
+                + ",\"creditLimit\":25000}]}";
+    }
+
+    private String importBody(ThreadLocalRandom random) {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < settings.importUsers(); i++) {
+            body.append(creditData(nextNewUserId.incrementAndGet(), random)).append('\n');
+        }
+        return body.toString();
+    }
+
+    private Map<String, Object> report(Map<Operation, Double> rates, Map<Operation, Stats> stats, double seconds) {
+        Map<String, Object> operations = new LinkedHashMap<>();
+        Histogram total = new Histogram(MAX_LATENCY_MICROS, 3);
+        long totalRequests = 0;
+        long totalErrors = 0;
+        for (Map.Entry<Operation, Stats> entry : stats.entrySet()) {
+            Stats operationStats = entry.getValue();
+            Histogram latency = operationStats.latency.copy();
+            total.add(latency);
+            long requests = operationStats.requests.sum();
+            long errors = operationStats.errors.sum();
+            totalRequests += requests;
+            totalErrors += errors;
+
+            Map<String, Object> operation = summary(requests, errors, seconds, latency);
+            operation.put("targetRate", rates.get(entry.getKey()));
+            Map<String, Long> errorsByCause = new TreeMap<>();
+            operationStats.errorsByCause.forEach((cause, count) -> errorsByCause.put(cause, count.sum()));
+            operation.put("errorsByCause", errorsByCause);
+            operation.put("statementsPerRequest", statementCounter.statementsPerRequest(entry.getKey().key()));
+            operations.put(entry.getKey().key(), operation);
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("durationSeconds", seconds);
+        report.put("total", summary(totalRequests, totalErrors, seconds, total));
+        report.put("backgroundStatements", statementCounter.backgroundStatements());
+        report.put("operations", operations);
+        return report;
+    }
+
+    private static Map<String, Object> summary(long requests, long errors, double seconds, Histogram latency) {
+        Map<String, Object> latencyMs = new LinkedHashMap<>();
+        latencyMs.put("p50", latency.getValueAtPercentile(50) / 1000.0);
+        latencyMs.put("p90", latency.getValueAtPercentile(90) / 1000.0);
+        latencyMs.put("p99", latency.getValueAtPercentile(99) / 1000.0);
+        latencyMs.put("p99.9", latency.getValueAtPercentile(99.9) / 1000.0);
+        latencyMs.put("max", latency.getMaxValue() / 1000.0);
+        latencyMs.put("mean", latency.getMean() / 1000.0);
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("requests", requests);
+        summary.put("errors", errors);
+        summary.put("throughput", requests / seconds);
+        summary.put("latencyMs", latencyMs);
+        return summary;
+    }
+}
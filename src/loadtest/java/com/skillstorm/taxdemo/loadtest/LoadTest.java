@@ -0,0 +1,48 @@
+package com.skillstorm.taxdemo.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skillstorm.taxdemo.TaxDemoApplication;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+// Runs the application on a random port against a seeded in-memory database, drives the workload
+// described by the loadtest.* settings and writes a JSON report. Any setting can be overridden on the
+// command line, e.g. --loadtest.duration-seconds=30 --loadtest.rates.score=500.
+public final class LoadTest {
+
+    private static final Logger logger = Logger.getLogger(LoadTest.class.getName());
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(TaxDemoApplication.class, LoadTestConfig.class)
+                .profiles("loadtest")
+                .run(args)) {
+            LoadTestSettings settings = context.getBean(LoadTestSettings.class);
+            int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+
+            Map<String, Object> seeded = context.getBean(LoadTestSeeder.class).seed();
+            Map<String, Object> results = new LoadDriver(port, settings, context.getBean(StatementCounter.class)).run();
+
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("settings", settings);
+            report.put("seed", seeded);
+            report.putAll(results);
+            File file = new File(settings.report());
+            if (file.getAbsoluteFile().getParentFile() != null) {
+                file.getAbsoluteFile().getParentFile().mkdirs();
+            }
+            ObjectMapper objectMapper = context.getBean(ObjectMapper.class);
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(file, report);
+            logger.info("Load test report written to " + file.getAbsolutePath() + "\n"
+                    + objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(results.get("total")));
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.skillstorm.taxdemo.loadtest;
+
+import com.skillstorm.taxdemo.services.IdSequenceAlignment;
+
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+// Extra beans for the load test context. Deliberately not a @Configuration: it sits under the
+// application's component scan, and is only added when LoadTest passes it as a source.
+public class LoadTestConfig {
+
+    // Static, so the DataSource is wrapped before anything else looks it up
+    @Bean
+    public static StatementCounter statementCounter() {
+        return new StatementCounter();
+    }
+
+    @Bean
+    public LoadTestSettings loadTestSettings(Environment environment) {
+        return Binder.get(environment).bind("loadtest", LoadTestSettings.class)
+                .orElseThrow(() -> new IllegalStateException("No loadtest settings; is the loadtest profile active?"));
+    }
+
+    @Bean
+    public LoadTestSeeder loadTestSeeder(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+            IdSequenceAlignment idSequenceAlignment, LoadTestSettings settings) {
+        return new LoadTestSeeder(jdbcTemplate, transactionManager, idSequenceAlignment, settings.seed());
+    }
+}
@@ -0,0 +1,152 @@
+package com.skillstorm.taxdemo.loadtest;
+
+import com.skillstorm.taxdemo.models.AccountType;
+import com.skillstorm.taxdemo.services.IdSequenceAlignment;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.logging.Logger;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Seeds the population with plain JDBC batches, bypassing JPA: users, their accounts and their
+// history are written batch-size rows at a time, each batch in its own transaction. Ids are assigned
+// here (user ids 1..users) and the sequences are moved past them afterwards.
+public class LoadTestSeeder {
+
+    private static final Logger logger = Logger.getLogger(LoadTestSeeder.class.getName());
+
+    private static final String USER_SQL = "insert into user_credit_data (id, user_id, on_time_payments, late_payments, "
+            + "missed_payments, public_records, credit_utilization, total_debt, oldest_account_age, recent_inquiries, "
+            + "new_accounts, account_type_mask, version, last_modified) values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0, ?)";
+    private static final String ACCOUNT_SQL = "insert into credit_account (id, account_type, account_type_code, balance, "
+            + "credit_limit, user_credit_data_id) values (?, ?, ?, ?, ?, ?)";
+    private static final String HISTORY_SQL = "insert into credit_score_history (user_id, score, timestamp) values (?, ?, ?)";
+
+    private static final AccountType[] ACCOUNT_TYPES = { AccountType.CREDIT_CARD, AccountType.LOAN, AccountType.MORTGAGE,
+            AccountType.AUTO_LOAN, AccountType.STUDENT_LOAN };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final IdSequenceAlignment idSequenceAlignment;
+    private final LoadTestSettings.Seed settings;
+
+    public LoadTestSeeder(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+            IdSequenceAlignment idSequenceAlignment, LoadTestSettings.Seed settings) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.idSequenceAlignment = idSequenceAlignment;
+        this.settings = settings;
+    }
+
+    public Map<String, Object> seed() {
+        long start = System.nanoTime();
+        SplittableRandom random = new SplittableRandom(settings.randomSeed());
+        Batch users = new Batch(USER_SQL);
+        Batch accounts = new Batch(ACCOUNT_SQL);
+        Batch history = new Batch(HISTORY_SQL);
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp modified = Timestamp.from(Instant.now());
+        long accountId = 0;
+
+        for (long userId = 1; userId <= settings.users(); userId++) {
+            int accountCount = settings.accountsPerUser() > 0 ? 1 + random.nextInt(2 * settings.accountsPerUser()) : 0;
+            int mask = 0;
+            Object[][] userAccounts = new Object[accountCount][];
+            for (int i = 0; i < accountCount; i++) {
+                AccountType type = ACCOUNT_TYPES[random.nextInt(ACCOUNT_TYPES.length)];
+                mask |= type.bit();
+                double limit = 1000 * (1 + random.nextInt(50));
+                userAccounts[i] = new Object[] { ++accountId, type.getLabel(), type.getCode(),
+                        Math.floor(limit * random.nextDouble()), limit, userId };
+            }
+            // Flush the parents first so every account batch finds its user
+            users.add(new Object[] { userId, userId, random.nextInt(200), random.nextInt(10), random.nextInt(5),
+                    random.nextInt(100) < 5 ? 1 : 0, Math.floor(100 * random.nextDouble()), Math.floor(120_000 * random.nextDouble()),
+                    random.nextInt(300), random.nextInt(8), random.nextInt(5), mask, modified });
+            for (Object[] account : userAccounts) {
+                if (accounts.full()) {
+                    users.flush();
+                }
+                accounts.add(account);
+            }
+            for (int i = 0; i < settings.historyPerUser(); i++) {
+                long secondsBack = random.nextLong(Math.max(1, settings.historyDays() * 86_400L));
+                history.add(new Object[] { userId, 300 + random.nextInt(551), Timestamp.valueOf(now.minusSeconds(secondsBack)) });
+            }
+            if (userId % 100_000 == 0) {
+                logger.info("Seeded " + userId + " of " + settings.users() + " users");
+            }
+        }
+        users.flush();
+        accounts.flush();
+        history.flush();
+        idSequenceAlignment.alignSequences();
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long rows = users.written + accounts.written + history.written;
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("users", users.written);
+        result.put("accounts", accounts.written);
+        result.put("historyRows", history.written);
+        result.put("seconds", seconds);
+        result.put("rowsPerSecond", rows / seconds);
+        logger.info(String.format("Seeded %d rows in %.1f s", rows, seconds));
+        return result;
+    }
+
+    private final class Batch {
+        private final String sql;
+        private final Object[][] rows = new Object[settings.batchSize()][];
+        private int size;
+        private long written;
+
+        private Batch(String sql) {
+            this.sql = sql;
+        }
+
+        private boolean full() {
+            return size == rows.length;
+        }
+
+        private void add(Object[] row) {
+            if (full()) {
+                flush();
+            }
+            rows[size++] = row;
+        }
+
+        private void flush() {
+            if (size == 0) {
+                return;
+            }
+            int count = size;
+            BatchPreparedStatementSetter setter = new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    Object[] row = rows[i];
+                    for (int column = 0; column < row.length; column++) {
+                        ps.setObject(column + 1, row[column]);
+                    }
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return count;
+                }
+            };
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(sql, setter));
+            written += count;
+            size = 0;
+        }
+    }
+}
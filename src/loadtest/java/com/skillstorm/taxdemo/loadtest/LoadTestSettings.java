@@ -0,0 +1,25 @@
+package com.skillstorm.taxdemo.loadtest;
+
+import java.util.Map;
+
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+// The loadtest.* properties; see application-loadtest.yml
+public record LoadTestSettings(Seed seed,
+        @DefaultValue("10") int warmupSeconds,
+        @DefaultValue("60") int durationSeconds,
+        @DefaultValue("64") int connections,
+        @DefaultValue("100") int batchUsers,
+        @DefaultValue("20") int simulateScenarios,
+        @DefaultValue("50") int importUsers,
+        @DefaultValue("target/loadtest-report.json") String report,
+        Map<String, Double> rates) {
+
+    public record Seed(@DefaultValue("10000") int users,
+            @DefaultValue("3") int accountsPerUser,
+            @DefaultValue("20") int historyPerUser,
+            @DefaultValue("90") int historyDays,
+            @DefaultValue("5000") int batchSize,
+            @DefaultValue("42") long randomSeed) {
+    }
+}
@@ -0,0 +1,104 @@
+package com.skillstorm.taxdemo.loadtest;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+// Counts SQL statements per load test operation. The driver names the operation in a request header;
+// the filter binds it to the request thread, and the pool wrapper charges every statement prepared on
+// that thread to it. Statements on other threads (history flusher, streamed report bodies, schedulers)
+// are counted as background.
+public final class StatementCounter extends OncePerRequestFilter implements BeanPostProcessor {
+
+    public static final String OPERATION_HEADER = "X-Load-Operation";
+
+    private static final String BACKGROUND = "background";
+
+    private final ThreadLocal<String> operation = new ThreadLocal<>();
+    private final Map<String, LongAdder> statements = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> requests = new ConcurrentHashMap<>();
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String name = request.getHeader(OPERATION_HEADER);
+        if (name == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        operation.set(name);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            operation.remove();
+            adder(requests, name).increment();
+        }
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DataSource dataSource)) {
+            return bean;
+        }
+        return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { DataSource.class },
+                (proxy, method, args) -> {
+                    Object result = invoke(dataSource, method, args);
+                    return result instanceof Connection connection ? counting(connection) : result;
+                });
+    }
+
+    private Connection counting(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Connection.class },
+                (proxy, method, args) -> {
+                    String name = method.getName();
+                    if (name.equals("prepareStatement") || name.equals("createStatement") || name.equals("prepareCall")) {
+                        String current = operation.get();
+                        adder(statements, current != null ? current : BACKGROUND).increment();
+                    }
+                    return invoke(connection, method, args);
+                });
+    }
+
+    // Drops everything counted so far, e.g. at the end of the warmup
+    public void reset() {
+        statements.clear();
+        requests.clear();
+    }
+
+    // Statements per completed request of the operation, or null before the first one
+    public Double statementsPerRequest(String name) {
+        long count = requests.containsKey(name) ? requests.get(name).sum() : 0;
+        return count > 0 ? (double) (statements.containsKey(name) ? statements.get(name).sum() : 0) / count : null;
+    }
+
+    public long backgroundStatements() {
+        return statements.containsKey(BACKGROUND) ? statements.get(BACKGROUND).sum() : 0;
+    }
+
+    private static LongAdder adder(Map<String, LongAdder> counters, String name) {
+        return counters.computeIfAbsent(name, key -> new LongAdder());
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
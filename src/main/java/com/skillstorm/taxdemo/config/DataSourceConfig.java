@@ -0,0 +1,139 @@
+package com.skillstorm.taxdemo.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.boot.jdbc.init.DataSourceScriptDatabaseInitializer;
+import org.springframework.boot.sql.init.DatabaseInitializationMode;
+import org.springframework.boot.sql.init.DatabaseInitializationSettings;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+
+// JDBC and R2DBC side by side. Boot backs off its DataSource auto-configuration as soon as an R2DBC
+// ConnectionFactory exists, so the Hikari pool behind JPA is declared here from the usual
+// spring.datasource.* properties. The JPA transaction manager is primary so @Transactional keeps
+// meaning JPA; the R2DBC one is only used by reactive code that asks for it.
+@Configuration
+public class DataSourceConfig {
+
+    @Bean
+    @Primary
+    @ConfigurationProperties("spring.datasource")
+    public DataSourceProperties dataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    @Bean
+    @Primary
+    @ConfigurationProperties("spring.datasource.hikari")
+    @ConditionalOnProperty(name = "credit.read-replicas.enabled", havingValue = "false", matchIfMissing = true)
+    public HikariDataSource dataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @Primary
+    public PlatformTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+        return new JpaTransactionManager(entityManagerFactory);
+    }
+
+    // Creates credit_score_history as a month-partitioned table. Boot orders script initializers before the
+    // EntityManagerFactory, so Hibernate's ddl-auto finds the partitioned table instead of creating a flat one.
+    // Other databases keep the flat table; see HistoryPartitionManager.
+    @Bean
+    @ConditionalOnProperty(name = "credit.history.partitioning.enabled", havingValue = "true")
+    public DataSourceScriptDatabaseInitializer historyPartitionInitializer(DataSource dataSource, DataSourceProperties properties) {
+        DatabaseInitializationSettings settings = new DatabaseInitializationSettings();
+        settings.setSchemaLocations(List.of("classpath:db/partitioned-history.sql"));
+        settings.setMode(DatabaseDriver.fromJdbcUrl(properties.determineUrl()) == DatabaseDriver.POSTGRESQL
+                ? DatabaseInitializationMode.ALWAYS : DatabaseInitializationMode.NEVER);
+        return new DataSourceScriptDatabaseInitializer(dataSource, settings);
+    }
+
+    // Primary plus read replicas, each with its own pool. The application's DataSource becomes a lazy
+    // proxy over a routing DataSource, so a connection is only taken, and its pool only chosen, at the
+    // first statement of a transaction; see ReplicaRouter for the rules.
+    @Configuration
+    @ConditionalOnProperty(name = "credit.read-replicas.enabled", havingValue = "true")
+    static class ReadReplicaConfig {
+
+        @Bean
+        @ConfigurationProperties("spring.datasource.hikari")
+        public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+            return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        }
+
+        @Bean
+        public ReplicaRouter replicaRouter(@Qualifier("primaryDataSource") HikariDataSource primaryDataSource,
+                Environment environment, MeterRegistry meterRegistry,
+                @Value("${credit.read-replicas.max-lag-ms:5000}") long maxLagMs,
+                @Value("${credit.read-replicas.check-interval-ms:1000}") long checkIntervalMs) {
+            Binder binder = Binder.get(environment);
+            List<DataSourceProperties> instances = binder
+                    .bind("credit.read-replicas.instances", Bindable.listOf(DataSourceProperties.class))
+                    .orElse(List.of());
+            if (instances.isEmpty()) {
+                throw new IllegalStateException("credit.read-replicas.enabled needs at least one credit.read-replicas.instances entry");
+            }
+            List<HikariDataSource> pools = new ArrayList<>();
+            for (int i = 0; i < instances.size(); i++) {
+                DataSourceProperties instance = instances.get(i);
+                if (instance.getUrl() == null) {
+                    throw new IllegalStateException("credit.read-replicas.instances[" + i + "].url is required");
+                }
+                HikariDataSource pool = instance.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+                binder.bind("credit.read-replicas.hikari", Bindable.ofInstance(pool));
+                pool.setPoolName("replica-" + i);
+                pool.setReadOnly(true);
+                pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+                pools.add(pool);
+            }
+            return new ReplicaRouter(primaryDataSource, pools, meterRegistry, maxLagMs, checkIntervalMs);
+        }
+
+        @Bean
+        @Primary
+        public DataSource dataSource(@Qualifier("primaryDataSource") HikariDataSource primaryDataSource, ReplicaRouter replicaRouter) {
+            ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(replicaRouter);
+            routing.setTargetDataSources(replicaRouter.targets());
+            routing.setDefaultTargetDataSource(primaryDataSource);
+            routing.afterPropertiesSet();
+            return new LazyConnectionDataSourceProxy(routing);
+        }
+
+        @Bean
+        public ReplicaRoutingFilter replicaRoutingFilter(
+                @Value("${credit.read-replicas.read-paths:/api/credit/history/**,/api/credit/report,/api/credit/tips/**}") List<String> readPaths) {
+            return new ReplicaRoutingFilter(readPaths);
+        }
+
+        // Picked up by the application task executor, which runs streamed report bodies and FetchScope forks
+        @Bean
+        public TaskDecorator replicaRoutingTaskDecorator() {
+            return ReplicaRouter::propagate;
+        }
+    }
+}
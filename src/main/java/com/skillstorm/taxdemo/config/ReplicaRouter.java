@@ -0,0 +1,270 @@
+package com.skillstorm.taxdemo.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.sql.DataSource;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Decides whether a connection comes from the primary or a read replica. Only read-only transactions
+// of requests to the read paths (see ReplicaRoutingFilter) go to a replica, and only to one that
+// answered its last check with a lag under max-lag-ms; among those the one with the fewest busy
+// connections wins. A user who wrote recently, or a request that already wrote, stays on the primary
+// until a replica that is within the lag limit must have caught up (read-your-writes). lastWrites only
+// knows the writes made through this JVM, so across instances that guarantee needs sticky routing of
+// each user to one instance; a read served elsewhere can see data up to max-lag-ms old.
+public class ReplicaRouter {
+
+    private static final Logger logger = Logger.getLogger(ReplicaRouter.class.getName());
+
+    public static final String PRIMARY = "primary";
+
+    private static final ThreadLocal<Request> CURRENT = new ThreadLocal<>();
+
+    // What the router knows about the request on this thread
+    public static final class Request {
+        private final Long userId;
+        private final boolean readPath;
+        private volatile boolean wrote;
+
+        public Request(Long userId, boolean readPath) {
+            this.userId = userId;
+            this.readPath = readPath;
+        }
+    }
+
+    private static final class Replica {
+        private final String name;
+        private final HikariDataSource pool;
+        private final JdbcTemplate jdbcTemplate;
+        private volatile boolean healthy;
+        private volatile long lagMs = -1;
+        private volatile boolean eligible;
+
+        private Replica(String name, HikariDataSource pool, int queryTimeoutSeconds) {
+            this.name = name;
+            this.pool = pool;
+            this.jdbcTemplate = new JdbcTemplate(pool);
+            this.jdbcTemplate.setQueryTimeout(queryTimeoutSeconds);
+        }
+
+        private int activeConnections() {
+            HikariPoolMXBean mxBean = pool.getHikariPoolMXBean();
+            return mxBean != null ? mxBean.getActiveConnections() : 0;
+        }
+    }
+
+    private final JdbcTemplate primary;
+    private final DataSource primaryDataSource;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final long maxLagMs;
+    private final long stickyMs;
+    private final Map<Long, Long> lastWrites = new ConcurrentHashMap<>();
+    private final AtomicInteger next = new AtomicInteger();
+
+    private final Counter replicaReads;
+    private final Counter primaryRoutes;
+    private final Counter stickyReads;
+    private final Counter fallbackReads;
+
+    public ReplicaRouter(DataSource primaryDataSource, List<HikariDataSource> replicaPools, MeterRegistry meterRegistry,
+            long maxLagMs, long checkIntervalMs) {
+        this.primaryDataSource = primaryDataSource;
+        this.primary = new JdbcTemplate(primaryDataSource);
+        this.maxLagMs = maxLagMs;
+        // A replica passing the lag check may have been measured up to one interval ago
+        this.stickyMs = maxLagMs + checkIntervalMs;
+        int queryTimeoutSeconds = (int) Math.max(1, checkIntervalMs / 1000);
+        for (HikariDataSource pool : replicaPools) {
+            Replica replica = new Replica(pool.getPoolName(), pool, queryTimeoutSeconds);
+            replicas.add(replica);
+            Gauge.builder("credit.datasource.replica.lag", replica, r -> r.lagMs)
+                    .description("Replica lag at the last check in milliseconds; -1 when unknown")
+                    .tag("replica", replica.name)
+                    .register(meterRegistry);
+        }
+        this.replicaReads = routes(meterRegistry, "replica");
+        this.primaryRoutes = routes(meterRegistry, "primary");
+        this.stickyReads = routes(meterRegistry, "sticky");
+        this.fallbackReads = routes(meterRegistry, "fallback");
+    }
+
+    private static Counter routes(MeterRegistry meterRegistry, String route) {
+        return Counter.builder("credit.datasource.routes")
+                .description("Physical connections by where they were routed")
+                .tag("route", route)
+                .register(meterRegistry);
+    }
+
+    public static void bind(Request request) {
+        CURRENT.set(request);
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    // Carries the request to executor threads, e.g. streamed report bodies and FetchScope forks
+    public static Runnable propagate(Runnable task) {
+        Request request = CURRENT.get();
+        if (request == null) {
+            return task;
+        }
+        return () -> {
+            Request previous = CURRENT.get();
+            CURRENT.set(request);
+            try {
+                task.run();
+            } finally {
+                CURRENT.set(previous);
+            }
+        };
+    }
+
+    public Map<Object, Object> targets() {
+        Map<Object, Object> targets = new LinkedHashMap<>();
+        targets.put(PRIMARY, primaryDataSource);
+        for (Replica replica : replicas) {
+            targets.put(replica.name, replica.pool);
+        }
+        return targets;
+    }
+
+    public Object route() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            primaryRoutes.increment();
+            return PRIMARY;
+        }
+        Request request = CURRENT.get();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (request != null) {
+                noteWrite(request);
+            }
+            primaryRoutes.increment();
+            return PRIMARY;
+        }
+        if (request == null || !request.readPath) {
+            primaryRoutes.increment();
+            return PRIMARY;
+        }
+        if (request.wrote || wroteRecently(request.userId)) {
+            stickyReads.increment();
+            return PRIMARY;
+        }
+        Replica replica = pick();
+        if (replica == null) {
+            fallbackReads.increment();
+            return PRIMARY;
+        }
+        replicaReads.increment();
+        return replica.name;
+    }
+
+    private void noteWrite(Request request) {
+        request.wrote = true;
+        if (request.userId == null) {
+            return;
+        }
+        lastWrites.put(request.userId, System.currentTimeMillis());
+        // The window has to start at the commit, not when the connection was taken
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    lastWrites.put(request.userId, System.currentTimeMillis());
+                }
+            });
+        }
+    }
+
+    private boolean wroteRecently(Long userId) {
+        if (userId == null) {
+            return false;
+        }
+        Long at = lastWrites.get(userId);
+        return at != null && System.currentTimeMillis() - at < stickyMs;
+    }
+
+    // Fewest active connections among the eligible replicas; the scan starts at a rotating offset so ties spread out
+    private Replica pick() {
+        Replica best = null;
+        int bestActive = Integer.MAX_VALUE;
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (!replica.eligible) {
+                continue;
+            }
+            int active = replica.activeConnections();
+            if (active < bestActive) {
+                best = replica;
+                bestActive = active;
+            }
+        }
+        return best;
+    }
+
+    // Writes the primary's heartbeat, then measures each replica by how old its copy of it is
+    @Scheduled(fixedDelayString = "${credit.read-replicas.check-interval-ms:1000}")
+    public void checkReplicas() {
+        long now = System.currentTimeMillis();
+        try {
+            if (primary.update("update replica_heartbeat set beat_millis = ? where id = 1", now) == 0) {
+                primary.update("insert into replica_heartbeat (id, beat_millis) values (1, ?)", now);
+            }
+        } catch (DuplicateKeyException e) {
+            // another instance inserted it first
+        } catch (DataAccessException e) {
+            logger.log(Level.WARNING, "Failed to write the replica heartbeat", e);
+        }
+
+        for (Replica replica : replicas) {
+            boolean wasEligible = replica.eligible;
+            try {
+                List<Long> beats = replica.jdbcTemplate.queryForList("select beat_millis from replica_heartbeat where id = 1", Long.class);
+                replica.lagMs = beats.isEmpty() ? -1 : Math.max(0, System.currentTimeMillis() - beats.get(0));
+                replica.healthy = true;
+            } catch (DataAccessException e) {
+                replica.lagMs = -1;
+                replica.healthy = false;
+                if (wasEligible) {
+                    logger.log(Level.WARNING, "Replica " + replica.name + " failed its check", e);
+                }
+            }
+            replica.eligible = replica.healthy && replica.lagMs >= 0 && replica.lagMs <= maxLagMs;
+            if (replica.eligible != wasEligible) {
+                logger.info("Replica " + replica.name + (replica.eligible ? " is serving reads" : " stopped serving reads")
+                        + " (lag " + replica.lagMs + " ms)");
+            }
+        }
+
+        lastWrites.values().removeIf(at -> now - at >= stickyMs);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (Replica replica : replicas) {
+            replica.pool.close();
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.skillstorm.taxdemo.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+// Picks the pool for each physical connection. Wrapped in a LazyConnectionDataSourceProxy, so the
+// choice is made at the first statement, once the transaction's read-only flag is known.
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final ReplicaRouter router;
+
+    public ReplicaRoutingDataSource(ReplicaRouter router) {
+        this.router = router;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return router.route();
+    }
+}
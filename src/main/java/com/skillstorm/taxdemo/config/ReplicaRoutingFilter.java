@@ -0,0 +1,56 @@
+package com.skillstorm.taxdemo.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+// Tells ReplicaRouter who the request is for and whether its path may read from a replica. The
+// user id is what read-your-writes is keyed on, so a write in one request keeps the same user's
+// next reads on the primary.
+public class ReplicaRoutingFilter extends OncePerRequestFilter {
+
+    private final List<PathPattern> readPaths;
+
+    public ReplicaRoutingFilter(List<String> readPaths) {
+        this.readPaths = readPaths.stream().map(PathPatternParser.defaultInstance::parse).toList();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/credit/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        PathContainer path = PathContainer.parsePath(request.getRequestURI());
+        boolean readPath = readPaths.stream().anyMatch(pattern -> pattern.matches(path));
+        ReplicaRouter.bind(new ReplicaRouter.Request(userId(request), readPath));
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReplicaRouter.clear();
+        }
+    }
+
+    private static Long userId(HttpServletRequest request) {
+        String header = request.getHeader("User-ID");
+        if (header == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(header.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
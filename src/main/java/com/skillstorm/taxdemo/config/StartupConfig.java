@@ -0,0 +1,35 @@
+package com.skillstorm.taxdemo.config;
+
+import com.skillstorm.taxdemo.controllers.CreditScoreController;
+
+import java.lang.reflect.Method;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.ReflectionUtils;
+
+// Beans that stay eager under spring.main.lazy-initialization (the faststart profile). A lazy bean is
+// only created when something asks for it, and nothing asks for one that just runs on a schedule, so
+// those would silently never run. The score controller is kept eager as well, so the first /score
+// request does not pay for building the request path.
+@Configuration
+public class StartupConfig {
+
+    @Bean
+    public static LazyInitializationExcludeFilter eagerStartupBeans() {
+        return (beanName, beanDefinition, beanType) -> beanType != null
+                && (CreditScoreController.class.isAssignableFrom(beanType) || hasScheduledMethods(beanType));
+    }
+
+    private static boolean hasScheduledMethods(Class<?> beanType) {
+        for (Method method : ReflectionUtils.getUniqueDeclaredMethods(beanType)) {
+            if (AnnotatedElementUtils.hasAnnotation(method, Scheduled.class)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,83 @@
+package com.skillstorm.taxdemo.controllers;
+
+import com.skillstorm.taxdemo.dtos.CreditDataStamp;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.NativeWebRequest;
+
+// Conditional GET for the polled endpoints. The validators come from CreditDataStamp, read in one
+// indexed lookup: the ETag from the credit data version (plus the newest history row for reports), and
+// Last-Modified from the modification times. When the client's copy is current, the request is answered
+// 304 before anything is loaded, scored, rendered or written to history.
+@Component
+public class ConditionalRequests {
+
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+
+    public ConditionalRequests(MeterRegistry meterRegistry, @Value("${credit.etag.enabled:true}") boolean enabled) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+    }
+
+    // True when the response has been completed as 304. Otherwise the validators have been set on the
+    // response and the handler carries on. A missing user skips the check so the handler reports it as before.
+    public boolean notModified(NativeWebRequest request, String endpoint, Long userId, Optional<CreditDataStamp> stamp,
+            String variant) {
+        if (!enabled || stamp.isEmpty() || stamp.get().version() == null) {
+            return false;
+        }
+        CreditDataStamp current = stamp.get();
+        // The user is a header, not part of the URL, so caches must key on it too
+        HttpServletResponse response = request.getNativeResponse(HttpServletResponse.class);
+        if (response != null) {
+            response.addHeader(HttpHeaders.VARY, "User-ID");
+        }
+
+        boolean conditional = request.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                || request.getHeader(HttpHeaders.IF_MODIFIED_SINCE) != null;
+        String etag = etag(endpoint, userId, current, variant);
+        long lastModified = lastModified(current);
+        boolean notModified = lastModified > 0 ? request.checkNotModified(etag, lastModified) : request.checkNotModified(etag);
+
+        Counter.builder("credit.http.conditional")
+                .description("GETs on polled endpoints by outcome; not_modified over the total is the 304 ratio")
+                .tag("endpoint", endpoint)
+                .tag("result", !conditional ? "unconditional" : notModified ? "not_modified" : "modified")
+                .register(meterRegistry)
+                .increment();
+        return notModified;
+    }
+
+    static String etag(String endpoint, Long userId, CreditDataStamp stamp, String variant) {
+        StringBuilder etag = new StringBuilder("\"").append(endpoint).append('-').append(userId).append('-').append(stamp.version());
+        if (stamp.latestHistoryId() != null) {
+            etag.append("-h").append(stamp.latestHistoryId());
+        }
+        if (variant != null) {
+            etag.append('-').append(variant);
+        }
+        return etag.append('"').toString();
+    }
+
+    // Newest of the data and history modification times, in epoch millis; 0 when neither is known
+    static long lastModified(CreditDataStamp stamp) {
+        long lastModified = stamp.lastModified() != null ? stamp.lastModified().toEpochMilli() : 0;
+        if (stamp.latestHistoryAt() != null) {
+            // History timestamps are written with LocalDateTime.now(), i.e. in the JVM's zone
+            Instant historyAt = stamp.latestHistoryAt().atZone(ZoneId.systemDefault()).toInstant();
+            lastModified = Math.max(lastModified, historyAt.toEpochMilli());
+        }
+        return lastModified;
+    }
+}
@@ -2,18 +2,47 @@
 
 package com.skillstorm.taxdemo.controllers;
 
+import com.skillstorm.taxdemo.dtos.BatchScoreRequest;
+import com.skillstorm.taxdemo.dtos.BatchScoreResponse;
+import com.skillstorm.taxdemo.dtos.BatchTipsResponse;
+import com.skillstorm.taxdemo.dtos.CreditDataPatch;
+import com.skillstorm.taxdemo.dtos.HistoryPage;
+import com.skillstorm.taxdemo.dtos.HistoryWindow;
+import com.skillstorm.taxdemo.dtos.ImportResult;
+import com.skillstorm.taxdemo.dtos.SimulationRequest;
+import com.skillstorm.taxdemo.dtos.SimulationResponse;
 import com.skillstorm.taxdemo.models.CreditScoreHistory;
 import com.skillstorm.taxdemo.models.UserCreditData;
-import com.skillstorm.taxdemo.models.CreditAccount;
-import com.skillstorm.taxdemo.repositories.UserCreditDataRepository;
+import com.skillstorm.taxdemo.services.CreditDataImporter;
+import com.skillstorm.taxdemo.services.CreditDataService;
+import com.skillstorm.taxdemo.services.CreditReportWriter;
 import com.skillstorm.taxdemo.services.CreditScoreService;
+import com.skillstorm.taxdemo.services.ScoreSimulator;
 
+import java.io.BufferedWriter;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/api/credit")
@@ -23,18 +52,96 @@ public class CreditScoreController {
     private CreditScoreService creditScoreService;
 
     @Autowired
-    private UserCreditDataRepository userCreditDataRepository;
+    private CreditDataService creditDataService;
 
+    @Autowired
+    private CreditDataImporter creditDataImporter;
+
+    @Autowired
+    private ConditionalRequests conditionalRequests;
+
+    @Autowired
+    private ScoreSimulator scoreSimulator;
+
+    @Value("${credit.import.max-chunk-size:10000}")
+    private int maxImportChunkSize;
+
+    @Value("${credit.batch.max-size:10000}")
+    private int maxBatchSize;
+
+    @Value("${credit.history.page.default-size:50}")
+    private int defaultHistoryPageSize;
+
+    @Value("${credit.history.page.max-size:500}")
+    private int maxHistoryPageSize;
+
+    // A 304 also skips the history row a scoring GET normally records
     @GetMapping("/score")
-    public ResponseEntity<Integer> getCreditScore(@RequestHeader("User-ID") Long userId) {
+    public ResponseEntity<Integer> getCreditScore(@RequestHeader("User-ID") Long userId, NativeWebRequest request) {
+        if (conditionalRequests.notModified(request, "score", userId, creditScoreService.getCreditDataStamp(userId), null)) {
+            return null;
+        }
         int score = creditScoreService.calculateFICOScore(userId);
         return ResponseEntity.ok(score);
     }
 
+    @PostMapping("/score/batch")
+    public ResponseEntity<BatchScoreResponse> getCreditScores(@RequestBody BatchScoreRequest request) {
+        BatchScoreResponse response = creditScoreService.calculateFICOScores(validateBatch(request));
+        return ResponseEntity.ok(response);
+    }
+
+    // What-if scores for up to credit.simulate.max-scenarios scenarios; nothing is persisted
+    @PostMapping("/simulate")
+    public ResponseEntity<SimulationResponse> simulate(@RequestHeader("User-ID") Long userId, @RequestBody SimulationRequest request) {
+        if (request == null || request.scenarios() == null || request.scenarios().isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "scenarios must not be empty");
+        }
+        if (request.scenarios().size() > scoreSimulator.getMaxScenarios()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Scenario count exceeds limit of " + scoreSimulator.getMaxScenarios());
+        }
+        try {
+            return ResponseEntity.ok(scoreSimulator.simulate(userId, request.scenarios()));
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+        }
+    }
+
     @PostMapping("/data")
     public ResponseEntity<UserCreditData> saveCreditData(@RequestBody UserCreditData creditData) {
-        UserCreditData savedData = userCreditDataRepository.save(creditData);
-        return ResponseEntity.ok(savedData);
+        try {
+            UserCreditData savedData = creditDataService.save(creditData);
+            return ResponseEntity.ok(savedData);
+        } catch (DataIntegrityViolationException e) {
+            // user_id is unique; an existing user is changed with PUT or PATCH
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Credit data already exists for userId: " + creditData.getUserId());
+        }
+    }
+
+    // Bulk import: one JSON object per line (same shape as POST /data), or CSV with a header row
+    @PostMapping(value = "/data/import", consumes = { MediaType.APPLICATION_NDJSON_VALUE, "text/csv" })
+    public ResponseEntity<ImportResult> importCreditData(InputStream body,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            @RequestParam(defaultValue = "insert") String mode,
+            @RequestParam(required = false) Integer chunkSize) {
+        CreditDataImporter.Mode importMode;
+        try {
+            importMode = CreditDataImporter.Mode.valueOf(mode.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported import mode: " + mode);
+        }
+        int size = chunkSize != null ? chunkSize : creditDataImporter.getDefaultChunkSize();
+        if (size < 1 || size > maxImportChunkSize) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "chunkSize must be between 1 and " + maxImportChunkSize);
+        }
+        CreditDataImporter.Format format = "csv".equalsIgnoreCase(contentType.getSubtype())
+                ? CreditDataImporter.Format.CSV
+                : CreditDataImporter.Format.NDJSON;
+        try {
+            return ResponseEntity.ok(creditDataImporter.importData(body, format, importMode, size));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
     }
 
     @GetMapping("/history")
@@ -43,49 +150,117 @@ public class CreditScoreController {
         return ResponseEntity.ok(history);
     }
 
-    @PutMapping("/data")
-    public ResponseEntity<UserCreditData> updateUserCreditData(@RequestHeader("User-ID") Long userId, @RequestBody UserCreditData updatedCreditData) {
-        Optional<UserCreditData> optionalExistingData = userCreditDataRepository.findByUserId(userId);
-        if (!optionalExistingData.isPresent()) {
-            throw new RuntimeException("User Credit Data not found for userId: " + userId);
+    @GetMapping("/history/page")
+    public ResponseEntity<HistoryPage> getCreditScoreHistoryPage(@RequestHeader("User-ID") Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        int pageSize = limit != null ? limit : defaultHistoryPageSize;
+        if (pageSize < 1 || pageSize > maxHistoryPageSize) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be between 1 and " + maxHistoryPageSize);
         }
+        try {
+            HistoryPage page = creditScoreService.getCreditScoreHistoryPage(userId, new HistoryWindow(from, to, pageSize), cursor);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
 
-        UserCreditData existingData = optionalExistingData.get();
-
-        // Update fields individually
-        existingData.setOnTimePayments(updatedCreditData.getOnTimePayments());
-        existingData.setLatePayments(updatedCreditData.getLatePayments());
-        existingData.setMissedPayments(updatedCreditData.getMissedPayments());
-        existingData.setPublicRecords(updatedCreditData.getPublicRecords());
-        existingData.setCreditUtilization(updatedCreditData.getCreditUtilization());
-        existingData.setTotalDebt(updatedCreditData.getTotalDebt());
-        existingData.setOldestAccountAge(updatedCreditData.getOldestAccountAge());
-        existingData.setRecentInquiries(updatedCreditData.getRecentInquiries());
-        existingData.setNewAccounts(updatedCreditData.getNewAccounts());
+    @PostMapping("/history/batch")
+    public ResponseEntity<Map<Long, List<CreditScoreHistory>>> getCreditScoreHistories(@RequestBody BatchScoreRequest request) {
+        Map<Long, List<CreditScoreHistory>> histories = creditScoreService.getCreditScoreHistories(validateBatch(request));
+        return ResponseEntity.ok(histories);
+    }
 
-        // Handle credit accounts collection
-        updateCreditAccounts(existingData.getCreditAccounts(), updatedCreditData.getCreditAccounts());
+    private List<Long> validateBatch(BatchScoreRequest request) {
+        if (request == null || request.userIds() == null || request.userIds().isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "userIds must not be empty");
+        }
+        if (request.userIds().size() > maxBatchSize) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Batch size exceeds limit of " + maxBatchSize);
+        }
+        if (request.userIds().contains(null)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "userIds must not contain null");
+        }
+        return request.userIds();
+    }
 
-        UserCreditData savedData = userCreditDataRepository.save(existingData);
-        return ResponseEntity.ok(savedData);
+    @PutMapping("/data")
+    public ResponseEntity<UserCreditData> updateUserCreditData(@RequestHeader("User-ID") Long userId, @RequestBody UserCreditData updatedCreditData) {
+        try {
+            return ResponseEntity.ok(creditDataService.update(userId, updatedCreditData));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
     }
 
-    private void updateCreditAccounts(List<CreditAccount> existingAccounts, List<CreditAccount> updatedAccounts) {
-        existingAccounts.clear();
-        existingAccounts.addAll(updatedAccounts);
+    // Partial update: only the fields and accounts named in the body are touched
+    @PatchMapping("/data")
+    public ResponseEntity<UserCreditData> patchUserCreditData(@RequestHeader("User-ID") Long userId, @RequestBody CreditDataPatch patch) {
+        try {
+            return ResponseEntity.ok(creditDataService.patch(userId, patch));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
     }
 
-    // Modified endpoint for credit reports
+    // Modified endpoint for credit reports; the body is streamed so history size does not affect heap use
     @GetMapping("/report")
-    public ResponseEntity<String> getCreditReport(@RequestHeader("User-ID") Long userId) {
-        String report = creditScoreService.generateCreditReport(userId);
-        return ResponseEntity.ok(report);
+    public ResponseEntity<StreamingResponseBody> getCreditReport(@RequestHeader("User-ID") Long userId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "text") String format,
+            NativeWebRequest request) {
+        CreditReportWriter.Format reportFormat = parseReportFormat(format);
+        if (limit != null && limit < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must not be negative");
+        }
+        HistoryWindow window = new HistoryWindow(from, to, limit);
+        // Each format and window is a separate representation with its own ETag
+        String variant = reportFormat.name().toLowerCase(Locale.ROOT) + "-" + Integer.toHexString(Objects.hash(from, to, limit));
+        Optional<UserCreditData> report = creditScoreService.getCreditReportData(userId,
+                stamp -> conditionalRequests.notModified(request, "report", userId, stamp, variant));
+        if (report.isEmpty()) {
+            return null;
+        }
+        UserCreditData creditData = report.get();
+
+        StreamingResponseBody body = outputStream -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            creditScoreService.writeCreditReport(creditData, window, reportFormat, writer);
+            writer.flush();
+        };
+        MediaType contentType = reportFormat == CreditReportWriter.Format.JSON
+                ? MediaType.APPLICATION_JSON
+                : new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8);
+        return ResponseEntity.ok().contentType(contentType).body(body);
     }
 
-    // Modified endpoint for credit improvement tips
+    private CreditReportWriter.Format parseReportFormat(String format) {
+        try {
+            return CreditReportWriter.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported report format: " + format);
+        }
+    }
+
+    // Modified endpoint for credit improvement tips; the tag also covers the rule table in force
     @GetMapping("/tips")
-    public ResponseEntity<List<String>> getCreditImprovementTips(@RequestHeader("User-ID") Long userId) {
+    public ResponseEntity<List<String>> getCreditImprovementTips(@RequestHeader("User-ID") Long userId, NativeWebRequest request) {
+        if (conditionalRequests.notModified(request, "tips", userId, creditScoreService.getCreditDataStamp(userId),
+                creditScoreService.getTipRulesFingerprint())) {
+            return null;
+        }
         List<String> tips = creditScoreService.getCreditImprovementTips(userId);
         return ResponseEntity.ok(tips);
     }
+
+    @PostMapping("/tips/batch")
+    public ResponseEntity<BatchTipsResponse> getCreditImprovementTips(@RequestBody BatchScoreRequest request) {
+        BatchTipsResponse response = creditScoreService.getCreditImprovementTips(validateBatch(request));
+        return ResponseEntity.ok(response);
+    }
 }
@@ -0,0 +1,40 @@
+package com.skillstorm.taxdemo.controllers;
+
+import com.skillstorm.taxdemo.dtos.ScoreConsistencyReport;
+import com.skillstorm.taxdemo.services.CurrentScoreService;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+// GET /actuator/currentScores returns the result of the last consistency check (404 before the first one).
+// POST with {"check": true} recomputes the materialized scores and reports the ones that differ; otherwise
+// POST backfills users without one, and with {"repair": true} also overwrites the differing scores.
+@Component
+@Endpoint(id = "currentScores")
+public class CurrentScoreEndpoint {
+
+    @Autowired
+    private CurrentScoreService currentScoreService;
+
+    // Scanning every user is a write operation's job; a GET only reads what the last scan found
+    @ReadOperation
+    public ScoreConsistencyReport lastCheck() {
+        return currentScoreService.lastCheck().orElse(null);
+    }
+
+    @WriteOperation
+    public Map<String, Object> backfill(@Nullable Boolean check, @Nullable Boolean repair) {
+        if (Boolean.TRUE.equals(check) && !Boolean.TRUE.equals(repair)) {
+            return Map.of("check", currentScoreService.check(false));
+        }
+        long backfilled = currentScoreService.backfill();
+        ScoreConsistencyReport report = Boolean.TRUE.equals(repair) ? currentScoreService.check(true) : null;
+        return report != null ? Map.of("backfilled", backfilled, "check", report) : Map.of("backfilled", backfilled);
+    }
+}
@@ -0,0 +1,56 @@
+package com.skillstorm.taxdemo.controllers;
+
+import com.skillstorm.taxdemo.dtos.HistoryEntry;
+import com.skillstorm.taxdemo.dtos.HistoryWindow;
+import com.skillstorm.taxdemo.services.ReactiveCreditReadService;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// Non-blocking read API for high fan-in callers. Handlers return Mono/Flux, so the servlet thread is
+// released as soon as the query is issued and the response is completed from the R2DBC event loop.
+// Streamed history is written one element at a time and the next row is only requested once the
+// previous one has been written, which propagates client backpressure to the database cursor.
+@RestController
+@RequestMapping("/api/credit/reactive")
+public class ReactiveCreditController {
+
+    @Autowired
+    private ReactiveCreditReadService reactiveCreditReadService;
+
+    // Compute-only: unlike GET /api/credit/score no history row is recorded
+    @GetMapping("/score")
+    public Mono<Integer> getCreditScore(@RequestHeader("User-ID") Long userId) {
+        return reactiveCreditReadService.calculateFICOScore(userId);
+    }
+
+    @GetMapping(value = "/history", produces = { MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE })
+    public Flux<HistoryEntry> getCreditScoreHistory(@RequestHeader("User-ID") Long userId,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        if (limit != null && limit < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must not be negative");
+        }
+        return reactiveCreditReadService.getCreditScoreHistory(userId, new HistoryWindow(from, to, limit));
+    }
+
+    @GetMapping("/tips")
+    public Mono<List<String>> getCreditImprovementTips(@RequestHeader("User-ID") Long userId) {
+        return reactiveCreditReadService.getCreditImprovementTips(userId);
+    }
+}
@@ -0,0 +1,31 @@
+package com.skillstorm.taxdemo.controllers;
+
+import com.skillstorm.taxdemo.dtos.RescoreProgress;
+import com.skillstorm.taxdemo.services.RescoringJob;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+// GET /actuator/rescore reports progress, throughput and ETA of the latest rescoring run;
+// POST starts a new run, resumes an interrupted one, or is a no-op while one is running
+@Component
+@Endpoint(id = "rescore")
+public class RescoringEndpoint {
+
+    @Autowired
+    private RescoringJob rescoringJob;
+
+    @ReadOperation
+    public RescoreProgress progress() {
+        return rescoringJob.progress();
+    }
+
+    @WriteOperation
+    public RescoreProgress start() {
+        rescoringJob.start();
+        return rescoringJob.progress();
+    }
+}
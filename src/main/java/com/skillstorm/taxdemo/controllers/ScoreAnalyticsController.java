@@ -0,0 +1,54 @@
+package com.skillstorm.taxdemo.controllers;
+
+import com.skillstorm.taxdemo.dtos.DailyScoreStats;
+import com.skillstorm.taxdemo.dtos.ScoreDistribution;
+import com.skillstorm.taxdemo.services.ScoreAnalytics;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+// Population score statistics from the daily histograms; both default to the last 30 days
+@RestController
+@RequestMapping("/api/credit/analytics")
+public class ScoreAnalyticsController {
+
+    private static final int DEFAULT_DAYS = 30;
+
+    @Autowired
+    private ScoreAnalytics scoreAnalytics;
+
+    @GetMapping("/distribution")
+    public ResponseEntity<ScoreDistribution> getDistribution(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "50") int bandWidth) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        try {
+            return ResponseEntity.ok(scoreAnalytics.distribution(from != null ? from : end.minusDays(DEFAULT_DAYS - 1), end, bandWidth));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    @GetMapping("/trend")
+    public ResponseEntity<List<DailyScoreStats>> getTrend(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        try {
+            return ResponseEntity.ok(scoreAnalytics.trend(from != null ? from : end.minusDays(DEFAULT_DAYS - 1), end));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.skillstorm.taxdemo.controllers;
+
+import com.skillstorm.taxdemo.services.ScoreAnalytics;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+// POST /actuator/scoreAnalytics recounts the score histograms from credit_score_history, by default
+// for the longest range a query may cover, e.g. after restoring history or losing histogram rows.
+// Only days inside the raw retention window are recounted; "recountedFrom" says where that began.
+@Component
+@Endpoint(id = "scoreAnalytics")
+public class ScoreAnalyticsEndpoint {
+
+    @Autowired
+    private ScoreAnalytics scoreAnalytics;
+
+    @WriteOperation
+    public Map<String, Object> rebuild(@Nullable LocalDate from, @Nullable LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(scoreAnalytics.getMaxDays() - 1);
+        long rows = scoreAnalytics.rebuild(start, end);
+        return Map.of("from", start, "to", end, "recountedFrom", scoreAnalytics.firstRebuildableDay(start), "rows", rows);
+    }
+}
@@ -0,0 +1,37 @@
+package com.skillstorm.taxdemo.controllers;
+
+import com.skillstorm.taxdemo.services.CreditImprovementTips;
+import com.skillstorm.taxdemo.services.TipRuleTable;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+// GET /actuator/tipRules shows the compiled tip rule table in force; POST recompiles it from the
+// current environment (POST /actuator/refresh does the same after re-reading the config sources)
+@Component
+@Endpoint(id = "tipRules")
+public class TipRulesEndpoint {
+
+    @Autowired
+    private CreditImprovementTips creditImprovementTips;
+
+    @ReadOperation
+    public Map<String, Object> rules() {
+        TipRuleTable table = creditImprovementTips.getTable();
+        return Map.of("generation", table.getGeneration(),
+                "fingerprint", table.getFingerprint(),
+                "defaultMessage", table.getDefaultMessage(),
+                "rules", table.getRules());
+    }
+
+    @WriteOperation
+    public Map<String, Object> reload() {
+        boolean reloaded = creditImprovementTips.reload();
+        return Map.of("reloaded", reloaded, "generation", creditImprovementTips.getTable().getGeneration());
+    }
+}
@@ -0,0 +1,6 @@
+package com.skillstorm.taxdemo.dtos;
+
+import java.util.List;
+
+public record BatchScoreRequest(List<Long> userIds) {
+}
@@ -0,0 +1,7 @@
+package com.skillstorm.taxdemo.dtos;
+
+import java.util.Map;
+
+// Per-user scores plus per-user errors, so one bad user id does not fail the whole batch
+public record BatchScoreResponse(Map<Long, Integer> scores, Map<Long, String> errors) {
+}
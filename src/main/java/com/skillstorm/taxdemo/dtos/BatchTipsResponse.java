@@ -0,0 +1,8 @@
+package com.skillstorm.taxdemo.dtos;
+
+import java.util.List;
+import java.util.Map;
+
+// Per-user tips plus per-user errors, in the same shape as BatchScoreResponse
+public record BatchTipsResponse(Map<Long, List<String>> tips, Map<Long, String> errors) {
+}
@@ -0,0 +1,13 @@
+package com.skillstorm.taxdemo.dtos;
+
+import java.util.List;
+
+// Partial update of a user's credit data. Null fields are left unchanged. Each entry in accounts
+// either updates the account with that id (null fields unchanged) or, without an id, adds a new one.
+public record CreditDataPatch(Integer onTimePayments, Integer latePayments, Integer missedPayments, Integer publicRecords,
+        Double creditUtilization, Double totalDebt, Integer oldestAccountAge, Integer recentInquiries, Integer newAccounts,
+        List<AccountPatch> accounts, List<Long> removeAccountIds) {
+
+    public record AccountPatch(Long id, String accountType, Double balance, Double creditLimit) {
+    }
+}
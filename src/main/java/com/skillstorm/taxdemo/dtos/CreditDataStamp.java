@@ -0,0 +1,13 @@
+package com.skillstorm.taxdemo.dtos;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+// Validators for conditional GETs: the credit data version and modification time, and for reports the
+// newest history row. latestHistoryId and latestHistoryAt are null when they were not looked up or the user has no history.
+public record CreditDataStamp(Long version, Instant lastModified, Long latestHistoryId, LocalDateTime latestHistoryAt) {
+
+    public CreditDataStamp(Long version, Instant lastModified) {
+        this(version, lastModified, null, null);
+    }
+}
@@ -0,0 +1,8 @@
+package com.skillstorm.taxdemo.dtos;
+
+// Scalar credit fields of a user, loaded without touching the credit accounts collection.
+// accountTypeMask is null for rows whose mask has not been backfilled yet.
+public record CreditProfile(Long userId, int onTimePayments, int latePayments, int missedPayments, int publicRecords,
+        double creditUtilization, double totalDebt, int oldestAccountAge, int recentInquiries, int newAccounts,
+        Integer accountTypeMask, Long version) {
+}
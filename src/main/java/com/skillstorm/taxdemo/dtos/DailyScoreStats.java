@@ -0,0 +1,7 @@
+package com.skillstorm.taxdemo.dtos;
+
+import java.time.LocalDate;
+
+// One day of the score trend; statistics are null on days without history rows
+public record DailyScoreStats(LocalDate day, long count, Double mean, Integer p50, Integer p95) {
+}
@@ -0,0 +1,21 @@
+package com.skillstorm.taxdemo.dtos;
+
+import com.skillstorm.taxdemo.models.HistoryResolution;
+
+import java.time.LocalDateTime;
+
+// Read-only view of one credit score history row; not a managed entity, so streaming it never grows the persistence context.
+// Summary rows written by HistoryCompactor carry their resolution and the period's score range; a raw row is its own range.
+public record HistoryEntry(Long id, int score, LocalDateTime timestamp, HistoryResolution resolution, Integer minScore,
+        Integer maxScore) {
+
+    public HistoryEntry {
+        resolution = resolution != null ? resolution : HistoryResolution.RAW;
+        minScore = minScore != null ? minScore : score;
+        maxScore = maxScore != null ? maxScore : score;
+    }
+
+    public static HistoryEntry raw(Long id, int score, LocalDateTime timestamp) {
+        return new HistoryEntry(id, score, timestamp, HistoryResolution.RAW, score, score);
+    }
+}
@@ -0,0 +1,7 @@
+package com.skillstorm.taxdemo.dtos;
+
+import java.util.List;
+
+// One page of history, newest first; nextCursor is null on the last page
+public record HistoryPage(List<HistoryEntry> items, String nextCursor) {
+}
@@ -0,0 +1,15 @@
+package com.skillstorm.taxdemo.dtos;
+
+import java.time.LocalDateTime;
+
+// Optional time range [from, to) and row limit applied to a history read; a null bound is left open
+public record HistoryWindow(LocalDateTime from, LocalDateTime to, Integer limit) {
+
+    public static HistoryWindow unbounded() {
+        return new HistoryWindow(null, null, null);
+    }
+
+    public long limitOrMax() {
+        return limit != null ? limit : Long.MAX_VALUE;
+    }
+}
@@ -0,0 +1,11 @@
+package com.skillstorm.taxdemo.dtos;
+
+import java.util.List;
+
+// Outcome of a bulk import. failed counts every rejected line; errors lists at most the configured
+// number of them (parse errors as they are read, storage errors as each chunk is written).
+public record ImportResult(long lines, long inserted, long updated, long failed, List<LineError> errors) {
+
+    public record LineError(long line, Long userId, String message) {
+    }
+}
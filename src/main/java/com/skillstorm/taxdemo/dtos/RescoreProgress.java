@@ -0,0 +1,18 @@
+package com.skillstorm.taxdemo.dtos;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Snapshot of the latest bulk rescoring run. Throughput and ETA cover the current execution only,
+// so a resumed run is not credited with work committed before the restart.
+public record RescoreProgress(Long runId, State state, LocalDateTime startedAt, long total, long processed,
+        double percentComplete, double usersPerSecond, Long etaSeconds, List<Partition> partitions) {
+
+    public enum State {
+        IDLE, RUNNING, COMPLETED, INCOMPLETE
+    }
+
+    public record Partition(int index, long rangeStart, long rangeEnd, long lastId, long total, long processed,
+            String status) {
+    }
+}
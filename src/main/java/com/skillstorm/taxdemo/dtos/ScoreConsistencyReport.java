@@ -0,0 +1,13 @@
+package com.skillstorm.taxdemo.dtos;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Result of comparing materialized scores with freshly computed ones. missing counts users without a
+// materialized score; mismatches lists up to the configured number of examples.
+public record ScoreConsistencyReport(long checked, long mismatched, long missing, long repaired, List<Mismatch> mismatches,
+        LocalDateTime checkedAt) {
+
+    public record Mismatch(Long userId, int stored, int recomputed) {
+    }
+}
@@ -0,0 +1,10 @@
+package com.skillstorm.taxdemo.dtos;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+// Score statistics over the history rows written between from and to (inclusive days). bands maps
+// the lowest score of each band to its count; statistics are null when there are no rows.
+public record ScoreDistribution(LocalDate from, LocalDate to, long count, Double mean, Integer min, Integer p50,
+        Integer p90, Integer p95, Integer p99, Integer max, Map<Integer, Long> bands) {
+}
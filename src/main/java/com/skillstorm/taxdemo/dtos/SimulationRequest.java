@@ -0,0 +1,18 @@
+package com.skillstorm.taxdemo.dtos;
+
+import java.util.List;
+
+// What-if scenarios scored against the caller's current credit data. Every field of a scenario is a
+// change relative to the stored data; null fields leave the value as it is.
+public record SimulationRequest(List<Scenario> scenarios) {
+
+    // balanceChanges move an existing account's balance (negative pays it down). openAccounts adds
+    // accounts of the given types, each counting as a new account and a hard inquiry.
+    public record Scenario(String name, Integer onTimePayments, Integer latePayments, Integer missedPayments,
+            Integer publicRecords, Double creditUtilization, Double totalDebt, Integer oldestAccountAge,
+            Integer recentInquiries, Integer newAccounts, List<BalanceChange> balanceChanges, List<String> openAccounts) {
+    }
+
+    public record BalanceChange(Long accountId, double amount) {
+    }
+}
@@ -0,0 +1,14 @@
+package com.skillstorm.taxdemo.dtos;
+
+import com.skillstorm.taxdemo.scoring.ScoreBreakdown;
+
+import java.util.List;
+
+// Results are in request order. A scenario that cannot be applied carries an error and no scores,
+// so one bad scenario does not fail the whole request.
+public record SimulationResponse(ScoreBreakdown current, List<ScenarioResult> scenarios) {
+
+    // delta is the scenario's breakdown minus the current one, component by component
+    public record ScenarioResult(String name, ScoreBreakdown breakdown, ScoreBreakdown delta, String error) {
+    }
+}
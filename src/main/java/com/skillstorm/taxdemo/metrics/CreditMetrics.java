@@ -0,0 +1,247 @@
+package com.skillstorm.taxdemo.metrics;
+
+import com.skillstorm.taxdemo.scoring.CreditSnapshot;
+import com.skillstorm.taxdemo.scoring.ScoringEngine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Clock;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// Request-level instrumentation for the credit API. Every meter is tagged only with the fixed
+// operation, phase or component enums below, so the number of time series does not grow with users.
+// Phase times are also kept in a short rolling window that the creditTimings actuator endpoint
+// reports as a DB / compute / serialization / enqueue split.
+@Component
+public class CreditMetrics {
+
+    public enum Operation {
+        SCORE, BATCH_SCORE, SIMULATE, TIPS, BATCH_TIPS, REPORT, HISTORY, RESCORE, IMPORT
+    }
+
+    public enum Phase {
+        DB, COMPUTE, SERIALIZATION,
+        ENQUEUE // handing a history row to the write-behind writer; the write itself is credit.history.writer.flush
+    }
+
+    public enum ScoringComponent {
+        PAYMENT_HISTORY, AMOUNTS_OWED, CREDIT_HISTORY_LENGTH, CREDIT_MIX, NEW_CREDIT
+    }
+
+    // Totals for one operation over the rolling window
+    public record OperationSplit(long requests, Map<Phase, PhaseSplit> phases) {
+    }
+
+    public record PhaseSplit(double totalMs, double meanMs, double share) {
+    }
+
+    private static final int OPERATIONS = Operation.values().length;
+    private static final int PHASES = Phase.values().length;
+
+    private final Clock clock;
+    private final boolean componentTimers;
+    private final long bucketMs;
+    private final Bucket[] buckets;
+
+    private final Timer[] phaseTimers = new Timer[OPERATIONS * PHASES];
+    private final Timer[] componentTimerArray = new Timer[ScoringComponent.values().length];
+    private final Counter[] historyRows = new Counter[OPERATIONS];
+    private final DistributionSummary[] accounts = new DistributionSummary[OPERATIONS];
+    private final DistributionSummary[] historyLength = new DistributionSummary[OPERATIONS];
+
+    @Autowired
+    public CreditMetrics(MeterRegistry meterRegistry,
+            @Value("${credit.metrics.scoring-components:true}") boolean componentTimers,
+            @Value("${credit.metrics.window-ms:300000}") long windowMs,
+            @Value("${credit.metrics.bucket-ms:10000}") long bucketMs) {
+        this(meterRegistry, Clock.systemUTC(), componentTimers, windowMs, bucketMs);
+    }
+
+    public CreditMetrics(MeterRegistry meterRegistry, Clock clock, boolean componentTimers, long windowMs, long bucketMs) {
+        this.clock = clock;
+        this.componentTimers = componentTimers;
+        this.bucketMs = bucketMs;
+        this.buckets = new Bucket[(int) Math.max(1, windowMs / bucketMs)];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new Bucket();
+        }
+
+        for (Operation operation : Operation.values()) {
+            String op = tag(operation);
+            for (Phase phase : Phase.values()) {
+                phaseTimers[operation.ordinal() * PHASES + phase.ordinal()] = Timer.builder("credit.request.phase")
+                        .description("Time spent per credit API request in database access, computation, serialization or queueing history writes")
+                        .tag("operation", op)
+                        .tag("phase", tag(phase))
+                        .publishPercentileHistogram()
+                        .register(meterRegistry);
+            }
+            historyRows[operation.ordinal()] = Counter.builder("credit.history.rows")
+                    .description("Credit score history rows written")
+                    .tag("operation", op)
+                    .register(meterRegistry);
+            accounts[operation.ordinal()] = DistributionSummary.builder("credit.request.accounts")
+                    .description("Credit accounts loaded per request")
+                    .tag("operation", op)
+                    .register(meterRegistry);
+            historyLength[operation.ordinal()] = DistributionSummary.builder("credit.request.history.length")
+                    .description("Credit score history rows read per request")
+                    .tag("operation", op)
+                    .register(meterRegistry);
+        }
+        for (ScoringComponent component : ScoringComponent.values()) {
+            componentTimerArray[component.ordinal()] = Timer.builder("credit.scoring.component")
+                    .description("Time to compute one FICO component")
+                    .tag("component", tag(component))
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+        }
+    }
+
+    private static String tag(Enum<?> value) {
+        return value.name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+
+    // Counts a request in the rolling window and returns the start of its first phase
+    public long begin(Operation operation) {
+        current().requests.incrementAndGet(operation.ordinal());
+        return System.nanoTime();
+    }
+
+    // Records the phase that started at startNanos and returns the start of the next one
+    public long lap(Operation operation, Phase phase, long startNanos) {
+        long now = System.nanoTime();
+        record(operation, phase, now - startNanos);
+        return now;
+    }
+
+    public void record(Operation operation, Phase phase, long nanos) {
+        int index = operation.ordinal() * PHASES + phase.ordinal();
+        phaseTimers[index].record(nanos, TimeUnit.NANOSECONDS);
+        current().nanos.addAndGet(index, nanos);
+    }
+
+    public void historyRowsWritten(Operation operation, long rows) {
+        historyRows[operation.ordinal()].increment(rows);
+    }
+
+    public void accountsLoaded(Operation operation, int count) {
+        accounts[operation.ordinal()].record(count);
+    }
+
+    public void historyRead(Operation operation, long rows) {
+        historyLength[operation.ordinal()].record(rows);
+    }
+
+    // Same result as ScoringEngine.score, with each component timed when component timers are enabled
+    public int score(CreditSnapshot credit) {
+        if (!componentTimers) {
+            return ScoringEngine.score(credit);
+        }
+        long t0 = System.nanoTime();
+        int paymentHistory = ScoringEngine.paymentHistoryScore(credit);
+        long t1 = System.nanoTime();
+        int amountsOwed = ScoringEngine.amountsOwedScore(credit);
+        long t2 = System.nanoTime();
+        int creditHistoryLength = ScoringEngine.creditHistoryLengthScore(credit);
+        long t3 = System.nanoTime();
+        int creditMix = ScoringEngine.creditMixScore(credit);
+        long t4 = System.nanoTime();
+        int newCredit = ScoringEngine.newCreditScore(credit);
+        long t5 = System.nanoTime();
+
+        componentTimerArray[ScoringComponent.PAYMENT_HISTORY.ordinal()].record(t1 - t0, TimeUnit.NANOSECONDS);
+        componentTimerArray[ScoringComponent.AMOUNTS_OWED.ordinal()].record(t2 - t1, TimeUnit.NANOSECONDS);
+        componentTimerArray[ScoringComponent.CREDIT_HISTORY_LENGTH.ordinal()].record(t3 - t2, TimeUnit.NANOSECONDS);
+        componentTimerArray[ScoringComponent.CREDIT_MIX.ordinal()].record(t4 - t3, TimeUnit.NANOSECONDS);
+        componentTimerArray[ScoringComponent.NEW_CREDIT.ordinal()].record(t5 - t4, TimeUnit.NANOSECONDS);
+        return ScoringEngine.total(paymentHistory, amountsOwed, creditHistoryLength, creditMix, newCredit);
+    }
+
+    // Sums the buckets still inside the window; share is the phase's fraction of the operation's measured time
+    public Map<Operation, OperationSplit> recentSplit() {
+        long oldest = epoch() - buckets.length + 1;
+        long[] requests = new long[OPERATIONS];
+        long[] nanos = new long[OPERATIONS * PHASES];
+        for (Bucket bucket : buckets) {
+            synchronized (bucket) {
+                if (bucket.epoch < oldest) {
+                    continue;
+                }
+                for (int i = 0; i < OPERATIONS; i++) {
+                    requests[i] += bucket.requests.get(i);
+                }
+                for (int i = 0; i < nanos.length; i++) {
+                    nanos[i] += bucket.nanos.get(i);
+                }
+            }
+        }
+
+        Map<Operation, OperationSplit> split = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            long total = 0;
+            for (Phase phase : Phase.values()) {
+                total += nanos[operation.ordinal() * PHASES + phase.ordinal()];
+            }
+            long count = requests[operation.ordinal()];
+            Map<Phase, PhaseSplit> phases = new EnumMap<>(Phase.class);
+            for (Phase phase : Phase.values()) {
+                long phaseNanos = nanos[operation.ordinal() * PHASES + phase.ordinal()];
+                double totalMs = phaseNanos / 1e6;
+                phases.put(phase, new PhaseSplit(totalMs, count == 0 ? 0 : totalMs / count,
+                        total == 0 ? 0 : (double) phaseNanos / total));
+            }
+            split.put(operation, new OperationSplit(count, phases));
+        }
+        return split;
+    }
+
+    public long getWindowMs() {
+        return buckets.length * bucketMs;
+    }
+
+    private long epoch() {
+        return clock.millis() / bucketMs;
+    }
+
+    // Bucket for the current interval, cleared first if it still holds an interval that has left the window
+    private Bucket current() {
+        long epoch = epoch();
+        Bucket bucket = buckets[(int) (epoch % buckets.length)];
+        if (bucket.epoch != epoch) {
+            synchronized (bucket) {
+                if (bucket.epoch != epoch) {
+                    bucket.reset(epoch);
+                }
+            }
+        }
+        return bucket;
+    }
+
+    private static final class Bucket {
+        private volatile long epoch = Long.MIN_VALUE;
+        private final AtomicLongArray requests = new AtomicLongArray(OPERATIONS);
+        private final AtomicLongArray nanos = new AtomicLongArray(OPERATIONS * PHASES);
+
+        private void reset(long epoch) {
+            for (int i = 0; i < requests.length(); i++) {
+                requests.set(i, 0);
+            }
+            for (int i = 0; i < nanos.length(); i++) {
+                nanos.set(i, 0);
+            }
+            this.epoch = epoch;
+        }
+    }
+}
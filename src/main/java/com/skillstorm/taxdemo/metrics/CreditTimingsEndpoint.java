@@ -0,0 +1,30 @@
+package com.skillstorm.taxdemo.metrics;
+
+import com.skillstorm.taxdemo.metrics.CreditMetrics.Operation;
+import com.skillstorm.taxdemo.metrics.CreditMetrics.OperationSplit;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+// GET /actuator/creditTimings: where recent credit API time went, per operation. Serialization
+// only covers what the service renders itself (reports); JSON bodies written by Spring MVC show
+// up in http.server.requests instead.
+@Component
+@Endpoint(id = "creditTimings")
+public class CreditTimingsEndpoint {
+
+    public record Timings(long windowMs, Map<Operation, OperationSplit> operations) {
+    }
+
+    @Autowired
+    private CreditMetrics creditMetrics;
+
+    @ReadOperation
+    public Timings timings() {
+        return new Timings(creditMetrics.getWindowMs(), creditMetrics.recentSplit());
+    }
+}
@@ -0,0 +1,73 @@
+package com.skillstorm.taxdemo.models;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+// Normalized account types. The code is what is stored in credit_account.account_type_code and
+// selects the type's bit in UserCreditData.accountTypeMask, so codes must never be reused or changed.
+public enum AccountType {
+
+    OTHER(0, "other"), // any label we do not recognize
+    CREDIT_CARD(1, "credit card"),
+    LOAN(2, "loan"),
+    MORTGAGE(3, "mortgage"),
+    AUTO_LOAN(4, "auto loan"),
+    STUDENT_LOAN(5, "student loan"),
+    LINE_OF_CREDIT(6, "line of credit");
+
+    private static final Map<String, AccountType> BY_LABEL = new HashMap<>();
+    private static final AccountType[] BY_CODE = new AccountType[values().length];
+
+    static {
+        for (AccountType type : values()) {
+            BY_LABEL.put(type.label, type);
+            BY_LABEL.put(type.name().toLowerCase(Locale.ROOT), type);
+            BY_CODE[type.code] = type;
+        }
+    }
+
+    private final short code;
+    private final String label;
+
+    AccountType(int code, String label) {
+        this.code = (short) code;
+        this.label = label;
+    }
+
+    public short getCode() {
+        return code;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public int bit() {
+        return 1 << code;
+    }
+
+    // Case-insensitive match on the label ("Credit Card") or the constant name ("CREDIT_CARD")
+    public static AccountType fromLabel(String label) {
+        if (label == null) {
+            return OTHER;
+        }
+        return BY_LABEL.getOrDefault(label.trim().toLowerCase(Locale.ROOT), OTHER);
+    }
+
+    // Codes written by a newer release are read as OTHER rather than failing the load
+    public static AccountType fromCode(int code) {
+        return code >= 0 && code < BY_CODE.length && BY_CODE[code] != null ? BY_CODE[code] : OTHER;
+    }
+
+    public static int maskOf(Collection<CreditAccount> accounts) {
+        int mask = 0;
+        if (accounts != null) {
+            for (CreditAccount account : accounts) {
+                mask |= account.getType().bit();
+            }
+        }
+        return mask;
+    }
+}
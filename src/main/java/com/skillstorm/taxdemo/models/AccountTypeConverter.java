@@ -0,0 +1,19 @@
+package com.skillstorm.taxdemo.models;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+// Stores AccountType as its smallint code
+@Converter
+public class AccountTypeConverter implements AttributeConverter<AccountType, Short> {
+
+    @Override
+    public Short convertToDatabaseColumn(AccountType type) {
+        return type == null ? null : type.getCode();
+    }
+
+    @Override
+    public AccountType convertToEntityAttribute(Short code) {
+        return code == null ? null : AccountType.fromCode(code);
+    }
+}
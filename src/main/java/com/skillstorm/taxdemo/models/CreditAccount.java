@@ -1,5 +1,7 @@
 package com.skillstorm.taxdemo.models;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import jakarta.persistence.*;
 
 @Entity
@@ -7,18 +9,27 @@ import jakarta.persistence.*;
 public class CreditAccount {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "credit_account_seq")
+    @SequenceGenerator(name = "credit_account_seq", sequenceName = "credit_account_seq", allocationSize = UserCreditData.ID_ALLOCATION_SIZE)
     private Long id;
 
     @Column(name = "account_type")
     private String accountType;
 
+    // Normalized form of accountType, kept in step by setAccountType; null only on rows not yet backfilled
+    @JsonIgnore
+    @Convert(converter = AccountTypeConverter.class)
+    @Column(name = "account_type_code", columnDefinition = "smallint")
+    private AccountType type;
+
     @Column(name = "balance")
     private double balance;
 
     @Column(name = "credit_limit")
     private double creditLimit;
 
+    // Back-reference only; ignored in JSON so a loaded account does not serialize its owner again
+    @JsonIgnore
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_credit_data_id")
     private UserCreditData userCreditData;
@@ -30,7 +41,7 @@ public class CreditAccount {
     public CreditAccount(Long id, String accountType, double balance, double creditLimit,
             UserCreditData userCreditData) {
         this.id = id;
-        this.accountType = accountType;
+        setAccountType(accountType);
         this.balance = balance;
         this.creditLimit = creditLimit;
         this.userCreditData = userCreditData;
@@ -50,6 +61,12 @@ public class CreditAccount {
 
     public void setAccountType(String accountType) {
         this.accountType = accountType;
+        this.type = AccountType.fromLabel(accountType);
+    }
+
+    @JsonIgnore
+    public AccountType getType() {
+        return type != null ? type : AccountType.fromLabel(accountType);
     }
 
     public double getBalance() {
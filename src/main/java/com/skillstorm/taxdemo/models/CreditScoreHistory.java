@@ -5,7 +5,12 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "credit_score_history")
+@Table(name = "credit_score_history", indexes = {
+        // Matches the history seek order; score is included so pages are served from the index alone
+        @Index(name = "idx_credit_score_history_user_ts_id", columnList = "user_id, timestamp desc, id desc, score"),
+        // Lets the retention compactor find rows past a tier's age without scanning the table
+        @Index(name = "idx_credit_score_history_ts", columnList = "timestamp")
+})
 public class CreditScoreHistory {
 
     @Id
@@ -21,6 +26,18 @@ public class CreditScoreHistory {
     @Column(name = "timestamp", nullable = false)
     private LocalDateTime timestamp;
 
+    // Null on raw rows, which are written without it; see HistoryResolution
+    @Enumerated(EnumType.STRING)
+    @Column(name = "resolution", length = 8)
+    private HistoryResolution resolution;
+
+    // Range of the summarized period; null on raw rows
+    @Column(name = "min_score")
+    private Integer minScore;
+
+    @Column(name = "max_score")
+    private Integer maxScore;
+
     public CreditScoreHistory() {
     }
 
@@ -63,6 +80,30 @@ public class CreditScoreHistory {
         this.timestamp = timestamp;
     }
 
+    public HistoryResolution getResolution() {
+        return resolution != null ? resolution : HistoryResolution.RAW;
+    }
+
+    public void setResolution(HistoryResolution resolution) {
+        this.resolution = resolution == HistoryResolution.RAW ? null : resolution;
+    }
+
+    public Integer getMinScore() {
+        return minScore != null ? minScore : score;
+    }
+
+    public void setMinScore(Integer minScore) {
+        this.minScore = minScore;
+    }
+
+    public Integer getMaxScore() {
+        return maxScore != null ? maxScore : score;
+    }
+
+    public void setMaxScore(Integer maxScore) {
+        this.maxScore = maxScore;
+    }
+
     // Constructors, getters, and setters (omitted for brevity)
     
 }
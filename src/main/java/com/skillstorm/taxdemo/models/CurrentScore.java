@@ -0,0 +1,94 @@
+package com.skillstorm.taxdemo.models;
+
+import com.skillstorm.taxdemo.scoring.ScoreBreakdown;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+import org.springframework.data.domain.Persistable;
+
+// Materialized score of a user, recomputed whenever their credit data is written (credit.score.materialized).
+// Keyed by user_id, so GET /score is a single primary key read. Persistable lets new rows be inserted
+// directly instead of being looked up by merge first.
+@Entity
+@Table(name = "current_score")
+public class CurrentScore implements Persistable<Long> {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "score", nullable = false)
+    private int score;
+
+    @Column(name = "payment_history", nullable = false)
+    private int paymentHistory;
+
+    @Column(name = "amounts_owed", nullable = false)
+    private int amountsOwed;
+
+    @Column(name = "credit_history_length", nullable = false)
+    private int creditHistoryLength;
+
+    @Column(name = "credit_mix", nullable = false)
+    private int creditMix;
+
+    @Column(name = "new_credit", nullable = false)
+    private int newCredit;
+
+    @Column(name = "computed_at", nullable = false)
+    private LocalDateTime computedAt;
+
+    @Transient
+    private boolean isNew;
+
+    public CurrentScore() {
+    }
+
+    public CurrentScore(Long userId) {
+        this.userId = userId;
+        this.isNew = true;
+    }
+
+    public void apply(ScoreBreakdown breakdown, LocalDateTime computedAt) {
+        this.score = breakdown.total();
+        this.paymentHistory = breakdown.paymentHistory();
+        this.amountsOwed = breakdown.amountsOwed();
+        this.creditHistoryLength = breakdown.creditHistoryLength();
+        this.creditMix = breakdown.creditMix();
+        this.newCredit = breakdown.newCredit();
+        this.computedAt = computedAt;
+    }
+
+    public ScoreBreakdown toBreakdown() {
+        return new ScoreBreakdown(paymentHistory, amountsOwed, creditHistoryLength, creditMix, newCredit, score);
+    }
+
+    @Override
+    public Long getId() {
+        return userId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostPersist
+    @PostLoad
+    void markNotNew() {
+        this.isNew = false;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public LocalDateTime getComputedAt() {
+        return computedAt;
+    }
+}
@@ -0,0 +1,8 @@
+package com.skillstorm.taxdemo.models;
+
+// Granularity of a credit_score_history row. RAW rows are single scores (stored with a null
+// resolution); DAILY and MONTHLY rows are written by HistoryCompactor and summarize older raw
+// or daily rows: score is the last score of the period and min/max its range.
+public enum HistoryResolution {
+    RAW, DAILY, MONTHLY
+}
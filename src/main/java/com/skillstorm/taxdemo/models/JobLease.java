@@ -0,0 +1,36 @@
+package com.skillstorm.taxdemo.models;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// One row per singleton background job. An instance runs the job only while it holds the lease, which
+// JobLeases claims with a conditional update, so a schedule that fires on every instance runs once.
+@Entity
+@Table(name = "job_lease")
+public class JobLease {
+
+    @Id
+    @Column(name = "name", length = 64)
+    private String name;
+
+    @Column(name = "owner", length = 128)
+    private String owner;
+
+    @Column(name = "lease_until")
+    private LocalDateTime leaseUntil;
+
+    public JobLease() {
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public LocalDateTime getLeaseUntil() {
+        return leaseUntil;
+    }
+}
@@ -0,0 +1,27 @@
+package com.skillstorm.taxdemo.models;
+
+import jakarta.persistence.*;
+
+// Single row on the primary, rewritten by ReplicaRouter every check interval. Replicas receive it
+// through replication, so how old their copy is tells how far behind they are.
+@Entity
+@Table(name = "replica_heartbeat")
+public class ReplicaHeartbeat {
+
+    @Id
+    private Integer id;
+
+    @Column(name = "beat_millis", nullable = false)
+    private long beatMillis;
+
+    public ReplicaHeartbeat() {
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public long getBeatMillis() {
+        return beatMillis;
+    }
+}
@@ -0,0 +1,145 @@
+package com.skillstorm.taxdemo.models;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// Progress of one partition of a bulk rescoring run. A partition covers the user_credit_data ids in
+// (rangeStart, rangeEnd]; lastId is the last id whose score has been committed, so a restarted
+// run continues from lastId instead of from the start of the range. A partition is worked on by the
+// instance named in owner until leaseUntil; each committed chunk extends the lease.
+@Entity
+@Table(name = "rescore_checkpoint", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_rescore_checkpoint_run_partition", columnNames = { "run_id", "partition_index" })
+})
+public class RescoreCheckpoint {
+
+    public enum Status {
+        PENDING, RUNNING, COMPLETED, FAILED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "run_id", nullable = false)
+    private Long runId;
+
+    @Column(name = "partition_index", nullable = false)
+    private int partitionIndex;
+
+    @Column(name = "range_start", nullable = false)
+    private long rangeStart;
+
+    @Column(name = "range_end", nullable = false)
+    private long rangeEnd;
+
+    @Column(name = "last_id", nullable = false)
+    private long lastId;
+
+    @Column(name = "total", nullable = false)
+    private long total;
+
+    @Column(name = "processed", nullable = false)
+    private long processed;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 16)
+    private Status status;
+
+    // Shared by every partition of the run and used as the timestamp of the history rows it writes
+    @Column(name = "run_started_at", nullable = false)
+    private LocalDateTime runStartedAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Column(name = "owner", length = 128)
+    private String owner;
+
+    @Column(name = "lease_until")
+    private LocalDateTime leaseUntil;
+
+    public RescoreCheckpoint() {
+    }
+
+    public RescoreCheckpoint(Long runId, int partitionIndex, long rangeStart, long rangeEnd, long total,
+            LocalDateTime runStartedAt) {
+        this.runId = runId;
+        this.partitionIndex = partitionIndex;
+        this.rangeStart = rangeStart;
+        this.rangeEnd = rangeEnd;
+        this.lastId = rangeStart;
+        this.total = total;
+        this.status = Status.PENDING;
+        this.runStartedAt = runStartedAt;
+        this.updatedAt = runStartedAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getRunId() {
+        return runId;
+    }
+
+    public int getPartitionIndex() {
+        return partitionIndex;
+    }
+
+    public long getRangeStart() {
+        return rangeStart;
+    }
+
+    public long getRangeEnd() {
+        return rangeEnd;
+    }
+
+    public long getLastId() {
+        return lastId;
+    }
+
+    public void setLastId(long lastId) {
+        this.lastId = lastId;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public long getProcessed() {
+        return processed;
+    }
+
+    public void setProcessed(long processed) {
+        this.processed = processed;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public LocalDateTime getRunStartedAt() {
+        return runStartedAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public LocalDateTime getLeaseUntil() {
+        return leaseUntil;
+    }
+}
@@ -0,0 +1,46 @@
+package com.skillstorm.taxdemo.models;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+
+// Persisted form of the daily score histograms: how many history rows with this score were
+// written on this day. At most 551 rows per day, so analytics reads never depend on user count.
+// Rows are only ever incremented in place by ScoreAnalytics, or rewritten by a rebuild.
+@Entity
+@Table(name = "score_histogram", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_score_histogram_day_score", columnNames = { "score_date", "score" })
+})
+public class ScoreHistogramBucket {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "score_date", nullable = false)
+    private LocalDate day;
+
+    @Column(name = "score", nullable = false)
+    private int score;
+
+    @Column(name = "score_count", nullable = false)
+    private long count;
+
+    public ScoreHistogramBucket() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public LocalDate getDay() {
+        return day;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public long getCount() {
+        return count;
+    }
+}
@@ -1,14 +1,26 @@
 package com.skillstorm.taxdemo.models;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import jakarta.persistence.*;
+import java.time.Instant;
 import java.util.List;
 
 @Entity
-@Table(name = "user_credit_data")
+@Table(name = "user_credit_data", uniqueConstraints = {
+        // One row per user; its index also serves every per-user read, including the conditional GET version check
+        @UniqueConstraint(name = "uk_user_credit_data_user_id", columnNames = "user_id")
+})
 public class UserCreditData {
 
+    // Ids handed out per sequence call, for this entity and CreditAccount
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    // Pooled sequence rather than IDENTITY: ids are known before the insert, so Hibernate can batch
+    // inserts, and one sequence call covers allocationSize rows (see IdSequenceAlignment)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_credit_data_seq")
+    @SequenceGenerator(name = "user_credit_data_seq", sequenceName = "user_credit_data_seq", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @Column(name = "user_id")
@@ -45,6 +57,22 @@ public class UserCreditData {
     @Column(name = "new_accounts")
     private int newAccounts;
 
+    // Bitwise OR of AccountType.bit() over the accounts, so scoring never has to load them.
+    // Null until computed for rows written before the column existed (see AccountTypeBackfill).
+    @JsonIgnore
+    @Column(name = "account_type_mask")
+    private Integer accountTypeMask;
+
+    // Optimistic version; bumped on every change to the row or its accounts and used to validate cached scores
+    @Version
+    @Column(name = "version", columnDefinition = "bigint default 0")
+    private Long version;
+
+    // Set on every insert and update, and served as Last-Modified; null for rows not written since the column was added
+    @JsonIgnore
+    @Column(name = "last_modified")
+    private Instant lastModified;
+
     public UserCreditData() {
         // You can leave this empty, or initialize any fields with default values if needed
     }
@@ -162,6 +190,49 @@ public class UserCreditData {
         this.newAccounts = newAccounts;
     }
 
+    public Integer getAccountTypeMask() {
+        return accountTypeMask;
+    }
+
+    public void setAccountTypeMask(Integer accountTypeMask) {
+        this.accountTypeMask = accountTypeMask;
+    }
+
+    // Must be called whenever the accounts collection is replaced or modified
+    public void refreshAccountTypeMask() {
+        this.accountTypeMask = AccountType.maskOf(creditAccounts);
+    }
+
+    @PrePersist
+    void onPersist() {
+        refreshAccountTypeMask();
+        markModified();
+    }
+
+    // As a callback it only refreshes the timestamp of an update Hibernate is already making. Called directly
+    // before flush it dirties the row, which is how CreditDataService.finish() bumps the version for an account
+    // edited in place.
+    @PreUpdate
+    public void markModified() {
+        this.lastModified = Instant.now();
+    }
+
+    public Instant getLastModified() {
+        return lastModified;
+    }
+
+    public void setLastModified(Instant lastModified) {
+        this.lastModified = lastModified;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     
 
     
@@ -3,14 +3,22 @@
 package com.skillstorm.taxdemo.repositories;
 
 import com.skillstorm.taxdemo.models.CreditScoreHistory;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
 
 @Repository
-public interface CreditScoreHistoryRepository extends JpaRepository<CreditScoreHistory, Long> {
-    List<CreditScoreHistory> findByUserIdOrderByTimestampDesc(Long userId);
-    Optional<CreditScoreHistory> findTopByUserIdOrderByTimestampDesc(Long userId); // Fetch the latest credit score
+public interface CreditScoreHistoryRepository extends JpaRepository<CreditScoreHistory, Long>, CreditScoreHistoryRepositoryCustom {
+
+    // Newest row since a cut-off of each user in one statement, for the write-behind skip check; rows tied on the
+    // timestamp all come back. The cut-off keeps both the rows and the max() subquery to the recent partitions.
+    @Query("select h from CreditScoreHistory h where h.userId in :userIds and h.timestamp >= :since "
+            + "and h.timestamp = (select max(l.timestamp) from CreditScoreHistory l where l.userId = h.userId and l.timestamp >= :since)")
+    List<CreditScoreHistory> findLatestByUserIds(@Param("userIds") Collection<Long> userIds, @Param("since") LocalDateTime since);
 }
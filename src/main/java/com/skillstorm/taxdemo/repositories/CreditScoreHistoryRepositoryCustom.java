@@ -0,0 +1,34 @@
+package com.skillstorm.taxdemo.repositories;
+
+import com.skillstorm.taxdemo.dtos.HistoryEntry;
+import com.skillstorm.taxdemo.models.CreditScoreHistory;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.springframework.data.domain.Pageable;
+
+public interface CreditScoreHistoryRepositoryCustom {
+
+    // Writes all rows with a single JDBC batch instead of one IDENTITY insert per row
+    void batchInsert(List<CreditScoreHistory> rows);
+
+    // The history reads below take a time range [from, to). A null bound is left open and adds no
+    // predicate, so a month-partitioned table is pruned by whatever bounds the caller really has
+    // instead of by placeholder dates that overlap every partition.
+    List<CreditScoreHistory> findHistory(Long userId, LocalDateTime from, LocalDateTime to);
+
+    // Multi-user history lookup
+    List<CreditScoreHistory> findHistories(Collection<Long> userIds, LocalDateTime from, LocalDateTime to);
+
+    // Newest-first cursor over a time window; rows are fetched from the server in bounded chunks. Needs an open transaction.
+    Stream<HistoryEntry> streamHistory(Long userId, LocalDateTime from, LocalDateTime to);
+
+    // Keyset pagination over (user_id, timestamp desc, id desc): each page seeks straight to its first row via the index
+    List<HistoryEntry> findHistoryPage(Long userId, LocalDateTime from, LocalDateTime to, Pageable page);
+
+    List<HistoryEntry> findHistoryPageAfter(Long userId, LocalDateTime from, LocalDateTime to,
+            LocalDateTime afterTimestamp, Long afterId, Pageable page);
+}
@@ -0,0 +1,120 @@
+package com.skillstorm.taxdemo.repositories;
+
+import com.skillstorm.taxdemo.dtos.HistoryEntry;
+import com.skillstorm.taxdemo.models.CreditScoreHistory;
+import com.skillstorm.taxdemo.services.ScoreAnalytics;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+public class CreditScoreHistoryRepositoryCustomImpl implements CreditScoreHistoryRepositoryCustom {
+
+    private static final String INSERT_SQL =
+            "insert into credit_score_history (user_id, score, timestamp) values (?, ?, ?)";
+
+    private static final String SELECT_ROWS = "select h from CreditScoreHistory h";
+    private static final String SELECT_ENTRIES = "select new com.skillstorm.taxdemo.dtos.HistoryEntry("
+            + "h.id, h.score, h.timestamp, h.resolution, h.minScore, h.maxScore) from CreditScoreHistory h";
+    private static final String NEWEST_FIRST = " order by h.timestamp desc, h.id desc";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Every raw history row goes through here, so this is where the score histograms are fed
+    @Autowired
+    private ScoreAnalytics scoreAnalytics;
+
+    @Override
+    public void batchInsert(List<CreditScoreHistory> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows, rows.size(), (ps, row) -> {
+            ps.setLong(1, row.getUserId());
+            ps.setInt(2, row.getScore());
+            ps.setTimestamp(3, Timestamp.valueOf(row.getTimestamp()));
+        });
+        scoreAnalytics.record(rows);
+    }
+
+    @Override
+    public List<CreditScoreHistory> findHistory(Long userId, LocalDateTime from, LocalDateTime to) {
+        return windowed(SELECT_ROWS, "h.userId = :userId", NEWEST_FIRST, CreditScoreHistory.class, from, to)
+                .setParameter("userId", userId)
+                .getResultList();
+    }
+
+    @Override
+    public List<CreditScoreHistory> findHistories(Collection<Long> userIds, LocalDateTime from, LocalDateTime to) {
+        return windowed(SELECT_ROWS, "h.userId in :userIds", " order by h.userId asc, h.timestamp desc, h.id desc",
+                CreditScoreHistory.class, from, to)
+                .setParameter("userIds", userIds)
+                .getResultList();
+    }
+
+    @Override
+    public Stream<HistoryEntry> streamHistory(Long userId, LocalDateTime from, LocalDateTime to) {
+        return windowed(SELECT_ENTRIES, "h.userId = :userId", NEWEST_FIRST, HistoryEntry.class, from, to)
+                .setParameter("userId", userId)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, 500)
+                .getResultStream();
+    }
+
+    @Override
+    public List<HistoryEntry> findHistoryPage(Long userId, LocalDateTime from, LocalDateTime to, Pageable page) {
+        return paged(windowed(SELECT_ENTRIES, "h.userId = :userId", NEWEST_FIRST, HistoryEntry.class, from, to)
+                .setParameter("userId", userId), page);
+    }
+
+    @Override
+    public List<HistoryEntry> findHistoryPageAfter(Long userId, LocalDateTime from, LocalDateTime to,
+            LocalDateTime afterTimestamp, Long afterId, Pageable page) {
+        return paged(windowed(SELECT_ENTRIES, "h.userId = :userId "
+                + "and (h.timestamp < :afterTimestamp or (h.timestamp = :afterTimestamp and h.id < :afterId))",
+                NEWEST_FIRST, HistoryEntry.class, from, to)
+                .setParameter("userId", userId)
+                .setParameter("afterTimestamp", afterTimestamp)
+                .setParameter("afterId", afterId), page);
+    }
+
+    // Adds a timestamp predicate only for the bounds that are set; at most four statement shapes per read
+    private <T> TypedQuery<T> windowed(String select, String where, String orderBy, Class<T> type,
+            LocalDateTime from, LocalDateTime to) {
+        StringBuilder jpql = new StringBuilder(select).append(" where ").append(where);
+        if (from != null) {
+            jpql.append(" and h.timestamp >= :from");
+        }
+        if (to != null) {
+            jpql.append(" and h.timestamp < :to");
+        }
+        TypedQuery<T> query = entityManager.createQuery(jpql.append(orderBy).toString(), type);
+        if (from != null) {
+            query.setParameter("from", from);
+        }
+        if (to != null) {
+            query.setParameter("to", to);
+        }
+        return query;
+    }
+
+    private static <T> List<T> paged(TypedQuery<T> query, Pageable page) {
+        return query.setFirstResult((int) page.getOffset())
+                .setMaxResults(page.getPageSize())
+                .getResultList();
+    }
+}
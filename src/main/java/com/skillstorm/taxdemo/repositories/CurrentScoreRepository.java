@@ -0,0 +1,32 @@
+package com.skillstorm.taxdemo.repositories;
+
+import com.skillstorm.taxdemo.models.CurrentScore;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CurrentScoreRepository extends JpaRepository<CurrentScore, Long> {
+
+    // Primary key read of the score alone; nothing else is loaded or computed
+    @Query("select c.score from CurrentScore c where c.userId = :userId")
+    Optional<Integer> findScoreByUserId(@Param("userId") Long userId);
+
+    // Keyset page of stored scores in user id order, for the consistency check
+    @Query("select c from CurrentScore c where c.userId > :afterUserId order by c.userId")
+    List<CurrentScore> findPageAfter(@Param("afterUserId") Long afterUserId, Pageable page);
+
+    // Users whose score has never been materialized, in user id order, for the backfill
+    @Query("select u.userId from UserCreditData u where u.userId > :afterUserId "
+            + "and not exists (select 1 from CurrentScore c where c.userId = u.userId) order by u.userId")
+    List<Long> findUnscoredUserIds(@Param("afterUserId") Long afterUserId, Pageable page);
+
+    @Query("select count(u) from UserCreditData u where not exists (select 1 from CurrentScore c where c.userId = u.userId)")
+    long countUnscoredUsers();
+}
@@ -0,0 +1,40 @@
+package com.skillstorm.taxdemo.repositories;
+
+import com.skillstorm.taxdemo.models.RescoreCheckpoint;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface RescoreCheckpointRepository extends JpaRepository<RescoreCheckpoint, Long> {
+    List<RescoreCheckpoint> findByRunIdOrderByPartitionIndex(Long runId);
+
+    @Query("select max(c.runId) from RescoreCheckpoint c")
+    Optional<Long> findLatestRunId();
+
+    // Claims an unfinished partition for owner unless another instance holds an unexpired lease on it.
+    // Clears the persistence context, so the checkpoint read after a claim is the committed one.
+    @Modifying(clearAutomatically = true)
+    @Query("update RescoreCheckpoint c set c.owner = :owner, c.leaseUntil = :leaseUntil where c.id = :id "
+            + "and c.status <> com.skillstorm.taxdemo.models.RescoreCheckpoint$Status.COMPLETED "
+            + "and (c.owner is null or c.owner = :owner or c.leaseUntil < :now)")
+    int claim(@Param("id") Long id, @Param("owner") String owner, @Param("leaseUntil") LocalDateTime leaseUntil,
+            @Param("now") LocalDateTime now);
+
+    // Advances a partition's checkpoint in the same transaction as the history rows it covers, and hands
+    // the lease to nextOwner until leaseUntil. Matches nothing once owner has lost the lease.
+    @Modifying
+    @Query("update RescoreCheckpoint c set c.lastId = :lastId, c.processed = c.processed + :rows, c.status = :status, "
+            + "c.updatedAt = CURRENT_TIMESTAMP, c.owner = :nextOwner, c.leaseUntil = :leaseUntil "
+            + "where c.id = :id and c.owner = :owner")
+    int advance(@Param("id") Long id, @Param("owner") String owner, @Param("lastId") long lastId, @Param("rows") long rows,
+            @Param("status") RescoreCheckpoint.Status status, @Param("nextOwner") String nextOwner,
+            @Param("leaseUntil") LocalDateTime leaseUntil);
+}
@@ -1,13 +1,88 @@
 package com.skillstorm.taxdemo.repositories;
 
+import com.skillstorm.taxdemo.dtos.CreditDataStamp;
+import com.skillstorm.taxdemo.dtos.CreditProfile;
 import com.skillstorm.taxdemo.models.UserCreditData;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import jakarta.persistence.QueryHint;
+
+import org.hibernate.jpa.HibernateHints;
+
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface UserCreditDataRepository extends JpaRepository<UserCreditData, Long> {
     Optional <UserCreditData> findByUserId(Long userId);
+
+    // Credit data plus accounts in a single statement, for scoring and reports
+    @EntityGraph(attributePaths = "creditAccounts")
+    Optional<UserCreditData> findWithAccountsByUserId(Long userId);
+
+    // Scalar fields only, for paths that never look at accounts (tips, and scoring once the account type mask is stored)
+    @Query("select new com.skillstorm.taxdemo.dtos.CreditProfile(u.userId, u.onTimePayments, u.latePayments, u.missedPayments, "
+            + "u.publicRecords, u.creditUtilization, u.totalDebt, u.oldestAccountAge, u.recentInquiries, u.newAccounts, "
+            + "u.accountTypeMask, u.version) "
+            + "from UserCreditData u where u.userId = :userId")
+    Optional<CreditProfile> findProfileByUserId(@Param("userId") Long userId);
+
+    @Query("select new com.skillstorm.taxdemo.dtos.CreditProfile(u.userId, u.onTimePayments, u.latePayments, u.missedPayments, "
+            + "u.publicRecords, u.creditUtilization, u.totalDebt, u.oldestAccountAge, u.recentInquiries, u.newAccounts, "
+            + "u.accountTypeMask, u.version) "
+            + "from UserCreditData u where u.userId in :userIds")
+    List<CreditProfile> findProfilesByUserIdIn(@Param("userIds") Collection<Long> userIds);
+
+    // Scalar version lookup used to revalidate cached scores without loading the entity
+    @Query("select u.version from UserCreditData u where u.userId = :userId")
+    Optional<Long> findVersionByUserId(@Param("userId") Long userId);
+
+    // Conditional GET validators; one indexed lookup
+    @Query("select new com.skillstorm.taxdemo.dtos.CreditDataStamp(u.version, u.lastModified) "
+            + "from UserCreditData u where u.userId = :userId")
+    Optional<CreditDataStamp> findStampByUserId(@Param("userId") Long userId);
+
+    // The report variant also reads the newest history row. Both subqueries take the top row of the same
+    // total order, so id and timestamp always come from one row, and each is a single seek on
+    // idx_credit_score_history_user_ts_id (user_id, timestamp desc, id desc). A lateral join would read the
+    // row once on PostgreSQL, but Hibernate emulates it on H2 by joining the whole history table. Only rows
+    // since the cut-off are considered, so on a partitioned table the seeks stay in the recent partitions.
+    @Query("select new com.skillstorm.taxdemo.dtos.CreditDataStamp(u.version, u.lastModified, "
+            + "(select h.id from CreditScoreHistory h where h.userId = u.userId and h.timestamp >= :since "
+            + "order by h.timestamp desc, h.id desc limit 1), "
+            + "(select h.timestamp from CreditScoreHistory h where h.userId = u.userId and h.timestamp >= :since "
+            + "order by h.timestamp desc, h.id desc limit 1)) "
+            + "from UserCreditData u where u.userId = :userId")
+    Optional<CreditDataStamp> findReportStampByUserId(@Param("userId") Long userId, @Param("since") LocalDateTime since);
+
+    // Loads many users and their accounts in one statement (no per-user lazy loads)
+    @Query("select distinct u from UserCreditData u left join fetch u.creditAccounts where u.userId in :userIds")
+    List<UserCreditData> findAllWithAccountsByUserIdIn(@Param("userIds") Collection<Long> userIds);
+
+    // Id bounds used to split the table into rescoring partitions
+    @Query("select min(u.id) from UserCreditData u")
+    Optional<Long> findMinId();
+
+    @Query("select max(u.id) from UserCreditData u")
+    Optional<Long> findMaxId();
+
+    long countByIdGreaterThanAndIdLessThanEqual(Long afterId, Long maxId);
+
+    // Id-ordered cursor over (afterId, maxId]; rows arrive from the server in bounded chunks and are
+    // loaded read-only, so nothing is dirty-checked. Needs an open transaction.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select u from UserCreditData u where u.id > :afterId and u.id <= :maxId order by u.id")
+    Stream<UserCreditData> streamByIdRange(@Param("afterId") Long afterId, @Param("maxId") Long maxId);
 }
@@ -0,0 +1,5 @@
+package com.skillstorm.taxdemo.repositories.reactive;
+
+// Type columns of one credit account; the code is null on rows not yet backfilled
+public record AccountTypeRow(Short accountTypeCode, String accountType) {
+}
@@ -0,0 +1,13 @@
+package com.skillstorm.taxdemo.repositories.reactive;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+// Read-only R2DBC view of credit_score_history
+@Table("credit_score_history")
+public record CreditScoreHistoryRow(@Id Long id, @Column("user_id") Long userId, @Column("score") int score,
+        @Column("timestamp") LocalDateTime timestamp) {
+}
@@ -0,0 +1,48 @@
+package com.skillstorm.taxdemo.repositories.reactive;
+
+import com.skillstorm.taxdemo.dtos.HistoryEntry;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+
+import reactor.core.publisher.Flux;
+
+// Non-blocking mirror of the history reads in CreditScoreHistoryRepository
+@Repository
+public interface ReactiveCreditScoreHistoryRepository extends ReactiveCrudRepository<CreditScoreHistoryRow, Long> {
+
+    String SELECT_ENTRIES = "select id, score, timestamp, resolution, min_score, max_score from credit_score_history "
+            + "where user_id = :userId ";
+    String NEWEST_FIRST = "order by timestamp desc, id desc";
+
+    // Same window and order as CreditScoreHistoryRepository.streamHistory; rows are pulled from the
+    // driver as the subscriber requests them, so a slow client slows the read instead of buffering it.
+    // As there, a null bound is left open rather than bound to a placeholder date, so partitions are pruned.
+    default Flux<HistoryEntry> findHistory(Long userId, LocalDateTime from, LocalDateTime to) {
+        if (from != null && to != null) {
+            return findHistoryBetween(userId, from, to);
+        }
+        if (from != null) {
+            return findHistorySince(userId, from);
+        }
+        if (to != null) {
+            return findHistoryBefore(userId, to);
+        }
+        return findAllHistory(userId);
+    }
+
+    @Query(SELECT_ENTRIES + "and timestamp >= :from and timestamp < :to " + NEWEST_FIRST)
+    Flux<HistoryEntry> findHistoryBetween(Long userId, LocalDateTime from, LocalDateTime to);
+
+    @Query(SELECT_ENTRIES + "and timestamp >= :from " + NEWEST_FIRST)
+    Flux<HistoryEntry> findHistorySince(Long userId, LocalDateTime from);
+
+    @Query(SELECT_ENTRIES + "and timestamp < :to " + NEWEST_FIRST)
+    Flux<HistoryEntry> findHistoryBefore(Long userId, LocalDateTime to);
+
+    @Query(SELECT_ENTRIES + NEWEST_FIRST)
+    Flux<HistoryEntry> findAllHistory(Long userId);
+}
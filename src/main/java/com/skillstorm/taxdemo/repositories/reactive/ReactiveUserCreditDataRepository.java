@@ -0,0 +1,26 @@
+package com.skillstorm.taxdemo.repositories.reactive;
+
+import com.skillstorm.taxdemo.dtos.CreditProfile;
+
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// Non-blocking mirror of the read queries in UserCreditDataRepository
+@Repository
+public interface ReactiveUserCreditDataRepository extends ReactiveCrudRepository<UserCreditDataRow, Long> {
+
+    // Same projection as UserCreditDataRepository.findProfileByUserId
+    @Query("select user_id, on_time_payments, late_payments, missed_payments, public_records, credit_utilization, "
+            + "total_debt, oldest_account_age, recent_inquiries, new_accounts, account_type_mask, version "
+            + "from user_credit_data where user_id = :userId")
+    Mono<CreditProfile> findProfileByUserId(Long userId);
+
+    // Only needed for rows whose account type mask has not been backfilled yet
+    @Query("select a.account_type_code, a.account_type from credit_account a "
+            + "join user_credit_data u on a.user_credit_data_id = u.id where u.user_id = :userId")
+    Flux<AccountTypeRow> findAccountTypesByUserId(Long userId);
+}
@@ -0,0 +1,11 @@
+package com.skillstorm.taxdemo.repositories.reactive;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+// Read-only R2DBC view of user_credit_data. The JPA entity stays the single write model; this row
+// type only exists to anchor the reactive repository, whose queries project into DTOs.
+@Table("user_credit_data")
+public record UserCreditDataRow(@Id Long id, @Column("user_id") Long userId, @Column("version") Long version) {
+}
@@ -0,0 +1,38 @@
+package com.skillstorm.taxdemo.scoring;
+
+import com.skillstorm.taxdemo.dtos.CreditProfile;
+import com.skillstorm.taxdemo.models.AccountType;
+import com.skillstorm.taxdemo.models.UserCreditData;
+
+// Immutable, primitive-only view of everything the scoring engine reads. Built once per load, so
+// the engine can score it any number of times without touching JPA entities or collections.
+public record CreditSnapshot(int onTimePayments, int latePayments, int missedPayments, int publicRecords,
+        double creditUtilization, double totalDebt, int oldestAccountAge, int recentInquiries, int newAccounts,
+        int accountTypeMask) {
+
+    public static CreditSnapshot of(UserCreditData creditData) {
+        // Rows not yet backfilled have no stored mask; derive it from the accounts instead
+        int accountTypeMask = creditData.getAccountTypeMask() != null
+                ? creditData.getAccountTypeMask()
+                : AccountType.maskOf(creditData.getCreditAccounts());
+        return new CreditSnapshot(creditData.getOnTimePayments(), creditData.getLatePayments(),
+                creditData.getMissedPayments(), creditData.getPublicRecords(), creditData.getCreditUtilization(),
+                creditData.getTotalDebt(), creditData.getOldestAccountAge(), creditData.getRecentInquiries(),
+                creditData.getNewAccounts(), accountTypeMask);
+    }
+
+    // Only valid for profiles that carry a stored mask
+    public static CreditSnapshot of(CreditProfile profile) {
+        return new CreditSnapshot(profile.onTimePayments(), profile.latePayments(), profile.missedPayments(),
+                profile.publicRecords(), profile.creditUtilization(), profile.totalDebt(), profile.oldestAccountAge(),
+                profile.recentInquiries(), profile.newAccounts(), profile.accountTypeMask());
+    }
+
+    public boolean hasCreditCard() {
+        return (accountTypeMask & AccountType.CREDIT_CARD.bit()) != 0;
+    }
+
+    public boolean hasLoan() {
+        return (accountTypeMask & AccountType.LOAN.bit()) != 0;
+    }
+}
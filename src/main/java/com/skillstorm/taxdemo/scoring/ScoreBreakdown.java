@@ -0,0 +1,6 @@
+package com.skillstorm.taxdemo.scoring;
+
+// Points contributed by each FICO component; total is the sum clamped to the 300-850 range
+public record ScoreBreakdown(int paymentHistory, int amountsOwed, int creditHistoryLength, int creditMix,
+        int newCredit, int total) {
+}
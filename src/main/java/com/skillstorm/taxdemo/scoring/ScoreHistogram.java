@@ -0,0 +1,95 @@
+package com.skillstorm.taxdemo.scoring;
+
+import java.util.Arrays;
+
+// Count of scores per point of the 300-850 range. Scores are integers, so one counter per possible
+// score makes every quantile exact, and histograms merge by adding counters: a day, a week or all
+// instances combined cost the same 551 longs however many scores went in. Not thread-safe.
+public final class ScoreHistogram {
+
+    public static final int BUCKETS = ScoringEngine.MAX_SCORE - ScoringEngine.MIN_SCORE + 1;
+
+    private final long[] counts = new long[BUCKETS];
+    private long total;
+
+    public void add(int score) {
+        add(score, 1);
+    }
+
+    public void add(int score, long count) {
+        counts[bucket(score)] += count;
+        total += count;
+    }
+
+    public void merge(ScoreHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] += other.counts[i];
+        }
+        total += other.total;
+    }
+
+    public long count() {
+        return total;
+    }
+
+    public long count(int score) {
+        return counts[bucket(score)];
+    }
+
+    public boolean isEmpty() {
+        return total == 0;
+    }
+
+    // Nearest-rank quantile, q in [0, 1]; null when empty
+    public Integer quantile(double q) {
+        if (total == 0) {
+            return null;
+        }
+        long rank = Math.max(1, (long) Math.ceil(q * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return ScoringEngine.MIN_SCORE + i;
+            }
+        }
+        return ScoringEngine.MAX_SCORE;
+    }
+
+    public Double mean() {
+        if (total == 0) {
+            return null;
+        }
+        double sum = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            sum += (double) counts[i] * (ScoringEngine.MIN_SCORE + i);
+        }
+        return sum / total;
+    }
+
+    public Integer min() {
+        return quantile(0);
+    }
+
+    public Integer max() {
+        return quantile(1);
+    }
+
+    // Counters summed into bands of the given width, keyed by the band's lowest score
+    public long[] bands(int width) {
+        long[] bands = new long[(BUCKETS + width - 1) / width];
+        for (int i = 0; i < BUCKETS; i++) {
+            bands[i / width] += counts[i];
+        }
+        return bands;
+    }
+
+    public long[] counts() {
+        return Arrays.copyOf(counts, BUCKETS);
+    }
+
+    // Scores outside the range (never produced by ScoringEngine) land in the nearest end bucket
+    private static int bucket(int score) {
+        return Math.min(BUCKETS - 1, Math.max(0, score - ScoringEngine.MIN_SCORE));
+    }
+}
@@ -0,0 +1,99 @@
+package com.skillstorm.taxdemo.scoring;
+
+import com.skillstorm.taxdemo.models.AccountType;
+
+// Stateless FICO-style scoring over a CreditSnapshot. score() works purely on primitives and
+// allocates nothing; breakdown() allocates only the returned record.
+public final class ScoringEngine {
+
+    public static final int MIN_SCORE = 300;
+    public static final int MAX_SCORE = 850;
+
+    private static final int CREDIT_MIX_MASK = AccountType.CREDIT_CARD.bit() | AccountType.LOAN.bit();
+
+    private ScoringEngine() {
+    }
+
+    public static int score(CreditSnapshot credit) {
+        return total(paymentHistoryScore(credit), amountsOwedScore(credit), creditHistoryLengthScore(credit),
+                creditMixScore(credit), newCreditScore(credit));
+    }
+
+    public static ScoreBreakdown breakdown(CreditSnapshot credit) {
+        int paymentHistory = paymentHistoryScore(credit);
+        int amountsOwed = amountsOwedScore(credit);
+        int creditHistoryLength = creditHistoryLengthScore(credit);
+        int creditMix = creditMixScore(credit);
+        int newCredit = newCreditScore(credit);
+        int total = total(paymentHistory, amountsOwed, creditHistoryLength, creditMix, newCredit);
+        return new ScoreBreakdown(paymentHistory, amountsOwed, creditHistoryLength, creditMix, newCredit, total);
+    }
+
+    // Payment History (35%)
+    public static int paymentHistoryScore(CreditSnapshot credit) {
+        int totalPayments = credit.onTimePayments() + credit.latePayments() + credit.missedPayments();
+        if (totalPayments == 0) {
+            return 0;
+        }
+
+        double onTimePercentage = (double) credit.onTimePayments() / totalPayments;
+        int score = (int) (350 * onTimePercentage); // Base score based on percentage
+
+        // Adjust score based on severity and number of negative marks
+        score -= 50 * credit.missedPayments();
+        score -= 25 * credit.latePayments();
+        score -= 100 * credit.publicRecords();
+
+        return Math.max(0, score); // Ensure score doesn't go below 0
+    }
+
+    // Amounts Owed (30%)
+    public static int amountsOwedScore(CreditSnapshot credit) {
+        int score = 300;
+
+        // Penalize for high credit utilization
+        if (credit.creditUtilization() > 30) {
+            score -= (credit.creditUtilization() - 30) * 5; // 5 points lost for each percentage point over 30%
+        }
+
+        // Penalize for high total debt
+        if (credit.totalDebt() > 50000) {
+            score -= (credit.totalDebt() - 50000) / 1000; // 1 point lost for every $1000 over $50,000
+        }
+
+        return Math.max(0, score);
+    }
+
+    // Length of Credit History (15%)
+    public static int creditHistoryLengthScore(CreditSnapshot credit) {
+        return Math.max(0, Math.min(150, credit.oldestAccountAge())); // Max 150 points for accounts over 12.5 years old
+    }
+
+    // Credit Mix (10%)
+    public static int creditMixScore(CreditSnapshot credit) {
+        return (credit.accountTypeMask() & CREDIT_MIX_MASK) == CREDIT_MIX_MASK ? 100 : 50; // 100 points for having both a credit card and a loan, 50 otherwise
+    }
+
+    // New Credit (10%)
+    public static int newCreditScore(CreditSnapshot credit) {
+        int score = 100;
+
+        // Penalize for recent inquiries
+        score -= 5 * credit.recentInquiries();
+
+        // Penalize for new accounts
+        score -= 10 * credit.newAccounts();
+
+        return Math.max(0, score);
+    }
+
+    // Combines component scores computed separately, e.g. when each one is timed
+    public static int total(int paymentHistory, int amountsOwed, int creditHistoryLength, int creditMix, int newCredit) {
+        return clamp(paymentHistory + amountsOwed + creditHistoryLength + creditMix + newCredit);
+    }
+
+    // Ensure the score falls within the FICO range
+    private static int clamp(int score) {
+        return Math.min(MAX_SCORE, Math.max(MIN_SCORE, score));
+    }
+}
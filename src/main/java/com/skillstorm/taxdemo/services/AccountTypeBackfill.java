@@ -0,0 +1,104 @@
+package com.skillstorm.taxdemo.services;
+
+import com.skillstorm.taxdemo.models.AccountType;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// Migrates rows written before account types were normalized: fills credit_account.account_type_code
+// from the free-form account_type string, then user_credit_data.account_type_mask from those codes.
+// Only rows that are still null are touched, so the job is idempotent and safe to run on every startup.
+@Component
+public class AccountTypeBackfill implements ApplicationRunner {
+
+    private static final Logger logger = Logger.getLogger(AccountTypeBackfill.class.getName());
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Value("${credit.account-type.backfill.enabled:true}")
+    private boolean enabled;
+
+    @Value("${credit.account-type.backfill.batch-size:1000}")
+    private int batchSize;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (enabled) {
+            backfillAccountTypeCodes();
+            backfillAccountTypeMasks();
+        }
+    }
+
+    // One update per distinct label; there are only a handful of them however many accounts exist
+    public int backfillAccountTypeCodes() {
+        int updated = 0;
+        List<String> labels = jdbcTemplate.queryForList(
+                "select distinct account_type from credit_account where account_type_code is null", String.class);
+        for (String label : labels) {
+            AccountType type = AccountType.fromLabel(label);
+            int rows = label == null
+                    ? jdbcTemplate.update("update credit_account set account_type_code = ? "
+                            + "where account_type_code is null and account_type is null", type.getCode())
+                    : jdbcTemplate.update("update credit_account set account_type_code = ? "
+                            + "where account_type_code is null and account_type = ?", type.getCode(), label);
+            if (type == AccountType.OTHER) {
+                logger.warning("Unrecognized account type '" + label + "' on " + rows + " accounts; stored as OTHER");
+            }
+            updated += rows;
+        }
+        if (updated > 0) {
+            logger.info("Backfilled account type codes for " + updated + " credit accounts");
+        }
+        return updated;
+    }
+
+    // Walks user_credit_data in id order, one batch of users and their account codes at a time
+    public int backfillAccountTypeMasks() {
+        int updated = 0;
+        long lastId = 0;
+        while (true) {
+            List<Long> ids = jdbcTemplate.queryForList("select id from user_credit_data "
+                    + "where account_type_mask is null and id > ? order by id limit ?", Long.class, lastId, batchSize);
+            if (ids.isEmpty()) {
+                break;
+            }
+            lastId = ids.get(ids.size() - 1);
+
+            Map<Long, Integer> masks = new LinkedHashMap<>();
+            for (Long id : ids) {
+                masks.put(id, 0);
+            }
+            namedParameterJdbcTemplate.query("select user_credit_data_id, account_type_code from credit_account "
+                    + "where user_credit_data_id in (:ids)", Map.of("ids", ids), rs -> {
+                        AccountType type = AccountType.fromCode(rs.getShort("account_type_code"));
+                        masks.merge(rs.getLong("user_credit_data_id"), type.bit(), (a, b) -> a | b);
+                    });
+
+            List<Map.Entry<Long, Integer>> rows = List.copyOf(masks.entrySet());
+            jdbcTemplate.batchUpdate("update user_credit_data set account_type_mask = ? where id = ? and account_type_mask is null",
+                    rows, rows.size(), (ps, row) -> {
+                        ps.setInt(1, row.getValue());
+                        ps.setLong(2, row.getKey());
+                    });
+            updated += rows.size();
+        }
+        if (updated > 0) {
+            logger.info("Backfilled account type masks for " + updated + " users");
+        }
+        return updated;
+    }
+}
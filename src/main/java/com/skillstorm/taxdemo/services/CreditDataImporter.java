@@ -0,0 +1,396 @@
+package com.skillstorm.taxdemo.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.skillstorm.taxdemo.dtos.CreditProfile;
+import com.skillstorm.taxdemo.dtos.ImportResult;
+import com.skillstorm.taxdemo.dtos.ImportResult.LineError;
+import com.skillstorm.taxdemo.metrics.CreditMetrics;
+import com.skillstorm.taxdemo.metrics.CreditMetrics.Operation;
+import com.skillstorm.taxdemo.metrics.CreditMetrics.Phase;
+import com.skillstorm.taxdemo.models.CreditAccount;
+import com.skillstorm.taxdemo.models.UserCreditData;
+import com.skillstorm.taxdemo.repositories.UserCreditDataRepository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.hibernate.Session;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Streaming bulk import of credit data. The body is read one line at a time, so memory use depends
+// on the chunk size, not the payload. Each chunk is written in its own transaction as batched
+// inserts; sequence ids mean Hibernate can batch them, unlike IDENTITY. A line that cannot be
+// parsed or stored is reported with its line number and does not stop the rest of the import.
+// Upserted accounts are merged by id like PUT /data, so unchanged accounts keep their rows.
+@Service
+public class CreditDataImporter {
+
+    public enum Format {
+        NDJSON, CSV
+    }
+
+    public enum Mode {
+        INSERT, // reject users that already exist
+        UPSERT  // replace the fields and accounts of users that already exist
+    }
+
+    private static final Logger logger = Logger.getLogger(CreditDataImporter.class.getName());
+
+    private static final String USER_ID_CONSTRAINT = "uk_user_credit_data_user_id";
+
+    // CSV columns; creditAccounts holds "type:balance:limit" entries separated by ';'
+    private static final List<String> CSV_COLUMNS = List.of("userId", "onTimePayments", "latePayments", "missedPayments",
+            "publicRecords", "creditUtilization", "totalDebt", "oldestAccountAge", "recentInquiries", "newAccounts",
+            "creditAccounts");
+
+    @Autowired
+    private UserCreditDataRepository repository;
+
+    @Autowired
+    private CreditScoreCache creditScoreCache;
+
+    @Autowired
+    private CurrentScoreService currentScoreService;
+
+    @Autowired
+    private CreditMetrics creditMetrics;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${credit.import.chunk-size:1000}")
+    private int defaultChunkSize;
+
+    @Value("${credit.import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    private record ParsedLine(long line, UserCreditData data) {
+    }
+
+    // Running totals for one import
+    private final class Totals {
+        private long lines;
+        private long inserted;
+        private long updated;
+        private long failed;
+        private final List<LineError> errors = new ArrayList<>();
+
+        private void fail(long line, Long userId, String message) {
+            failed++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new LineError(line, userId, message));
+            }
+        }
+    }
+
+    public int getDefaultChunkSize() {
+        return defaultChunkSize;
+    }
+
+    public ImportResult importData(InputStream body, Format format, Mode mode, int chunkSize) {
+        creditMetrics.begin(Operation.IMPORT);
+        Totals totals = new Totals();
+        ObjectReader jsonReader = objectMapper.readerFor(UserCreditData.class);
+        List<ParsedLine> chunk = new ArrayList<>(chunkSize);
+        Map<String, Integer> csvHeader = null;
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8), 64 * 1024)) {
+            long lineNumber = 0;
+            long start = System.nanoTime();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (format == Format.CSV && csvHeader == null) {
+                    csvHeader = parseCsvHeader(line);
+                    continue;
+                }
+                totals.lines++;
+                try {
+                    UserCreditData data = format == Format.CSV ? parseCsv(line, csvHeader) : jsonReader.readValue(line);
+                    if (data.getUserId() == null) {
+                        throw new IllegalArgumentException("userId is required");
+                    }
+                    chunk.add(new ParsedLine(lineNumber, data));
+                } catch (IOException | RuntimeException e) {
+                    totals.fail(lineNumber, null, "Unparseable line: " + rootMessage(e));
+                }
+                if (chunk.size() >= chunkSize) {
+                    start = creditMetrics.lap(Operation.IMPORT, Phase.COMPUTE, start);
+                    writeChunk(chunk, mode, chunkSize, totals);
+                    start = creditMetrics.lap(Operation.IMPORT, Phase.DB, start);
+                    chunk.clear();
+                }
+            }
+            start = creditMetrics.lap(Operation.IMPORT, Phase.COMPUTE, start);
+            writeChunk(chunk, mode, chunkSize, totals);
+            creditMetrics.lap(Operation.IMPORT, Phase.DB, start);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read import body", e);
+        }
+
+        logger.info("Imported credit data: " + totals.lines + " lines, " + totals.inserted + " inserted, "
+                + totals.updated + " updated, " + totals.failed + " failed");
+        return new ImportResult(totals.lines, totals.inserted, totals.updated, totals.failed, List.copyOf(totals.errors));
+    }
+
+    // Writes the chunk in one transaction. If the flush fails, the chunk is rolled back and retried
+    // line by line, so the bad lines can be identified and the good ones still stored.
+    private void writeChunk(List<ParsedLine> chunk, Mode mode, int batchSize, Totals totals) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        Totals chunkTotals = new Totals();
+        Set<Long> touched = new HashSet<>();
+        try {
+            tx.executeWithoutResult(status -> write(chunk, mode, batchSize, chunkTotals, touched));
+            merge(totals, chunkTotals);
+        } catch (RuntimeException e) {
+            logger.log(Level.FINE, "Import chunk failed; retrying its lines one by one", e);
+            for (ParsedLine line : chunk) {
+                Totals lineTotals = new Totals();
+                try {
+                    tx.executeWithoutResult(status -> write(List.of(line), mode, 1, lineTotals, touched));
+                    merge(totals, lineTotals);
+                } catch (RuntimeException lineFailure) {
+                    Long userId = line.data().getUserId();
+                    // The user was created by a concurrent import or POST after this line was checked
+                    totals.fail(line.line(), userId, isDuplicateUser(lineFailure)
+                            ? "Credit data already exists for userId: " + userId : rootMessage(lineFailure));
+                }
+            }
+        }
+        for (Long userId : touched) {
+            creditScoreCache.invalidate(userId);
+        }
+    }
+
+    private void write(List<ParsedLine> chunk, Mode mode, int batchSize, Totals totals, Set<Long> touched) {
+        entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+        List<Long> userIds = new ArrayList<>(chunk.size());
+        for (ParsedLine line : chunk) {
+            userIds.add(line.data().getUserId());
+        }
+
+        // One query per chunk finds the users that already exist; only upserts need their accounts
+        Map<Long, UserCreditData> existing = new HashMap<>();
+        Set<Long> existingIds = new HashSet<>();
+        if (mode == Mode.UPSERT) {
+            for (UserCreditData data : repository.findAllWithAccountsByUserIdIn(userIds)) {
+                existing.put(data.getUserId(), data);
+            }
+        } else {
+            for (CreditProfile profile : repository.findProfilesByUserIdIn(userIds)) {
+                existingIds.add(profile.userId());
+            }
+        }
+
+        Map<Long, UserCreditData> inChunk = new HashMap<>();
+        List<UserCreditData> written = new ArrayList<>(chunk.size());
+        for (ParsedLine line : chunk) {
+            UserCreditData data = line.data();
+            Long userId = data.getUserId();
+            UserCreditData target = existing.containsKey(userId) ? existing.get(userId) : inChunk.get(userId);
+            if (target == null && mode == Mode.INSERT && (existingIds.contains(userId) || inChunk.containsKey(userId))) {
+                totals.fail(line.line(), userId, "Credit data already exists for userId: " + userId);
+                continue;
+            }
+
+            if (target == null) {
+                List<CreditAccount> accounts = new ArrayList<>();
+                if (data.getCreditAccounts() != null) {
+                    for (CreditAccount account : data.getCreditAccounts()) {
+                        accounts.add(new CreditAccount(null, account.getAccountType(), account.getBalance(), account.getCreditLimit(), null));
+                    }
+                }
+                data.setId(null);
+                data.setVersion(null);
+                data.setCreditAccounts(accounts);
+                data.refreshAccountTypeMask();
+                entityManager.persist(data);
+                inChunk.put(userId, data);
+                totals.inserted++;
+            } else {
+                copyFields(data, target);
+                // An account id that belongs to another user rejects the line
+                CreditDataService.replaceAccounts(target, data.getCreditAccounts());
+                target.refreshAccountTypeMask();
+                target.markModified();
+                totals.updated++;
+            }
+            written.add(target != null ? target : data);
+            touched.add(userId);
+        }
+        currentScoreService.onCreditDataWritten(written);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private static void copyFields(UserCreditData source, UserCreditData target) {
+        target.setOnTimePayments(source.getOnTimePayments());
+        target.setLatePayments(source.getLatePayments());
+        target.setMissedPayments(source.getMissedPayments());
+        target.setPublicRecords(source.getPublicRecords());
+        target.setCreditUtilization(source.getCreditUtilization());
+        target.setTotalDebt(source.getTotalDebt());
+        target.setOldestAccountAge(source.getOldestAccountAge());
+        target.setRecentInquiries(source.getRecentInquiries());
+        target.setNewAccounts(source.getNewAccounts());
+    }
+
+    private static void merge(Totals into, Totals from) {
+        into.inserted += from.inserted;
+        into.updated += from.updated;
+        for (LineError error : from.errors) {
+            into.fail(error.line(), error.userId(), error.message());
+        }
+    }
+
+    private static Map<String, Integer> parseCsvHeader(String line) {
+        List<String> names = splitCsv(line);
+        Map<String, Integer> header = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            header.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        if (!header.containsKey("userid")) {
+            throw new IllegalArgumentException("CSV header must include userId; expected columns: " + String.join(",", CSV_COLUMNS));
+        }
+        return header;
+    }
+
+    private static UserCreditData parseCsv(String line, Map<String, Integer> header) {
+        List<String> values = splitCsv(line);
+        UserCreditData data = new UserCreditData();
+        data.setUserId(parseLong(column(values, header, "userId")));
+        data.setOnTimePayments(parseInt(column(values, header, "onTimePayments")));
+        data.setLatePayments(parseInt(column(values, header, "latePayments")));
+        data.setMissedPayments(parseInt(column(values, header, "missedPayments")));
+        data.setPublicRecords(parseInt(column(values, header, "publicRecords")));
+        data.setCreditUtilization(parseDouble(column(values, header, "creditUtilization")));
+        data.setTotalDebt(parseDouble(column(values, header, "totalDebt")));
+        data.setOldestAccountAge(parseInt(column(values, header, "oldestAccountAge")));
+        data.setRecentInquiries(parseInt(column(values, header, "recentInquiries")));
+        data.setNewAccounts(parseInt(column(values, header, "newAccounts")));
+
+        List<CreditAccount> accounts = new ArrayList<>();
+        String encoded = column(values, header, "creditAccounts");
+        if (encoded != null) {
+            for (String entry : encoded.split(";")) {
+                if (entry.isBlank()) {
+                    continue;
+                }
+                String[] parts = entry.split(":");
+                if (parts.length != 3) {
+                    throw new IllegalArgumentException("Credit account must be type:balance:limit, got '" + entry + "'");
+                }
+                accounts.add(new CreditAccount(null, parts[0].trim(), Double.parseDouble(parts[1].trim()),
+                        Double.parseDouble(parts[2].trim()), null));
+            }
+        }
+        data.setCreditAccounts(accounts);
+        return data;
+    }
+
+    private static String column(List<String> values, Map<String, Integer> header, String name) {
+        Integer index = header.get(name.toLowerCase(Locale.ROOT));
+        if (index == null || index >= values.size()) {
+            return null;
+        }
+        String value = values.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static Long parseLong(String value) {
+        return value == null ? null : Long.parseLong(value);
+    }
+
+    private static int parseInt(String value) {
+        return value == null ? 0 : Integer.parseInt(value);
+    }
+
+    private static double parseDouble(String value) {
+        return value == null ? 0 : Double.parseDouble(value);
+    }
+
+    // RFC 4180 fields: commas inside double quotes are data, and "" is an escaped quote
+    private static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static boolean isDuplicateUser(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause() != cause ? cause.getCause() : null) {
+            if (cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null
+                    && violation.getConstraintName().toLowerCase(Locale.ROOT).contains(USER_ID_CONSTRAINT)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        String message = root.getMessage();
+        return message != null ? message.lines().findFirst().orElse(message) : root.getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,216 @@
+package com.skillstorm.taxdemo.services;
+
+import com.skillstorm.taxdemo.dtos.CreditDataPatch;
+import com.skillstorm.taxdemo.dtos.CreditDataPatch.AccountPatch;
+import com.skillstorm.taxdemo.models.CreditAccount;
+import com.skillstorm.taxdemo.models.UserCreditData;
+import com.skillstorm.taxdemo.repositories.UserCreditDataRepository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Writes to a user's credit data. Accounts are merged by id against the managed collection, so
+// Hibernate only issues statements for the rows that actually changed instead of deleting and
+// re-inserting every account.
+@Service
+public class CreditDataService {
+
+    @Autowired
+    private UserCreditDataRepository repository;
+
+    @Autowired
+    private CreditScoreCache creditScoreCache;
+
+    @Autowired
+    private CurrentScoreService currentScoreService;
+
+    @Transactional
+    public UserCreditData save(UserCreditData creditData) {
+        creditData.refreshAccountTypeMask();
+        UserCreditData savedData = repository.save(creditData);
+        currentScoreService.onCreditDataWritten(List.of(savedData));
+        invalidateAfterCommit(savedData.getUserId());
+        return savedData;
+    }
+
+    // Full replacement: accounts missing from the request are removed, ones without an id are added
+    @Transactional
+    public UserCreditData update(Long userId, UserCreditData updatedCreditData) {
+        UserCreditData existingData = load(userId);
+
+        existingData.setOnTimePayments(updatedCreditData.getOnTimePayments());
+        existingData.setLatePayments(updatedCreditData.getLatePayments());
+        existingData.setMissedPayments(updatedCreditData.getMissedPayments());
+        existingData.setPublicRecords(updatedCreditData.getPublicRecords());
+        existingData.setCreditUtilization(updatedCreditData.getCreditUtilization());
+        existingData.setTotalDebt(updatedCreditData.getTotalDebt());
+        existingData.setOldestAccountAge(updatedCreditData.getOldestAccountAge());
+        existingData.setRecentInquiries(updatedCreditData.getRecentInquiries());
+        existingData.setNewAccounts(updatedCreditData.getNewAccounts());
+
+        boolean accountsUpdated = replaceAccounts(existingData, updatedCreditData.getCreditAccounts());
+        return finish(existingData, accountsUpdated);
+    }
+
+    // Replaces a user's accounts by id, as PUT does: accounts missing from the list are removed, ones without an id are
+    // added and the rest are updated in place. Returns whether any existing account was modified in place.
+    static boolean replaceAccounts(UserCreditData existingData, List<CreditAccount> accounts) {
+        List<CreditAccount> updatedAccounts = accounts != null ? accounts : List.of();
+        Map<Long, CreditAccount> existingAccounts = accountsById(existingData);
+        Set<Long> keptIds = new HashSet<>();
+        List<AccountPatch> changes = new ArrayList<>(updatedAccounts.size());
+        for (CreditAccount account : updatedAccounts) {
+            if (account.getId() != null) {
+                keptIds.add(account.getId());
+            }
+            changes.add(new AccountPatch(account.getId(), account.getAccountType(), account.getBalance(), account.getCreditLimit()));
+        }
+        List<Long> removedIds = new ArrayList<>();
+        for (Long id : existingAccounts.keySet()) {
+            if (!keptIds.contains(id)) {
+                removedIds.add(id);
+            }
+        }
+
+        return mergeAccounts(existingData, existingAccounts, changes, removedIds);
+    }
+
+    @Transactional
+    public UserCreditData patch(Long userId, CreditDataPatch patch) {
+        UserCreditData existingData = load(userId);
+
+        if (patch.onTimePayments() != null) {
+            existingData.setOnTimePayments(patch.onTimePayments());
+        }
+        if (patch.latePayments() != null) {
+            existingData.setLatePayments(patch.latePayments());
+        }
+        if (patch.missedPayments() != null) {
+            existingData.setMissedPayments(patch.missedPayments());
+        }
+        if (patch.publicRecords() != null) {
+            existingData.setPublicRecords(patch.publicRecords());
+        }
+        if (patch.creditUtilization() != null) {
+            existingData.setCreditUtilization(patch.creditUtilization());
+        }
+        if (patch.totalDebt() != null) {
+            existingData.setTotalDebt(patch.totalDebt());
+        }
+        if (patch.oldestAccountAge() != null) {
+            existingData.setOldestAccountAge(patch.oldestAccountAge());
+        }
+        if (patch.recentInquiries() != null) {
+            existingData.setRecentInquiries(patch.recentInquiries());
+        }
+        if (patch.newAccounts() != null) {
+            existingData.setNewAccounts(patch.newAccounts());
+        }
+
+        List<AccountPatch> changes = patch.accounts() != null ? patch.accounts() : List.of();
+        List<Long> removedIds = patch.removeAccountIds() != null ? patch.removeAccountIds() : List.of();
+        boolean accountsUpdated = mergeAccounts(existingData, accountsById(existingData), changes, removedIds);
+        return finish(existingData, accountsUpdated);
+    }
+
+    private UserCreditData load(Long userId) {
+        return repository.findWithAccountsByUserId(userId)
+                .orElseThrow(() -> new RuntimeException("User Credit Data not found for userId: " + userId));
+    }
+
+    private static Map<Long, CreditAccount> accountsById(UserCreditData creditData) {
+        Map<Long, CreditAccount> accounts = new HashMap<>();
+        for (CreditAccount account : creditData.getCreditAccounts()) {
+            accounts.put(account.getId(), account);
+        }
+        return accounts;
+    }
+
+    // Applies account changes to the managed collection and returns whether any existing account was modified in place.
+    // Ids that do not belong to this user are rejected rather than re-parenting another user's account.
+    private static boolean mergeAccounts(UserCreditData creditData, Map<Long, CreditAccount> existingAccounts,
+            List<AccountPatch> changes, List<Long> removedIds) {
+        boolean updated = false;
+        List<CreditAccount> added = new ArrayList<>();
+        for (AccountPatch change : changes) {
+            if (change.id() == null) {
+                added.add(new CreditAccount(null, change.accountType(),
+                        change.balance() != null ? change.balance() : 0,
+                        change.creditLimit() != null ? change.creditLimit() : 0, null));
+                continue;
+            }
+            CreditAccount account = existingAccounts.get(change.id());
+            if (account == null) {
+                throw new IllegalArgumentException("Credit account " + change.id() + " does not belong to userId: " + creditData.getUserId());
+            }
+            updated |= applyChange(account, change);
+        }
+
+        if (!removedIds.isEmpty()) {
+            for (Long id : removedIds) {
+                if (!existingAccounts.containsKey(id)) {
+                    throw new IllegalArgumentException("Credit account " + id + " does not belong to userId: " + creditData.getUserId());
+                }
+            }
+            Set<Long> removed = new HashSet<>(removedIds);
+            creditData.getCreditAccounts().removeIf(account -> removed.contains(account.getId()));
+        }
+        creditData.getCreditAccounts().addAll(added);
+        return updated;
+    }
+
+    private static boolean applyChange(CreditAccount account, AccountPatch change) {
+        boolean changed = false;
+        if (change.accountType() != null && !change.accountType().equals(account.getAccountType())) {
+            account.setAccountType(change.accountType());
+            changed = true;
+        }
+        if (change.balance() != null && change.balance() != account.getBalance()) {
+            account.setBalance(change.balance());
+            changed = true;
+        }
+        if (change.creditLimit() != null && change.creditLimit() != account.getCreditLimit()) {
+            account.setCreditLimit(change.creditLimit());
+            changed = true;
+        }
+        return changed;
+    }
+
+    private UserCreditData finish(UserCreditData creditData, boolean accountsUpdated) {
+        Integer previousMask = creditData.getAccountTypeMask();
+        creditData.refreshAccountTypeMask();
+        // Hibernate bumps the version for changes to the row or the collection itself, but not for an
+        // account edited in place; dirtying the row does, so cached scores, tips and ETags are still revalidated
+        if (accountsUpdated && Objects.equals(previousMask, creditData.getAccountTypeMask())) {
+            creditData.markModified();
+        }
+        currentScoreService.onCreditDataWritten(List.of(creditData));
+        invalidateAfterCommit(creditData.getUserId());
+        return creditData;
+    }
+
+    // Invalidating before the commit would let a concurrent read cache the old data again
+    private void invalidateAfterCommit(Long userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    creditScoreCache.invalidate(userId);
+                }
+            });
+        } else {
+            creditScoreCache.invalidate(userId);
+        }
+    }
+}
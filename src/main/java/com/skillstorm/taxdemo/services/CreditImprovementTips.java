@@ -0,0 +1,106 @@
+package com.skillstorm.taxdemo.services;
+
+import com.skillstorm.taxdemo.dtos.CreditProfile;
+import com.skillstorm.taxdemo.services.TipRuleTable.Rule;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+// Improvement tips from the credit.tips rule table. The table is compiled once per configuration
+// change and published through an AtomicReference: readers take one volatile read and never see a
+// half-built table. A refresh (POST /actuator/refresh or /actuator/tipRules) swaps it without a redeploy;
+// a table that fails to compile is rejected and the previous one stays in place.
+@Component
+public class CreditImprovementTips {
+
+    private static final Logger logger = Logger.getLogger(CreditImprovementTips.class.getName());
+
+    private static final String PREFIX = "credit.tips";
+
+    private final Environment environment;
+    private final CreditScoreCache creditScoreCache;
+    private final AtomicLong generations = new AtomicLong();
+    private final AtomicReference<TipRuleTable> table = new AtomicReference<>();
+
+    @Autowired
+    public CreditImprovementTips(Environment environment, CreditScoreCache creditScoreCache) {
+        this.environment = environment;
+        this.creditScoreCache = creditScoreCache;
+        // Fails startup on a broken table; later reloads keep the running one instead
+        table.set(compile());
+        logger.info("Loaded " + table.get().getRules().size() + " credit tip rules");
+    }
+
+    // Fixed table, for tests and benchmarks
+    public CreditImprovementTips(TipRuleTable table) {
+        this.environment = null;
+        this.creditScoreCache = null;
+        this.table.set(table);
+    }
+
+    public List<String> tipsFor(CreditProfile creditData) {
+        return table.get().tipsFor(creditData);
+    }
+
+    // All profiles are evaluated against the same table, even if a reload happens meanwhile
+    public Map<Long, List<String>> tipsFor(List<CreditProfile> profiles) {
+        TipRuleTable current = table.get();
+        long[] masks = current.match(profiles);
+        Map<Long, List<String>> tips = new LinkedHashMap<>();
+        for (int i = 0; i < masks.length; i++) {
+            tips.put(profiles.get(i).userId(), current.tipsFor(masks[i]));
+        }
+        return tips;
+    }
+
+    public TipRuleTable getTable() {
+        return table.get();
+    }
+
+    @EventListener
+    public void onEnvironmentChange(EnvironmentChangeEvent event) {
+        if (event.getKeys().stream().anyMatch(key -> key.startsWith(PREFIX))) {
+            reload();
+        }
+    }
+
+    // Recompiles from the current environment; returns false and keeps the old table on a bad configuration
+    public boolean reload() {
+        if (environment == null) {
+            return false;
+        }
+        TipRuleTable compiled;
+        try {
+            compiled = compile();
+        } catch (RuntimeException e) {
+            logger.log(Level.SEVERE, "Rejected credit tip rules; keeping generation " + table.get().getGeneration(), e);
+            return false;
+        }
+        TipRuleTable previous = table.getAndSet(compiled);
+        if (!compiled.getFingerprint().equals(previous.getFingerprint())) {
+            creditScoreCache.invalidateAll(CreditScoreCache.Endpoint.TIPS);
+        }
+        logger.info("Credit tip rules now at generation " + compiled.getGeneration() + " (" + compiled.getRules().size() + " rules)");
+        return true;
+    }
+
+    private TipRuleTable compile() {
+        Binder binder = Binder.get(environment);
+        List<Rule> rules = binder.bind(PREFIX + ".rules", Bindable.listOf(Rule.class)).orElse(TipRuleTable.DEFAULT_RULES);
+        String defaultMessage = binder.bind(PREFIX + ".default-message", String.class).orElse(TipRuleTable.DEFAULT_MESSAGE);
+        return TipRuleTable.compile(generations.incrementAndGet(), rules, defaultMessage);
+    }
+}
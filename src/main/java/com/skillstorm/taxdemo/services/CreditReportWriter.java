@@ -0,0 +1,146 @@
+package com.skillstorm.taxdemo.services;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.skillstorm.taxdemo.dtos.HistoryEntry;
+import com.skillstorm.taxdemo.models.CreditAccount;
+import com.skillstorm.taxdemo.models.HistoryResolution;
+import com.skillstorm.taxdemo.models.UserCreditData;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Iterator;
+
+// Renders a credit report incrementally to a Writer. History rows are consumed one at a time from
+// the iterator, so the memory used does not depend on how much history the user has.
+public final class CreditReportWriter {
+
+    public enum Format {
+        TEXT, JSON
+    }
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory().disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+    private CreditReportWriter() {
+    }
+
+    // Returns the number of history rows written
+    public static long write(UserCreditData creditData, Iterator<HistoryEntry> history, Format format, Writer out) throws IOException {
+        return format == Format.JSON ? writeJson(creditData, history, out) : writeText(creditData, history, out);
+    }
+
+    public static long writeText(UserCreditData creditData, Iterator<HistoryEntry> history, Writer out) throws IOException {
+        out.append("Credit Report for User ID: ").append(String.valueOf(creditData.getUserId())).append("\n\n");
+
+        out.append("On-Time Payments: ").append(String.valueOf(creditData.getOnTimePayments())).append("\n");
+        out.append("Late Payments: ").append(String.valueOf(creditData.getLatePayments())).append("\n");
+        out.append("Missed Payments: ").append(String.valueOf(creditData.getMissedPayments())).append("\n");
+        out.append("Public Records: ").append(String.valueOf(creditData.getPublicRecords())).append("\n");
+        out.append("Credit Utilization: ").append(String.valueOf(creditData.getCreditUtilization())).append("%\n");
+        out.append("Total Debt: $").append(String.valueOf(creditData.getTotalDebt())).append("\n");
+        out.append("Oldest Account Age: ").append(String.valueOf(creditData.getOldestAccountAge())).append(" months\n");
+        out.append("Recent Inquiries: ").append(String.valueOf(creditData.getRecentInquiries())).append("\n");
+        out.append("New Accounts: ").append(String.valueOf(creditData.getNewAccounts())).append("\n\n");
+
+        out.append("Credit Accounts:\n");
+        if (creditData.getCreditAccounts() != null) {
+            for (CreditAccount account : creditData.getCreditAccounts()) {
+                out.append("  - Account Type: ").append(account.getAccountType()).append("\n");
+                out.append("    Balance: $").append(String.valueOf(account.getBalance())).append("\n");
+                out.append("    Credit Limit: $").append(String.valueOf(account.getCreditLimit())).append("\n");
+            }
+        }
+
+        out.append("\nCredit Score History:\n");
+        HistoryEntry latest = null;
+        long count = 0;
+        while (history.hasNext()) {
+            HistoryEntry entry = history.next();
+            if (latest == null) {
+                latest = entry; // history is ordered newest first
+            }
+            appendTextEntry(out, entry);
+            count++;
+        }
+
+        if (latest != null) {
+            out.append("\nLatest Credit Score:\n");
+            appendTextEntry(out, latest);
+        } else {
+            out.append("\nNo Credit Score History Available.\n");
+        }
+        out.flush();
+        return count;
+    }
+
+    // A summary row's score is the last one of its period; its range follows
+    private static void appendTextEntry(Writer out, HistoryEntry entry) throws IOException {
+        out.append("  - Score: ").append(String.valueOf(entry.score()))
+                .append(", Date: ").append(String.valueOf(entry.timestamp()));
+        if (entry.resolution() != HistoryResolution.RAW) {
+            out.append(" (").append(entry.resolution().name()).append(", min ").append(String.valueOf(entry.minScore()))
+                    .append(", max ").append(String.valueOf(entry.maxScore())).append(")");
+        }
+        out.append("\n");
+    }
+
+    public static long writeJson(UserCreditData creditData, Iterator<HistoryEntry> history, Writer out) throws IOException {
+        long count = 0;
+        try (JsonGenerator json = JSON_FACTORY.createGenerator(out)) {
+            json.writeStartObject();
+            json.writeNumberField("userId", creditData.getUserId());
+            json.writeNumberField("onTimePayments", creditData.getOnTimePayments());
+            json.writeNumberField("latePayments", creditData.getLatePayments());
+            json.writeNumberField("missedPayments", creditData.getMissedPayments());
+            json.writeNumberField("publicRecords", creditData.getPublicRecords());
+            json.writeNumberField("creditUtilization", creditData.getCreditUtilization());
+            json.writeNumberField("totalDebt", creditData.getTotalDebt());
+            json.writeNumberField("oldestAccountAge", creditData.getOldestAccountAge());
+            json.writeNumberField("recentInquiries", creditData.getRecentInquiries());
+            json.writeNumberField("newAccounts", creditData.getNewAccounts());
+
+            json.writeArrayFieldStart("creditAccounts");
+            if (creditData.getCreditAccounts() != null) {
+                for (CreditAccount account : creditData.getCreditAccounts()) {
+                    json.writeStartObject();
+                    json.writeStringField("accountType", account.getAccountType());
+                    json.writeNumberField("balance", account.getBalance());
+                    json.writeNumberField("creditLimit", account.getCreditLimit());
+                    json.writeEndObject();
+                }
+            }
+            json.writeEndArray();
+
+            HistoryEntry latest = null;
+            json.writeArrayFieldStart("history");
+            while (history.hasNext()) {
+                HistoryEntry entry = history.next();
+                if (latest == null) {
+                    latest = entry;
+                }
+                writeJsonEntry(json, entry);
+                count++;
+            }
+            json.writeEndArray();
+
+            json.writeFieldName("latestScore");
+            if (latest != null) {
+                writeJsonEntry(json, latest);
+            } else {
+                json.writeNull();
+            }
+            json.writeEndObject();
+        }
+        return count;
+    }
+
+    private static void writeJsonEntry(JsonGenerator json, HistoryEntry entry) throws IOException {
+        json.writeStartObject();
+        json.writeNumberField("score", entry.score());
+        json.writeStringField("timestamp", String.valueOf(entry.timestamp()));
+        json.writeStringField("resolution", entry.resolution().name());
+        json.writeNumberField("minScore", entry.minScore());
+        json.writeNumberField("maxScore", entry.maxScore());
+        json.writeEndObject();
+    }
+}
@@ -0,0 +1,257 @@
+package com.skillstorm.taxdemo.services;
+
+import com.skillstorm.taxdemo.repositories.UserCreditDataRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+import java.time.Clock;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// Bounded in-process cache of computed scores and tips, keyed by endpoint and userId and validated
+// against the optimistic version of the user's credit data. Entries younger than the fresh TTL are served as-is;
+// older entries are served stale while a background revalidation checks the version (a single
+// scalar lookup) and only recomputes when the credit data has actually changed.
+@Component
+public class CreditScoreCache {
+
+    public enum Endpoint {
+        SCORE, TIPS
+    }
+
+    // A computed value together with the credit data version it was computed from
+    public record Versioned<T>(Long version, T value) {
+    }
+
+    private record Key(Endpoint endpoint, Long userId) {
+    }
+
+    private static final Logger logger = Logger.getLogger(CreditScoreCache.class.getName());
+
+    private final UserCreditDataRepository repository;
+    private final Clock clock;
+    private final boolean enabled;
+    private final boolean scoreEnabled;
+    private final boolean tipsEnabled;
+    private final long freshTtlMs;
+    private final long maxStaleMs;
+
+    private final Map<Key, Entry> entries;
+    private final ExecutorService revalidator;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter staleHits;
+    private final Counter sizeEvictions;
+    private final Counter expiredEvictions;
+    private final Counter invalidations;
+
+    @Autowired
+    public CreditScoreCache(UserCreditDataRepository repository, MeterRegistry meterRegistry,
+            @Value("${credit.cache.enabled:true}") boolean enabled,
+            @Value("${credit.cache.endpoints.score:true}") boolean scoreEnabled,
+            @Value("${credit.cache.endpoints.tips:true}") boolean tipsEnabled,
+            @Value("${credit.cache.max-size:100000}") int maxSize,
+            @Value("${credit.cache.fresh-ttl-ms:5000}") long freshTtlMs,
+            @Value("${credit.cache.max-stale-ms:300000}") long maxStaleMs) {
+        this(repository, meterRegistry, Clock.systemUTC(), enabled, scoreEnabled, tipsEnabled, maxSize, freshTtlMs, maxStaleMs);
+    }
+
+    public CreditScoreCache(UserCreditDataRepository repository, MeterRegistry meterRegistry, Clock clock,
+            boolean enabled, boolean scoreEnabled, boolean tipsEnabled, int maxSize, long freshTtlMs, long maxStaleMs) {
+        this.repository = repository;
+        this.clock = clock;
+        this.enabled = enabled;
+        this.scoreEnabled = scoreEnabled;
+        this.tipsEnabled = tipsEnabled;
+        this.freshTtlMs = freshTtlMs;
+        this.maxStaleMs = maxStaleMs;
+
+        this.hits = requestCounter(meterRegistry, "hit");
+        this.misses = requestCounter(meterRegistry, "miss");
+        this.staleHits = requestCounter(meterRegistry, "stale");
+        this.sizeEvictions = evictionCounter(meterRegistry, "size");
+        this.expiredEvictions = evictionCounter(meterRegistry, "expired");
+        this.invalidations = evictionCounter(meterRegistry, "invalidated");
+
+        this.entries = new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                if (size() > maxSize) {
+                    sizeEvictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+        Gauge.builder("credit.cache.size", this, CreditScoreCache::size)
+                .description("Users with a cached credit score")
+                .register(meterRegistry);
+
+        this.revalidator = Executors.newFixedThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "credit-cache-revalidate");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static Counter requestCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("credit.cache.requests").tag("result", result).register(meterRegistry);
+    }
+
+    private static Counter evictionCounter(MeterRegistry meterRegistry, String cause) {
+        return Counter.builder("credit.cache.evictions").tag("cause", cause).register(meterRegistry);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(Long userId, Endpoint endpoint, Function<Long, Versioned<T>> loader) {
+        if (!isEnabled(endpoint)) {
+            return loader.apply(userId).value();
+        }
+
+        Key key = new Key(endpoint, userId);
+        Entry entry = lookup(key);
+        if (entry == null) {
+            misses.increment();
+            return (T) load(key, loader).value();
+        }
+
+        long age = clock.millis() - entry.loadedAt;
+        if (age < freshTtlMs) {
+            hits.increment();
+            return (T) entry.value.value();
+        }
+        if (age < maxStaleMs) {
+            staleHits.increment();
+            revalidateAsync(key, entry, loader);
+            return (T) entry.value.value();
+        }
+
+        expiredEvictions.increment();
+        misses.increment();
+        try {
+            return (T) revalidate(key, entry, loader).value();
+        } catch (RuntimeException e) {
+            // Stale-if-error: an old answer is better than none when the database is struggling
+            logger.log(Level.WARNING, "Serving expired cached " + endpoint + " for userId " + userId, e);
+            staleHits.increment();
+            return (T) entry.value.value();
+        }
+    }
+
+    public boolean isEnabled(Endpoint endpoint) {
+        return enabled && (endpoint == Endpoint.SCORE ? scoreEnabled : tipsEnabled);
+    }
+
+    public void invalidate(Long userId) {
+        for (Endpoint endpoint : Endpoint.values()) {
+            Entry removed;
+            synchronized (entries) {
+                removed = entries.remove(new Key(endpoint, userId));
+            }
+            if (removed != null) {
+                invalidations.increment();
+            }
+        }
+    }
+
+    // Drops every entry of one endpoint, e.g. after the tip rules changed
+    public void invalidateAll(Endpoint endpoint) {
+        int removed = 0;
+        synchronized (entries) {
+            Iterator<Key> keys = entries.keySet().iterator();
+            while (keys.hasNext()) {
+                if (keys.next().endpoint() == endpoint) {
+                    keys.remove();
+                    removed++;
+                }
+            }
+        }
+        invalidations.increment(removed);
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private Entry lookup(Key key) {
+        synchronized (entries) {
+            return entries.get(key);
+        }
+    }
+
+    private Versioned<?> load(Key key, Function<Long, ? extends Versioned<?>> loader) {
+        Versioned<?> value = loader.apply(key.userId());
+        Entry fresh = new Entry(value, clock.millis());
+        synchronized (entries) {
+            Entry current = entries.get(key);
+            // Never let a slow load overwrite a newer version stored meanwhile
+            if (current == null || !isNewer(current.value.version(), value.version())) {
+                entries.put(key, fresh);
+            }
+        }
+        return value;
+    }
+
+    private Versioned<?> revalidate(Key key, Entry entry, Function<Long, ? extends Versioned<?>> loader) {
+        Optional<Long> currentVersion = repository.findVersionByUserId(key.userId());
+        if (currentVersion.isPresent() && Objects.equals(currentVersion.get(), entry.value.version())) {
+            entry.loadedAt = clock.millis();
+            return entry.value;
+        }
+        return load(key, loader);
+    }
+
+    private void revalidateAsync(Key key, Entry entry, Function<Long, ? extends Versioned<?>> loader) {
+        if (!entry.revalidating.compareAndSet(false, true)) {
+            return;
+        }
+        revalidator.execute(() -> {
+            try {
+                revalidate(key, entry, loader);
+            } catch (RuntimeException e) {
+                logger.log(Level.FINE, "Background revalidation failed for userId " + key.userId(), e);
+            } finally {
+                entry.revalidating.set(false);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        revalidator.shutdownNow();
+    }
+
+    private static boolean isNewer(Long candidate, Long reference) {
+        return candidate != null && reference != null && candidate > reference;
+    }
+
+    private static final class Entry {
+        private final Versioned<?> value;
+        private volatile long loadedAt;
+        private final AtomicBoolean revalidating = new AtomicBoolean();
+
+        private Entry(Versioned<?> value, long loadedAt) {
+            this.value = value;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -0,0 +1,342 @@
+package com.skillstorm.taxdemo.services;
+
+import com.skillstorm.taxdemo.models.CreditScoreHistory;
+import com.skillstorm.taxdemo.repositories.CreditScoreHistoryRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+// Write-behind buffer for credit score history rows. Rows are queued by the request thread and
+// written by a single background flusher as multi-row batch inserts, either when a full batch is
+// waiting or when the flush interval elapses. A fire-and-forget batch that fails is retried on the
+// following flushes, up to max-retries times; rows still failing after that are logged and dropped.
+// With skip-unchanged, each batch is checked against the users' last stored rows with one query just
+// before it is written, so the request thread never waits on a read.
+@Service
+public class CreditScoreHistoryWriter {
+
+    public enum DurabilityMode {
+        FIRE_AND_FORGET, // return as soon as the row is queued
+        WAIT_FOR_FLUSH   // block the caller until the row's batch is committed
+    }
+
+    private static final Logger logger = Logger.getLogger(CreditScoreHistoryWriter.class.getName());
+
+    private final CreditScoreHistoryRepository creditScoreHistoryRepository;
+    private final boolean enabled;
+    private final DurabilityMode durabilityMode;
+    private final int batchSize;
+    private final long enqueueTimeoutMs;
+    private final long flushTimeoutMs;
+    private final boolean skipUnchanged;
+    private final int maxRetries;
+    private final int retryCapacity;
+    private final int latestLookbackDays;
+
+    private final BlockingQueue<PendingRow> queue;
+    private final Map<Long, Integer> lastScores;
+    private final ScheduledExecutorService flusher;
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    // Failed fire-and-forget rows; only touched by the flusher thread, or during shutdown once it has stopped
+    private final List<PendingRow> retries = new ArrayList<>();
+    // Held shared while a row is queued and exclusively by shutdown, so every queued row is seen by the final drain
+    private final ReadWriteLock shutdownLock = new ReentrantReadWriteLock();
+    private boolean accepting = true;
+
+    private final Timer flushTimer;
+    private final Counter writtenRows;
+    private final Counter skippedRows;
+    private final Counter overflowRows;
+    private final Counter failedRows;
+    private final Counter droppedRows;
+
+    public CreditScoreHistoryWriter(CreditScoreHistoryRepository creditScoreHistoryRepository,
+            MeterRegistry meterRegistry,
+            @Value("${credit.history.writer.enabled:true}") boolean enabled,
+            @Value("${credit.history.writer.durability:FIRE_AND_FORGET}") DurabilityMode durabilityMode,
+            @Value("${credit.history.writer.queue-capacity:10000}") int queueCapacity,
+            @Value("${credit.history.writer.batch-size:500}") int batchSize,
+            @Value("${credit.history.writer.flush-interval-ms:200}") long flushIntervalMs,
+            @Value("${credit.history.writer.enqueue-timeout-ms:50}") long enqueueTimeoutMs,
+            @Value("${credit.history.writer.flush-timeout-ms:5000}") long flushTimeoutMs,
+            @Value("${credit.history.writer.skip-unchanged:false}") boolean skipUnchanged,
+            @Value("${credit.history.writer.last-score-cache-size:100000}") int lastScoreCacheSize,
+            @Value("${credit.history.writer.max-retries:3}") int maxRetries,
+            @Value("${credit.history.latest-lookback-days:400}") int latestLookbackDays) {
+        this.creditScoreHistoryRepository = creditScoreHistoryRepository;
+        this.enabled = enabled;
+        this.durabilityMode = durabilityMode;
+        this.batchSize = batchSize;
+        this.enqueueTimeoutMs = enqueueTimeoutMs;
+        this.flushTimeoutMs = flushTimeoutMs;
+        this.skipUnchanged = skipUnchanged;
+        this.maxRetries = maxRetries;
+        this.retryCapacity = queueCapacity;
+        this.latestLookbackDays = latestLookbackDays;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.lastScores = Collections.synchronizedMap(new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Integer> eldest) {
+                return size() > lastScoreCacheSize;
+            }
+        });
+
+        this.flushTimer = Timer.builder("credit.history.writer.flush")
+                .description("Time to check and write one batch of credit score history rows, including batches whose rows were all skipped")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.writtenRows = rowCounter(meterRegistry, "written");
+        this.skippedRows = rowCounter(meterRegistry, "skipped");
+        this.overflowRows = rowCounter(meterRegistry, "overflow");
+        this.failedRows = rowCounter(meterRegistry, "failed");
+        this.droppedRows = rowCounter(meterRegistry, "dropped");
+        Gauge.builder("credit.history.writer.queue.depth", queue, BlockingQueue::size)
+                .description("Credit score history rows waiting to be flushed")
+                .register(meterRegistry);
+
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "credit-history-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (enabled) {
+            flusher.scheduleWithFixedDelay(this::flushQueued, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static Counter rowCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("credit.history.writer.rows")
+                .description("Credit score history rows handled by the write-behind writer")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    public void record(Long userId, int score, LocalDateTime timestamp) {
+        CreditScoreHistory row = new CreditScoreHistory(null, userId, score, timestamp);
+        PendingRow pending = new PendingRow(row, durabilityMode == DurabilityMode.WAIT_FOR_FLUSH ? new CompletableFuture<>() : null);
+        boolean accepted;
+        boolean queued = false;
+        shutdownLock.readLock().lock();
+        try {
+            accepted = enabled && accepting;
+            if (accepted && enqueue(pending)) {
+                queued = true;
+                // A waiting caller triggers an immediate flush; rows queued meanwhile by other callers share that batch
+                if ((pending.flushed != null || queue.size() >= batchSize) && flushRequested.compareAndSet(false, true)) {
+                    flusher.execute(this::flushQueued);
+                }
+            }
+        } finally {
+            shutdownLock.readLock().unlock();
+        }
+
+        if (!queued) {
+            if (accepted) {
+                // Queue is saturated; apply backpressure by writing on the caller's thread rather than dropping the row
+                overflowRows.increment();
+            }
+            writeNow(List.of(row));
+            return;
+        }
+        if (pending.flushed != null) {
+            awaitFlush(pending.flushed);
+        }
+    }
+
+    // Whether a score is skipped is decided by the user's last stored row, so every instance decides the same
+    // way whatever it has cached. lastScores only holds scores that were written, and only rules a skip out
+    // without the query. Within a batch a row is compared with the user's previous row in the batch. Only rows
+    // from the last latest-lookback-days count, so a user idle for longer gets a new row even if unchanged.
+    private List<CreditScoreHistory> changed(List<CreditScoreHistory> rows) {
+        Set<Long> lookup = new HashSet<>();
+        for (CreditScoreHistory row : rows) {
+            Integer written = lastScores.get(row.getUserId());
+            if (written == null || written == row.getScore()) {
+                lookup.add(row.getUserId());
+            }
+        }
+        Map<Long, CreditScoreHistory> latest = new HashMap<>();
+        if (!lookup.isEmpty()) {
+            for (CreditScoreHistory stored : creditScoreHistoryRepository.findLatestByUserIds(lookup,
+                    LocalDateTime.now().minusDays(latestLookbackDays))) {
+                // Rows tied on the timestamp: the one inserted last counts
+                latest.merge(stored.getUserId(), stored, (a, b) -> a.getId() > b.getId() ? a : b);
+            }
+        }
+        List<CreditScoreHistory> changed = new ArrayList<>(rows.size());
+        Map<Long, Integer> previous = new HashMap<>();
+        for (CreditScoreHistory row : rows) {
+            Integer last = previous.get(row.getUserId());
+            if (last == null && latest.containsKey(row.getUserId())) {
+                last = latest.get(row.getUserId()).getScore();
+            }
+            if (last != null && last == row.getScore()) {
+                skippedRows.increment();
+            } else {
+                changed.add(row);
+            }
+            previous.put(row.getUserId(), row.getScore());
+        }
+        return changed;
+    }
+
+    private boolean enqueue(PendingRow pending) {
+        try {
+            return queue.offer(pending, enqueueTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void awaitFlush(CompletableFuture<Void> flushed) {
+        try {
+            flushed.get(flushTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for credit score history flush", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Failed to write credit score history", e.getCause());
+        } catch (TimeoutException e) {
+            throw new RuntimeException("Timed out waiting for credit score history flush", e);
+        }
+    }
+
+    // Drains the queue in batches; only ever runs on the flusher thread or during shutdown
+    void flushQueued() {
+        flushRequested.set(false);
+        // Rows that failed before get one more attempt per flush, which spaces retries by the flush interval
+        List<PendingRow> failed = new ArrayList<>(retries);
+        retries.clear();
+        for (int i = 0; i < failed.size(); i += batchSize) {
+            flushBatch(failed.subList(i, Math.min(failed.size(), i + batchSize)));
+        }
+        List<PendingRow> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            flushBatch(batch);
+            batch.clear();
+        }
+    }
+
+    private void flushBatch(List<PendingRow> batch) {
+        List<CreditScoreHistory> rows = new ArrayList<>(batch.size());
+        for (PendingRow pending : batch) {
+            rows.add(pending.row);
+        }
+        try {
+            writeNow(rows);
+            for (PendingRow pending : batch) {
+                if (pending.flushed != null) {
+                    pending.flushed.complete(null);
+                }
+            }
+        } catch (RuntimeException e) {
+            int dropped = 0;
+            for (PendingRow pending : batch) {
+                if (pending.flushed != null) {
+                    // The waiting caller sees the failure and decides for itself
+                    pending.flushed.completeExceptionally(e);
+                } else if (pending.attempts++ < maxRetries && retries.size() < retryCapacity) {
+                    retries.add(pending);
+                } else {
+                    dropped++;
+                }
+            }
+            if (dropped > 0) {
+                droppedRows.increment(dropped);
+                logger.severe("Dropped " + dropped + " credit score history rows after " + (maxRetries + 1) + " failed attempts");
+            }
+        }
+    }
+
+    private void writeNow(List<CreditScoreHistory> rows) {
+        long start = System.nanoTime();
+        try {
+            if (skipUnchanged) {
+                rows = changed(rows);
+                if (rows.isEmpty()) {
+                    return;
+                }
+            }
+            creditScoreHistoryRepository.batchInsert(rows);
+            writtenRows.increment(rows.size());
+            for (CreditScoreHistory row : rows) {
+                lastScores.put(row.getUserId(), row.getScore());
+            }
+        } catch (RuntimeException e) {
+            failedRows.increment(rows.size());
+            logger.log(Level.SEVERE, "Failed to write " + rows.size() + " credit score history rows", e);
+            throw e;
+        } finally {
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        shutdownLock.writeLock().lock();
+        try {
+            accepting = false;
+        } finally {
+            shutdownLock.writeLock().unlock();
+        }
+        flusher.shutdown();
+        try {
+            if (!flusher.awaitTermination(flushTimeoutMs, TimeUnit.MILLISECONDS)) {
+                logger.warning("Credit score history flusher did not stop in time; draining on shutdown thread");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Anything still queued is written before the repository goes away; failed rows get their remaining attempts
+        flushQueued();
+        for (int attempt = 0; attempt < maxRetries && !retries.isEmpty(); attempt++) {
+            flushQueued();
+        }
+        logger.info("Credit score history writer drained");
+    }
+
+    private static final class PendingRow {
+        private final CreditScoreHistory row;
+        private final CompletableFuture<Void> flushed;
+        private int attempts;
+
+        private PendingRow(CreditScoreHistory row, CompletableFuture<Void> flushed) {
+            this.row = row;
+            this.flushed = flushed;
+        }
+    }
+}
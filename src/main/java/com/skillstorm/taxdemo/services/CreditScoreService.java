@@ -3,232 +3,406 @@
 package com.skillstorm.taxdemo.services;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
-
-import com.skillstorm.taxdemo.models.CreditAccount;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.skillstorm.taxdemo.dtos.BatchScoreResponse;
+import com.skillstorm.taxdemo.dtos.BatchTipsResponse;
+import com.skillstorm.taxdemo.dtos.CreditDataStamp;
+import com.skillstorm.taxdemo.dtos.CreditProfile;
+import com.skillstorm.taxdemo.dtos.HistoryCursor;
+import com.skillstorm.taxdemo.dtos.HistoryEntry;
+import com.skillstorm.taxdemo.dtos.HistoryPage;
+import com.skillstorm.taxdemo.dtos.HistoryWindow;
+import com.skillstorm.taxdemo.metrics.CreditMetrics;
+import com.skillstorm.taxdemo.metrics.CreditMetrics.Operation;
+import com.skillstorm.taxdemo.metrics.CreditMetrics.Phase;
 import com.skillstorm.taxdemo.models.CreditScoreHistory;
 import com.skillstorm.taxdemo.models.UserCreditData;
 import com.skillstorm.taxdemo.repositories.CreditScoreHistoryRepository;
 import com.skillstorm.taxdemo.repositories.UserCreditDataRepository;
+import com.skillstorm.taxdemo.scoring.CreditSnapshot;
+import com.skillstorm.taxdemo.services.CreditScoreCache.Versioned;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
 import java.util.logging.Logger;
+import java.util.stream.Stream;
 
 @Service
 public class CreditScoreService {
 
     private static final Logger logger = Logger.getLogger(CreditScoreService.class.getName());
 
+    // Keeps IN (...) lists well below the driver's bind parameter limit
+    private static final int QUERY_CHUNK_SIZE = 1000;
+
     @Autowired
     private UserCreditDataRepository repository;
 
     @Autowired
     private CreditScoreHistoryRepository creditScoreHistoryRepository;
 
-    public int calculateFICOScore(Long userId) {
-        Optional<UserCreditData> optionalCreditData = repository.findByUserId(userId);
-        UserCreditData creditData = optionalCreditData
-                .orElseThrow(() -> new RuntimeException("Credit data not found for user with ID: " + userId));
-
-        int score = 0;
-
-        // Payment History (35%)
-        score += calculatePaymentHistoryScore();
+    @Autowired
+    private CreditScoreHistoryWriter creditScoreHistoryWriter;
 
-        /*// Amounts Owed (30%)
-        score += calculateAmountsOwedScore(creditData.getCreditUtilization(), creditData.getTotalDebt());*/
+    @Autowired
+    private CreditScoreCache creditScoreCache;
 
-        // Length of Credit History (15%)
-        score += calculateCreditHistoryLengthScore();
+    @Autowired
+    private CreditMetrics creditMetrics;
 
-        // Credit Mix (10%)
-        score += calculateCreditMixScore(creditData.getCreditAccounts());
+    @Autowired
+    private CurrentScoreService currentScoreService;
 
-        // New Credit (10%)
-        score += calculateNewCreditScore();
+    @Autowired
+    private CreditImprovementTips creditImprovementTips;
 
-        // Ensure the score falls within the FICO range
-        score = Math.min(850, Math.max(300, score));
+    @Autowired
+    private PlatformTransactionManager transactionManager;
 
-        // Save history
-        CreditScoreHistory history = new CreditScoreHistory();
-        history.setUserId(userId);
-        history.setScore(score);
-        history.setTimestamp(LocalDateTime.now());
-        creditScoreHistoryRepository.save(history);
+    // Runs the concurrent report reads; virtual-thread backed when spring.threads.virtual.enabled is set
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private AsyncTaskExecutor reportFetchExecutor;
 
-        return score;
-    }
+    @Value("${credit.report.concurrent-fetch:false}")
+    private boolean concurrentReportFetch;
 
-    public List<CreditScoreHistory> getCreditScoreHistory(Long userId) {
-        return creditScoreHistoryRepository.findByUserIdOrderByTimestampDesc(userId);
-    }
+    @Value("${credit.report.fetch-timeout-ms:10000}")
+    private long reportFetchTimeoutMs;
 
-    private int calculatePaymentHistoryScore() {
-        //HARD-CODED ELEMENTS
-        int onTimePayments = 100;
-        int latePayments = 0;
-        int missedPayments = 0;
-        int publicRecords = 0;
-        
-        int totalPayments = onTimePayments + latePayments + missedPayments;
-        //if (totalPayments == 0) return 0;
+    @Value("${credit.history.latest-lookback-days:400}")
+    private int latestLookbackDays;
 
-        double onTimePercentage = (double) onTimePayments / totalPayments;
-        int score = (int) (350 * onTimePercentage); // Base score based on percentage
+    public int calculateFICOScore(Long userId) {
+        long begin = creditMetrics.begin(Operation.SCORE);
+        if (currentScoreService.isEnabled()) {
+            // Compute-on-write: the score and its history row were stored when the data last changed
+            Optional<Integer> stored = currentScoreService.findScore(userId);
+            if (stored.isPresent()) {
+                creditMetrics.lap(Operation.SCORE, Phase.DB, begin);
+                return stored.get();
+            }
+        }
+        int score = creditScoreCache.<Integer>get(userId, CreditScoreCache.Endpoint.SCORE, this::loadScore);
 
-        // Adjust score based on severity and number of negative marks
-        score -= 50 * missedPayments;
-        score -= 25 * latePayments;
-        score -= 100 * publicRecords;
+        // Save history (buffered and batch-inserted by the write-behind writer). Only the hand-off is timed here;
+        // in WAIT_FOR_FLUSH mode that includes waiting for the batch to commit.
+        long start = System.nanoTime();
+        creditScoreHistoryWriter.record(userId, score, LocalDateTime.now());
+        creditMetrics.lap(Operation.SCORE, Phase.ENQUEUE, start);
+        creditMetrics.historyRowsWritten(Operation.SCORE, 1);
 
-        return Math.max(0, score); // Ensure score doesn't go below 0
+        return score;
     }
 
-    /*private int calculateAmountsOwedScore(double creditUtilization, double totalDebt) {
-        int score = 300;
+    // Conditional GET validators for score and tips; a single indexed lookup, nothing is loaded or scored
+    public Optional<CreditDataStamp> getCreditDataStamp(Long userId) {
+        return repository.findStampByUserId(userId);
+    }
 
-        // Penalize for high credit utilization
-        if (creditUtilization > 30) {
-            score -= (creditUtilization - 30) * 5; // 5 points lost for each percentage point over 30%
-        }
+    // Also covers the newest history row, which changes the report body
+    public Optional<CreditDataStamp> getCreditReportStamp(Long userId) {
+        return repository.findReportStampByUserId(userId, LocalDateTime.now().minusDays(latestLookbackDays));
+    }
 
-        // Penalize for high total debt
-        if (totalDebt > 50000) {
-            score -= (totalDebt - 50000) / 1000; // 1 point lost for every $1000 over $50,000
+    // The stored account type mask lets scoring read a scalar projection; rows not yet backfilled
+    // fall back to loading the accounts through the repository's entity graph
+    private Versioned<Integer> loadScore(Long userId) {
+        long start = System.nanoTime();
+        CreditProfile profile = repository.findProfileByUserId(userId)
+                .orElseThrow(() -> new RuntimeException("Credit data not found for user with ID: " + userId));
+        start = creditMetrics.lap(Operation.SCORE, Phase.DB, start);
+        if (profile.accountTypeMask() != null) {
+            int score = creditMetrics.score(CreditSnapshot.of(profile));
+            creditMetrics.lap(Operation.SCORE, Phase.COMPUTE, start);
+            return new Versioned<>(profile.version(), score);
         }
-
-        return Math.max(0, score);
-    }*/
-
-    private int calculateCreditHistoryLengthScore() {
-        //8 years average
-        int oldestAccountAge = 96;
-        return Math.min(150, oldestAccountAge); // Max 150 points for accounts over 12.5 years old
+        UserCreditData creditData = repository.findWithAccountsByUserId(userId)
+                .orElseThrow(() -> new RuntimeException("Credit data not found for user with ID: " + userId));
+        start = creditMetrics.lap(Operation.SCORE, Phase.DB, start);
+        creditMetrics.accountsLoaded(Operation.SCORE, accountCount(creditData));
+        int score = creditMetrics.score(CreditSnapshot.of(creditData));
+        creditMetrics.lap(Operation.SCORE, Phase.COMPUTE, start);
+        return new Versioned<>(creditData.getVersion(), score);
     }
 
-    private int calculateCreditMixScore(List<CreditAccount> creditAccounts) {
-        // This is a simplified version, you could expand on this
-        boolean hasCreditCards = false;
-        boolean hasLoans = false;
+    @Transactional(readOnly = true)
+    public List<CreditScoreHistory> getCreditScoreHistory(Long userId) {
+        long start = creditMetrics.begin(Operation.HISTORY);
+        List<CreditScoreHistory> history = creditScoreHistoryRepository.findHistory(userId, null, null);
+        creditMetrics.lap(Operation.HISTORY, Phase.DB, start);
+        creditMetrics.historyRead(Operation.HISTORY, history.size());
+        return history;
+    }
 
-        for (CreditAccount account : creditAccounts) {
-            if (account.getAccountType().equalsIgnoreCase("credit card")) {
-                hasCreditCards = true;
-            } else if (account.getAccountType().equalsIgnoreCase("loan")) {
-                hasLoans = true;
+    // Scores many users with one set-based load per chunk and a single batched history insert.
+    // Accounts are only loaded for users whose account type mask has not been backfilled.
+    public BatchScoreResponse calculateFICOScores(List<Long> userIds) {
+        Map<Long, Integer> scores = new LinkedHashMap<>();
+        Map<Long, String> errors = new LinkedHashMap<>();
+        List<CreditScoreHistory> historyRows = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        creditMetrics.begin(Operation.BATCH_SCORE);
+
+        List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(userIds));
+        for (List<Long> chunk : chunk(distinctIds)) {
+            long start = System.nanoTime();
+            Map<Long, CreditSnapshot> loaded = new HashMap<>();
+            List<Long> withoutMask = new ArrayList<>();
+            for (CreditProfile profile : repository.findProfilesByUserIdIn(chunk)) {
+                if (profile.accountTypeMask() != null) {
+                    loaded.put(profile.userId(), CreditSnapshot.of(profile));
+                } else {
+                    withoutMask.add(profile.userId());
+                }
+            }
+            if (!withoutMask.isEmpty()) {
+                for (UserCreditData creditData : repository.findAllWithAccountsByUserIdIn(withoutMask)) {
+                    creditMetrics.accountsLoaded(Operation.BATCH_SCORE, accountCount(creditData));
+                    loaded.put(creditData.getUserId(), CreditSnapshot.of(creditData));
+                }
+            }
+            start = creditMetrics.lap(Operation.BATCH_SCORE, Phase.DB, start);
+
+            for (Long userId : chunk) {
+                CreditSnapshot credit = loaded.get(userId);
+                if (credit == null) {
+                    errors.put(userId, "Credit data not found for user with ID: " + userId);
+                    continue;
+                }
+                try {
+                    int score = creditMetrics.score(credit);
+                    scores.put(userId, score);
+                    historyRows.add(new CreditScoreHistory(null, userId, score, now));
+                } catch (RuntimeException e) {
+                    errors.put(userId, e.getMessage());
+                }
             }
+            creditMetrics.lap(Operation.BATCH_SCORE, Phase.COMPUTE, start);
         }
 
-        return (hasCreditCards && hasLoans) ? 100 : 50; // 100 points for having both, 50 for one type
+        long start = System.nanoTime();
+        creditScoreHistoryRepository.batchInsert(historyRows);
+        creditMetrics.lap(Operation.BATCH_SCORE, Phase.DB, start);
+        creditMetrics.historyRowsWritten(Operation.BATCH_SCORE, historyRows.size());
+        return new BatchScoreResponse(scores, errors);
     }
 
-    private int calculateNewCreditScore() {
-        int score = 100;
-
-        //HARD-CODED ELEMENTS
-        int recentInquiries = 1;
-        int newAccounts = 2;
-
-        // Penalize for recent inquiries
-        score -= 5 * recentInquiries;
-
-        // Penalize for new accounts
-        score -= 10 * newAccounts;
+    // Keyset-paginated history: constant cost per page no matter how deep the client has paged
+    @Transactional(readOnly = true)
+    public HistoryPage getCreditScoreHistoryPage(Long userId, HistoryWindow window, String cursor) {
+        long start = creditMetrics.begin(Operation.HISTORY);
+        int pageSize = window.limit();
+        Pageable page = PageRequest.of(0, pageSize + 1); // one extra row tells us whether another page exists
+        List<HistoryEntry> rows;
+        if (cursor == null) {
+            rows = creditScoreHistoryRepository.findHistoryPage(userId, window.from(), window.to(), page);
+        } else {
+            HistoryCursor after = HistoryCursor.decode(cursor);
+            rows = creditScoreHistoryRepository.findHistoryPageAfter(userId, window.from(), window.to(),
+                    after.timestamp(), after.id(), page);
+        }
+        creditMetrics.lap(Operation.HISTORY, Phase.DB, start);
+        creditMetrics.historyRead(Operation.HISTORY, Math.min(rows.size(), pageSize));
 
-        return Math.max(0, score);
+        if (rows.size() <= pageSize) {
+            return new HistoryPage(rows, null);
+        }
+        List<HistoryEntry> items = rows.subList(0, pageSize);
+        return new HistoryPage(List.copyOf(items), HistoryCursor.after(items.get(pageSize - 1)).encode());
     }
 
-    @Transactional
-    public String generateCreditReport(Long userId) {
-        Optional<UserCreditData> optionalCreditData = repository.findByUserId(userId);
-        if (!optionalCreditData.isPresent()) {
-            throw new RuntimeException("User Credit Data not found for userId: " + userId);
+    @Transactional(readOnly = true)
+    public Map<Long, List<CreditScoreHistory>> getCreditScoreHistories(List<Long> userIds) {
+        Map<Long, List<CreditScoreHistory>> histories = new LinkedHashMap<>();
+        List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(userIds));
+        for (Long userId : distinctIds) {
+            histories.put(userId, new ArrayList<>());
         }
+        for (List<Long> chunk : chunk(distinctIds)) {
+            for (CreditScoreHistory history : creditScoreHistoryRepository.findHistories(chunk, null, null)) {
+                histories.get(history.getUserId()).add(history);
+            }
+        }
+        return histories;
+    }
 
-        UserCreditData creditData = optionalCreditData.get();
-        List<CreditScoreHistory> creditScoreHistory = getCreditScoreHistory(userId);
-
-        logger.info("Credit score history count for userId " + userId + ": " + creditScoreHistory.size());
+    private static List<List<Long>> chunk(List<Long> ids) {
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += QUERY_CHUNK_SIZE) {
+            chunks.add(ids.subList(i, Math.min(ids.size(), i + QUERY_CHUNK_SIZE)));
+        }
+        return chunks;
+    }
 
-        StringBuilder report = new StringBuilder();
-        report.append("Credit Report for User ID: ").append(userId).append("\n\n");
+    private static int accountCount(UserCreditData creditData) {
+        return creditData.getCreditAccounts() != null ? creditData.getCreditAccounts().size() : 0;
+    }
 
-        report.append("On-Time Payments: ").append(creditData.getOnTimePayments()).append("\n");
-        report.append("Late Payments: ").append(creditData.getLatePayments()).append("\n");
-        report.append("Missed Payments: ").append(creditData.getMissedPayments()).append("\n");
-        report.append("Public Records: ").append(creditData.getPublicRecords()).append("\n");
-        report.append("Credit Utilization: ").append(creditData.getCreditUtilization()).append("%\n");
-        report.append("Total Debt: $").append(creditData.getTotalDebt()).append("\n");
-        report.append("Oldest Account Age: ").append(creditData.getOldestAccountAge()).append(" months\n");
-        report.append("Recent Inquiries: ").append(creditData.getRecentInquiries()).append("\n");
-        report.append("New Accounts: ").append(creditData.getNewAccounts()).append("\n\n");
+    // Loads the report header (credit data and accounts) up front so a missing user fails before any output is streamed
+    @Transactional(readOnly = true)
+    public UserCreditData getCreditReportData(Long userId) {
+        long start = creditMetrics.begin(Operation.REPORT);
+        return reportDataLoaded(loadCreditReportData(userId), start);
+    }
 
-        report.append("Credit Accounts:\n");
-        for (CreditAccount account : creditData.getCreditAccounts()) {
-            report.append("  - Account Type: ").append(account.getAccountType()).append("\n");
-            report.append("    Balance: $").append(account.getBalance()).append("\n");
-            report.append("    Credit Limit: $").append(account.getCreditLimit()).append("\n");
+    // Validators and header of a /report response; empty when notModified accepts the stamp. Sequentially
+    // the credit data is only read once the stamp has been checked. With credit.report.concurrent-fetch
+    // both reads run in parallel on separate connections and the credit data is read even for a 304.
+    // Both modes read the same rows in the same read-only transactions and return the same result.
+    public Optional<UserCreditData> getCreditReportData(Long userId, Predicate<Optional<CreditDataStamp>> notModified) {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        if (!concurrentReportFetch) {
+            if (notModified.test(getCreditReportStamp(userId))) {
+                return Optional.empty();
+            }
+            long start = creditMetrics.begin(Operation.REPORT);
+            return Optional.of(readOnly.execute(status -> reportDataLoaded(loadCreditReportData(userId), start)));
         }
 
-        report.append("\nCredit Score History:\n");
-        for (CreditScoreHistory history : creditScoreHistory) {
-            report.append("  - Score: ").append(history.getScore()).append(", Date: ").append(history.getTimestamp()).append("\n");
+        long start = System.nanoTime();
+        Optional<CreditDataStamp> stamp;
+        UserCreditData creditData;
+        try (FetchScope scope = new FetchScope(reportFetchExecutor)) {
+            Future<Optional<CreditDataStamp>> stampRead = scope.fork(() -> getCreditReportStamp(userId));
+            Future<UserCreditData> dataRead = scope.fork(() -> readOnly.execute(status -> loadCreditReportData(userId)));
+            scope.join(reportFetchTimeoutMs, TimeUnit.MILLISECONDS);
+            stamp = FetchScope.resultOf(stampRead);
+            creditData = FetchScope.resultOf(dataRead);
         }
-
-        // Fetch and add latest credit score to the report
-        Optional<CreditScoreHistory> latestScore = creditScoreHistoryRepository.findTopByUserIdOrderByTimestampDesc(userId);
-        if (latestScore.isPresent()) {
-            CreditScoreHistory latest = latestScore.get();
-            logger.info("Latest credit score for userId " + userId + ": " + latest.getScore());
-            report.append("\nLatest Credit Score:\n");
-            report.append("  - Score: ").append(latest.getScore()).append(", Date: ").append(latest.getTimestamp()).append("\n");
-        } else {
-            report.append("\nNo Credit Score History Available.\n");
+        if (notModified.test(stamp)) {
+            return Optional.empty();
         }
+        creditMetrics.begin(Operation.REPORT);
+        return Optional.of(reportDataLoaded(creditData, start));
+    }
+
+    private UserCreditData reportDataLoaded(UserCreditData creditData, long start) {
+        creditMetrics.lap(Operation.REPORT, Phase.DB, start);
+        creditMetrics.accountsLoaded(Operation.REPORT, accountCount(creditData));
+        return creditData;
+    }
 
-        return report.toString();
+    private UserCreditData loadCreditReportData(Long userId) {
+        return repository.findWithAccountsByUserId(userId)
+                .orElseThrow(() -> new RuntimeException("User Credit Data not found for userId: " + userId));
+    }
+
+    // Streams the report body; history rows are read through a database cursor and written as they arrive
+    @Transactional(readOnly = true)
+    public void writeCreditReport(UserCreditData creditData, HistoryWindow window, CreditReportWriter.Format format, Writer out) {
+        Long userId = creditData.getUserId();
+        long start = System.nanoTime();
+        try (Stream<HistoryEntry> history = creditScoreHistoryRepository
+                .streamHistory(userId, window.from(), window.to())
+                .limit(window.limitOrMax())) {
+            TimedIterator rows = new TimedIterator(history.iterator());
+            long count = CreditReportWriter.write(creditData, rows, format, out);
+            // Cursor reads and writing are interleaved; whatever was not spent fetching rows was spent rendering
+            creditMetrics.record(Operation.REPORT, Phase.DB, rows.fetchNanos);
+            creditMetrics.record(Operation.REPORT, Phase.SERIALIZATION, System.nanoTime() - start - rows.fetchNanos);
+            creditMetrics.historyRead(Operation.REPORT, count);
+            logger.info("Credit score history count for userId " + userId + ": " + count);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write credit report for userId: " + userId, e);
+        }
     }
 
     // Add the new method for credit improvement tips
+    @Transactional(readOnly = true)
     public List<String> getCreditImprovementTips(Long userId) {
-        Optional<UserCreditData> optionalCreditData = repository.findByUserId(userId);
-        if (!optionalCreditData.isPresent()) {
-            throw new RuntimeException("User Credit Data not found for userId: " + userId);
-        }
+        creditMetrics.begin(Operation.TIPS);
+        return creditScoreCache.get(userId, CreditScoreCache.Endpoint.TIPS, this::loadTips);
+    }
 
-        UserCreditData creditData = optionalCreditData.get();
-        List<String> tips = new ArrayList<>();
+    // Tips only need scalar fields, so they are read through a DTO projection without accounts
+    private Versioned<List<String>> loadTips(Long userId) {
+        long start = System.nanoTime();
+        CreditProfile creditData = repository.findProfileByUserId(userId)
+                .orElseThrow(() -> new RuntimeException("User Credit Data not found for userId: " + userId));
+        start = creditMetrics.lap(Operation.TIPS, Phase.DB, start);
+        List<String> tips = creditImprovementTips.tipsFor(creditData);
+        creditMetrics.lap(Operation.TIPS, Phase.COMPUTE, start);
+        return new Versioned<>(creditData.version(), tips);
+    }
 
-        // Example tips based on credit data
-        if (creditData.getCreditUtilization() > 30) {
-            tips.add("Keep your credit utilization below 30% to improve your score.");
+    // One scalar projection query per chunk; each chunk is evaluated against the rule table in a single pass
+    @Transactional(readOnly = true)
+    public BatchTipsResponse getCreditImprovementTips(List<Long> userIds) {
+        Map<Long, List<String>> tips = new LinkedHashMap<>();
+        Map<Long, String> errors = new LinkedHashMap<>();
+        creditMetrics.begin(Operation.BATCH_TIPS);
+
+        List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(userIds));
+        for (List<Long> chunk : chunk(distinctIds)) {
+            long start = System.nanoTime();
+            List<CreditProfile> profiles = repository.findProfilesByUserIdIn(chunk);
+            start = creditMetrics.lap(Operation.BATCH_TIPS, Phase.DB, start);
+            Map<Long, List<String>> evaluated = creditImprovementTips.tipsFor(profiles);
+            for (Long userId : chunk) {
+                List<String> userTips = evaluated.get(userId);
+                if (userTips != null) {
+                    tips.put(userId, userTips);
+                } else {
+                    errors.put(userId, "User Credit Data not found for userId: " + userId);
+                }
+            }
+            creditMetrics.lap(Operation.BATCH_TIPS, Phase.COMPUTE, start);
         }
+        return new BatchTipsResponse(tips, errors);
+    }
 
-        if (creditData.getMissedPayments() > 0) {
-            tips.add("Make all your payments on time to avoid negative marks on your credit report.");
-        }
+    // Changes whenever the tip rules do, so cached tips responses are revalidated after a reload
+    public String getTipRulesFingerprint() {
+        return creditImprovementTips.getTable().getFingerprint();
+    }
 
-        if (creditData.getTotalDebt() > 50000) {
-            tips.add("Consider paying down your debt to reduce your total debt and improve your score.");
-        }
+    // Accumulates the time spent pulling rows from the database cursor
+    private static final class TimedIterator implements Iterator<HistoryEntry> {
+        private final Iterator<HistoryEntry> delegate;
+        private long fetchNanos;
 
-        if (creditData.getRecentInquiries() > 2) {
-            tips.add("Limit the number of new credit inquiries to improve your score.");
+        private TimedIterator(Iterator<HistoryEntry> delegate) {
+            this.delegate = delegate;
         }
 
-        if (creditData.getNewAccounts() > 2) {
-            tips.add("Avoid opening too many new accounts in a short period to improve your score.");
+        @Override
+        public boolean hasNext() {
+            long start = System.nanoTime();
+            boolean hasNext = delegate.hasNext();
+            fetchNanos += System.nanoTime() - start;
+            return hasNext;
         }
 
-        if (tips.isEmpty()) {
-            tips.add("Your credit profile looks good! Keep up the good work.");
+        @Override
+        public HistoryEntry next() {
+            long start = System.nanoTime();
+            HistoryEntry next = delegate.next();
+            fetchNanos += System.nanoTime() - start;
+            return next;
         }
-
-        return tips;
     }
 }
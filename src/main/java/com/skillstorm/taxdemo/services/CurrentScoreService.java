@@ -0,0 +1,189 @@
+package com.skillstorm.taxdemo.services;
+
+import com.skillstorm.taxdemo.dtos.ScoreConsistencyReport;
+import com.skillstorm.taxdemo.dtos.ScoreConsistencyReport.Mismatch;
+import com.skillstorm.taxdemo.models.CreditScoreHistory;
+import com.skillstorm.taxdemo.models.CurrentScore;
+import com.skillstorm.taxdemo.models.UserCreditData;
+import com.skillstorm.taxdemo.repositories.CreditScoreHistoryRepository;
+import com.skillstorm.taxdemo.repositories.CurrentScoreRepository;
+import com.skillstorm.taxdemo.repositories.UserCreditDataRepository;
+import com.skillstorm.taxdemo.scoring.CreditSnapshot;
+import com.skillstorm.taxdemo.scoring.ScoreBreakdown;
+import com.skillstorm.taxdemo.scoring.ScoringEngine;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.logging.Logger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Compute-on-write scores (credit.score.materialized). Every write of a user's credit data scores the
+// user once, in the writer's transaction, and stores the score and its breakdown in current_score with a
+// history row. GET /score then reads the stored score instead of computing one. Users written before the
+// mode was enabled are filled in by backfill(), and check() recomputes stored scores to catch drift.
+@Service
+public class CurrentScoreService {
+
+    private static final Logger logger = Logger.getLogger(CurrentScoreService.class.getName());
+
+    @Autowired
+    private CurrentScoreRepository currentScoreRepository;
+
+    @Autowired
+    private UserCreditDataRepository userCreditDataRepository;
+
+    @Autowired
+    private CreditScoreHistoryRepository creditScoreHistoryRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${credit.score.materialized:false}")
+    private boolean enabled;
+
+    @Value("${credit.score.backfill-chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${credit.score.max-reported-mismatches:20}")
+    private int maxReportedMismatches;
+
+    private volatile ScoreConsistencyReport lastCheck;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Result of the most recent check(), if one ran since startup; reading it costs nothing
+    public Optional<ScoreConsistencyReport> lastCheck() {
+        return Optional.ofNullable(lastCheck);
+    }
+
+    public Optional<Integer> findScore(Long userId) {
+        return currentScoreRepository.findScoreByUserId(userId);
+    }
+
+    // Called by the writers inside their transaction, after the credit data has been changed
+    public void onCreditDataWritten(Collection<UserCreditData> written) {
+        if (!enabled || written.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, ScoreBreakdown> breakdowns = score(written);
+        store(breakdowns, now);
+
+        List<CreditScoreHistory> history = new ArrayList<>(breakdowns.size());
+        breakdowns.forEach((userId, breakdown) -> history.add(new CreditScoreHistory(null, userId, breakdown.total(), now)));
+        creditScoreHistoryRepository.batchInsert(history);
+    }
+
+    // Upserts stored scores: the existing rows come back in one query; updates and inserts are batched by Hibernate
+    public void store(Map<Long, ScoreBreakdown> breakdowns, LocalDateTime computedAt) {
+        Map<Long, CurrentScore> existing = new HashMap<>();
+        for (CurrentScore current : currentScoreRepository.findAllById(breakdowns.keySet())) {
+            existing.put(current.getUserId(), current);
+        }
+        List<CurrentScore> inserted = new ArrayList<>();
+        breakdowns.forEach((userId, breakdown) -> {
+            CurrentScore current = existing.get(userId);
+            if (current == null) {
+                current = new CurrentScore(userId);
+                inserted.add(current);
+            }
+            current.apply(breakdown, computedAt);
+        });
+        currentScoreRepository.saveAll(inserted);
+    }
+
+    // Materializes scores for users that have none, a chunk per transaction. Returns the number of users scored.
+    public long backfill() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        long scored = 0;
+        long afterUserId = Long.MIN_VALUE;
+        while (true) {
+            long after = afterUserId;
+            List<Long> userIds = currentScoreRepository.findUnscoredUserIds(after, PageRequest.of(0, chunkSize));
+            if (userIds.isEmpty()) {
+                break;
+            }
+            afterUserId = userIds.get(userIds.size() - 1);
+            Integer count = tx.execute(status -> {
+                Map<Long, ScoreBreakdown> breakdowns = score(userCreditDataRepository.findAllWithAccountsByUserIdIn(userIds));
+                store(breakdowns, LocalDateTime.now());
+                return breakdowns.size();
+            });
+            scored += count;
+        }
+        logger.info("Backfilled materialized scores for " + scored + " users");
+        return scored;
+    }
+
+    // Recomputes every stored score from the credit data and counts the ones that differ. With repair,
+    // differing rows are overwritten with the recomputed breakdown.
+    public ScoreConsistencyReport check(boolean repair) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        long[] totals = new long[3]; // checked, mismatched, repaired
+        List<Mismatch> mismatches = new ArrayList<>();
+        long afterUserId = Long.MIN_VALUE;
+        while (true) {
+            long after = afterUserId;
+            Long last = tx.execute(status -> {
+                List<CurrentScore> stored = currentScoreRepository.findPageAfter(after, PageRequest.of(0, chunkSize));
+                if (stored.isEmpty()) {
+                    return null;
+                }
+                List<Long> userIds = stored.stream().map(CurrentScore::getUserId).toList();
+                Map<Long, ScoreBreakdown> recomputed = score(userCreditDataRepository.findAllWithAccountsByUserIdIn(userIds));
+                Map<Long, ScoreBreakdown> repairs = new LinkedHashMap<>();
+                for (CurrentScore current : stored) {
+                    ScoreBreakdown expected = recomputed.get(current.getUserId());
+                    totals[0]++;
+                    if (expected == null || expected.equals(current.toBreakdown())) {
+                        continue;
+                    }
+                    totals[1]++;
+                    if (mismatches.size() < maxReportedMismatches) {
+                        mismatches.add(new Mismatch(current.getUserId(), current.getScore(), expected.total()));
+                    }
+                    repairs.put(current.getUserId(), expected);
+                }
+                if (repair && !repairs.isEmpty()) {
+                    store(repairs, LocalDateTime.now());
+                    totals[2] += repairs.size();
+                }
+                return userIds.get(userIds.size() - 1);
+            });
+            if (last == null) {
+                break;
+            }
+            afterUserId = last;
+        }
+        long missing = currentScoreRepository.countUnscoredUsers();
+        if (totals[1] > 0 || missing > 0) {
+            logger.warning("Materialized score check: " + totals[1] + " of " + totals[0] + " differ, " + missing + " users missing");
+        }
+        ScoreConsistencyReport report = new ScoreConsistencyReport(totals[0], totals[1], missing, totals[2], mismatches,
+                LocalDateTime.now());
+        lastCheck = report;
+        return report;
+    }
+
+    private Map<Long, ScoreBreakdown> score(Collection<UserCreditData> users) {
+        Map<Long, ScoreBreakdown> breakdowns = new LinkedHashMap<>();
+        for (UserCreditData creditData : users) {
+            breakdowns.put(creditData.getUserId(), ScoringEngine.breakdown(CreditSnapshot.of(creditData)));
+        }
+        return breakdowns;
+    }
+}
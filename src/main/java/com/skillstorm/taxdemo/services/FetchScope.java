@@ -0,0 +1,102 @@
+package com.skillstorm.taxdemo.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.core.task.AsyncTaskExecutor;
+
+// Structured fork/join for a handful of independent reads, modelled on StructuredTaskScope.ShutdownOnFailure
+// (still a preview API in Java 21): subtasks never outlive the scope, the first failure cancels the
+// siblings, and join() rethrows that failure. Run on a virtual-thread executor each fork costs next to nothing.
+final class FetchScope implements AutoCloseable {
+
+    private final AsyncTaskExecutor executor;
+    private final List<Future<?>> forks = new ArrayList<>();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    FetchScope(AsyncTaskExecutor executor) {
+        this.executor = executor;
+    }
+
+    <T> Future<T> fork(Callable<T> task) {
+        Future<T> future = executor.submit(() -> {
+            try {
+                return task.call();
+            } catch (Throwable t) {
+                if (failure.compareAndSet(null, t)) {
+                    cancelAll();
+                }
+                throw t;
+            }
+        });
+        synchronized (forks) {
+            forks.add(future);
+        }
+        return future;
+    }
+
+    // Waits for every subtask, or until the first one fails, and rethrows that failure
+    void join(long timeout, TimeUnit unit) {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        List<Future<?>> pending;
+        synchronized (forks) {
+            pending = new ArrayList<>(forks);
+        }
+        try {
+            for (Future<?> future : pending) {
+                future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            }
+        } catch (ExecutionException | CancellationException e) {
+            throw propagate(failure.get() != null ? failure.get() : e);
+        } catch (TimeoutException e) {
+            cancelAll();
+            throw new RuntimeException("Timed out waiting for concurrent fetches", e);
+        } catch (InterruptedException e) {
+            cancelAll();
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for concurrent fetches", e);
+        }
+    }
+
+    static <T> T resultOf(Future<T> future) {
+        try {
+            return future.get(0, TimeUnit.NANOSECONDS);
+        } catch (Exception e) {
+            throw new IllegalStateException("Subtask has not completed successfully", e);
+        }
+    }
+
+    private void cancelAll() {
+        synchronized (forks) {
+            for (Future<?> future : forks) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    private static RuntimeException propagate(Throwable t) {
+        if (t instanceof ExecutionException && t.getCause() != null) {
+            t = t.getCause();
+        }
+        if (t instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        if (t instanceof Error error) {
+            throw error;
+        }
+        return new RuntimeException(t);
+    }
+
+    // Leaving the scope cancels anything still running, so no subtask outlives the request
+    @Override
+    public void close() {
+        cancelAll();
+    }
+}
@@ -0,0 +1,282 @@
+package com.skillstorm.taxdemo.services;
+
+import com.skillstorm.taxdemo.models.HistoryResolution;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.logging.Logger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Tiered retention for credit_score_history. Raw rows older than raw-days are folded into one
+// DAILY row per user and day, and daily rows older than daily-days into one MONTHLY row per user
+// and month. Monthly rows are dropped after monthly-days, or kept forever when that is 0. Only whole
+// days and months are compacted, and each batch of users is read, summarized, inserted and deleted
+// in its own short transaction, so locks are never held for long. Only the rows that were read are
+// deleted, and a row arriving after its period was compacted is merged into the period's summary row.
+// Readers need no changes: a summary row carries the period's last score and timestamp, so the series
+// stays in order. A pass runs under the history-compaction job lease, so with several instances only one
+// compacts at a time; the lease is renewed before every batch.
+@Service
+public class HistoryCompactor {
+
+    private static final Logger logger = Logger.getLogger(HistoryCompactor.class.getName());
+
+    private static final String INSERT_SQL = "insert into credit_score_history "
+            + "(user_id, score, timestamp, resolution, min_score, max_score) values (?, ?, ?, ?, ?, ?)";
+
+    // The old timestamp lets a partitioned table find the row's partition
+    private static final String UPDATE_SQL = "update credit_score_history set score = ?, timestamp = ?, min_score = ?, max_score = ? "
+            + "where id = ? and timestamp = ?";
+
+    private static final int DELETE_CHUNK_SIZE = 1000;
+
+    private static final String LEASE = "history-compaction";
+
+    private record Tier(String predicate, HistoryResolution target, Function<LocalDateTime, LocalDate> bucket) {
+    }
+
+    private record Period(long userId, LocalDate bucket) {
+    }
+
+    private record Summary(long userId, LocalDate bucket, int last, int min, int max, LocalDateTime timestamp) {
+
+        Period period() {
+            return new Period(userId, bucket);
+        }
+
+        // later is the newer row of the same user and period
+        Summary merge(Summary later) {
+            return new Summary(userId, bucket, later.last(), Math.min(min, later.min()), Math.max(max, later.max()), later.timestamp());
+        }
+    }
+
+    private static final Tier DAILY = new Tier("(resolution is null or resolution = 'RAW')", HistoryResolution.DAILY,
+            LocalDateTime::toLocalDate);
+    private static final Tier MONTHLY = new Tier("resolution = 'DAILY'", HistoryResolution.MONTHLY,
+            timestamp -> timestamp.toLocalDate().withDayOfMonth(1));
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JobLeases jobLeases;
+
+    @Value("${credit.history.retention.enabled:true}")
+    private boolean enabled;
+
+    @Value("${credit.history.retention.raw-days:30}")
+    private int rawDays;
+
+    @Value("${credit.history.retention.daily-days:365}")
+    private int dailyDays;
+
+    @Value("${credit.history.retention.monthly-days:0}")
+    private int monthlyDays;
+
+    @Value("${credit.history.retention.batch-users:200}")
+    private int batchUsers;
+
+    // Only has to outlast one batch
+    @Value("${credit.history.retention.lease-ms:300000}")
+    private long leaseMs;
+
+    @Scheduled(initialDelayString = "${credit.history.retention.initial-delay-ms:60000}",
+            fixedDelayString = "${credit.history.retention.interval-ms:3600000}")
+    public void scheduledCompaction() {
+        if (enabled) {
+            compact(LocalDateTime.now());
+        }
+    }
+
+    // Returns the number of rows removed (summarized or expired); 0 when another instance is compacting
+    public long compact(LocalDateTime now) {
+        if (!holdsLease()) {
+            logger.fine("Skipping history compaction; another instance is running it");
+            return 0;
+        }
+        try {
+            LocalDate today = now.toLocalDate();
+            long removed = compactTier(DAILY, today.minusDays(rawDays).atStartOfDay());
+            removed += compactTier(MONTHLY, today.minusDays(dailyDays).withDayOfMonth(1).atStartOfDay());
+            if (monthlyDays > 0) {
+                removed += expire(today.minusDays(monthlyDays).with(TemporalAdjusters.firstDayOfMonth()).atStartOfDay());
+            }
+            if (removed > 0) {
+                logger.info("Compacted credit score history: " + removed + " rows summarized or expired");
+            }
+            return removed;
+        } finally {
+            jobLeases.release(LEASE);
+        }
+    }
+
+    // Claims or renews the lease; a pass that lost it stops before its next batch
+    private boolean holdsLease() {
+        return jobLeases.tryAcquire(LEASE, Duration.ofMillis(leaseMs));
+    }
+
+    private long compactTier(Tier tier, LocalDateTime cutoff) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        Counter written = rowCounter(tier.target().name().toLowerCase(), "written");
+        Counter merged = rowCounter(tier.target().name().toLowerCase(), "merged");
+        Counter summarized = rowCounter(tier.target().name().toLowerCase(), "summarized");
+        long removed = 0;
+        long lastUserId = Long.MIN_VALUE;
+        while (true) {
+            List<Long> userIds = nextUsers(tier.predicate(), cutoff, lastUserId);
+            if (userIds.isEmpty() || !holdsLease()) {
+                return removed;
+            }
+            lastUserId = userIds.get(userIds.size() - 1);
+
+            long[] counts = tx.execute(status -> {
+                Map<String, Object> params = Map.of("userIds", userIds, "cutoff", Timestamp.valueOf(cutoff));
+                List<Summary> summaries = new ArrayList<>();
+                List<Long> ids = new ArrayList<>();
+                namedParameterJdbcTemplate.query("select id, user_id, score, min_score, max_score, timestamp from credit_score_history "
+                        + "where user_id in (:userIds) and " + tier.predicate() + " and timestamp < :cutoff "
+                        + "order by user_id, timestamp, id", params, rs -> {
+                            ids.add(rs.getLong("id"));
+                            Summary row = summaryOf(rs, tier);
+                            Summary current = summaries.isEmpty() ? null : summaries.get(summaries.size() - 1);
+                            if (current != null && current.userId() == row.userId() && current.bucket().equals(row.bucket())) {
+                                // Rows arrive in time order, so the latest one supplies the period's score
+                                summaries.set(summaries.size() - 1, current.merge(row));
+                            } else {
+                                summaries.add(row);
+                            }
+                        });
+
+                // Only the rows read above: a row committed since then is left for the next run
+                int deleted = 0;
+                for (int i = 0; i < ids.size(); i += DELETE_CHUNK_SIZE) {
+                    deleted += namedParameterJdbcTemplate.update("delete from credit_score_history "
+                            + "where user_id in (:userIds) and timestamp < :cutoff and id in (:ids)",
+                            Map.of("userIds", userIds, "cutoff", Timestamp.valueOf(cutoff),
+                                    "ids", ids.subList(i, Math.min(ids.size(), i + DELETE_CHUNK_SIZE))));
+                }
+
+                // A row that arrives after its period was compacted is merged into the existing summary row
+                Map<Period, Long> existingIds = new HashMap<>();
+                Map<Period, Summary> existing = existingSummaries(tier, userIds, summaries, cutoff, existingIds);
+                List<Summary> inserts = new ArrayList<>();
+                List<Object[]> updates = new ArrayList<>();
+                for (Summary summary : summaries) {
+                    Summary previous = existing.get(summary.period());
+                    if (previous == null) {
+                        inserts.add(summary);
+                        continue;
+                    }
+                    Summary combined = previous.timestamp().isAfter(summary.timestamp()) ? summary.merge(previous) : previous.merge(summary);
+                    updates.add(new Object[] { combined.last(), Timestamp.valueOf(combined.timestamp()), combined.min(), combined.max(),
+                            existingIds.get(summary.period()), Timestamp.valueOf(previous.timestamp()) });
+                }
+                jdbcTemplate.batchUpdate(INSERT_SQL, inserts, inserts.size(), (ps, summary) -> {
+                    ps.setLong(1, summary.userId());
+                    ps.setInt(2, summary.last());
+                    ps.setTimestamp(3, Timestamp.valueOf(summary.timestamp()));
+                    ps.setString(4, tier.target().name());
+                    ps.setInt(5, summary.min());
+                    ps.setInt(6, summary.max());
+                });
+                jdbcTemplate.batchUpdate(UPDATE_SQL, updates);
+                return new long[] { deleted, inserts.size(), updates.size() };
+            });
+            summarized.increment(counts[0]);
+            written.increment(counts[1]);
+            merged.increment(counts[2]);
+            removed += counts[0];
+        }
+    }
+
+    private static Summary summaryOf(ResultSet rs, Tier tier) throws SQLException {
+        int score = rs.getInt("score");
+        int min = rs.getObject("min_score") != null ? rs.getInt("min_score") : score;
+        int max = rs.getObject("max_score") != null ? rs.getInt("max_score") : score;
+        LocalDateTime timestamp = rs.getTimestamp("timestamp").toLocalDateTime();
+        return new Summary(rs.getLong("user_id"), tier.bucket().apply(timestamp), score, min, max, timestamp);
+    }
+
+    // Summary rows of the tier's target resolution from the first summarized period on; their ids go into ids
+    private Map<Period, Summary> existingSummaries(Tier tier, List<Long> userIds, List<Summary> summaries, LocalDateTime cutoff,
+            Map<Period, Long> ids) {
+        Map<Period, Summary> existing = new HashMap<>();
+        if (summaries.isEmpty()) {
+            return existing;
+        }
+        LocalDate from = summaries.stream().map(Summary::bucket).min(LocalDate::compareTo).get();
+        namedParameterJdbcTemplate.query("select id, user_id, score, min_score, max_score, timestamp from credit_score_history "
+                + "where user_id in (:userIds) and resolution = :resolution and timestamp >= :from and timestamp < :cutoff",
+                Map.of("userIds", userIds, "resolution", tier.target().name(),
+                        "from", Timestamp.valueOf(from.atStartOfDay()), "cutoff", Timestamp.valueOf(cutoff)),
+                rs -> {
+                    Summary summary = summaryOf(rs, tier);
+                    existing.put(summary.period(), summary);
+                    ids.put(summary.period(), rs.getLong("id"));
+                });
+        return existing;
+    }
+
+    private long expire(LocalDateTime cutoff) {
+        Counter expired = rowCounter("monthly", "expired");
+        long removed = 0;
+        long lastUserId = Long.MIN_VALUE;
+        while (true) {
+            List<Long> userIds = nextUsers("resolution = 'MONTHLY'", cutoff, lastUserId);
+            if (userIds.isEmpty() || !holdsLease()) {
+                return removed;
+            }
+            lastUserId = userIds.get(userIds.size() - 1);
+            int deleted = namedParameterJdbcTemplate.update("delete from credit_score_history where user_id in (:userIds) "
+                    + "and resolution = 'MONTHLY' and timestamp < :cutoff",
+                    Map.of("userIds", userIds, "cutoff", Timestamp.valueOf(cutoff)));
+            expired.increment(deleted);
+            removed += deleted;
+        }
+    }
+
+    // Next batch of users, in id order, that still have rows of the tier's source resolution before the cutoff
+    private List<Long> nextUsers(String predicate, LocalDateTime cutoff, long afterUserId) {
+        return jdbcTemplate.queryForList("select distinct user_id from credit_score_history where " + predicate
+                + " and timestamp < ? and user_id > ? order by user_id limit ?", Long.class,
+                Timestamp.valueOf(cutoff), afterUserId, batchUsers);
+    }
+
+    private Counter rowCounter(String tier, String action) {
+        return Counter.builder("credit.history.retention.rows")
+                .description("Credit score history rows handled by the retention compactor")
+                .tag("tier", tier)
+                .tag("action", action)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,191 @@
+package com.skillstorm.taxdemo.services;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+
+import java.sql.DatabaseMetaData;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Keeps the month partitions of credit_score_history in step with the calendar when
+// credit.history.partitioning.enabled is set. On PostgreSQL the table is created partitioned by
+// db/partitioned-history.sql. This class creates the partitions for the coming months ahead of time.
+// Rows for a month that had no partition yet sit in the default partition; they are moved into the
+// new partition in the same transaction that attaches it. Once a month falls out of retention-months,
+// its partition is detached and dropped, which is far cheaper than deleting its rows, and any of its
+// rows left in the default partition are deleted. Databases without declarative partitioning, such
+// as in-memory H2, keep the flat table; expired months are deleted there one month per statement instead.
+@Component
+public class HistoryPartitionManager {
+
+    private static final Logger logger = Logger.getLogger(HistoryPartitionManager.class.getName());
+
+    private static final String TABLE = "credit_score_history";
+    private static final String DEFAULT_PARTITION = TABLE + "_default";
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final Pattern PARTITION_NAME = Pattern.compile(TABLE + "_p(\\d{6})");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Only injected so the schema exists before partitions are created
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Value("${credit.history.partitioning.enabled:false}")
+    private boolean enabled;
+
+    @Value("${credit.history.partitioning.premake-months:3}")
+    private int premakeMonths;
+
+    // 0 keeps every month
+    @Value("${credit.history.partitioning.retention-months:0}")
+    private int retentionMonths;
+
+    private boolean declarative;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        declarative = isPostgres();
+        if (!declarative) {
+            logger.info("Database has no declarative partitioning; keeping " + TABLE + " flat and expiring months by delete");
+        }
+        maintain(LocalDate.now());
+    }
+
+    @Scheduled(cron = "${credit.history.partitioning.cron:0 15 0 * * *}")
+    public void scheduledMaintenance() {
+        if (enabled) {
+            maintain(LocalDate.now());
+        }
+    }
+
+    public synchronized void maintain(LocalDate today) {
+        YearMonth current = YearMonth.from(today);
+        if (declarative) {
+            for (int i = 0; i <= premakeMonths; i++) {
+                createPartition(current.plusMonths(i));
+            }
+        }
+        if (retentionMonths > 0) {
+            YearMonth oldestKept = current.minusMonths(retentionMonths);
+            if (declarative) {
+                dropPartitionsBefore(oldestKept);
+            } else {
+                deleteMonthsBefore(TABLE, oldestKept);
+            }
+        }
+    }
+
+    // Month partitions currently attached, oldest first; empty when the table is not partitioned
+    public List<YearMonth> partitions() {
+        if (!declarative) {
+            return List.of();
+        }
+        return jdbcTemplate.queryForList("select c.relname from pg_inherits i "
+                + "join pg_class c on c.oid = i.inhrelid join pg_class p on p.oid = i.inhparent "
+                + "where p.relname = ?", String.class, TABLE).stream()
+                .map(PARTITION_NAME::matcher)
+                .filter(Matcher::matches)
+                .map(m -> YearMonth.parse(m.group(1), SUFFIX))
+                .sorted()
+                .toList();
+    }
+
+    // PostgreSQL refuses to create a partition while the default partition holds rows in its range, so the
+    // partition is built detached, the month's rows are moved into it, and it is attached last. All of it is
+    // one transaction: readers see the rows either in the default partition or in the new one.
+    private void createPartition(YearMonth month) {
+        String partition = partitionName(month);
+        if (Boolean.TRUE.equals(jdbcTemplate.queryForObject("select to_regclass(?) is not null", Boolean.class, partition))) {
+            return;
+        }
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                jdbcTemplate.execute("create table " + partition + " (like " + TABLE + " including defaults including constraints)");
+                int moved = jdbcTemplate.update("with moved as (delete from " + DEFAULT_PARTITION
+                        + " where timestamp >= ? and timestamp < ? returning *) insert into " + partition + " select * from moved",
+                        startOf(month), startOf(month.plusMonths(1)));
+                jdbcTemplate.execute("alter table " + TABLE + " attach partition " + partition
+                        + " for values from ('" + month.atDay(1) + "') to ('" + month.plusMonths(1).atDay(1) + "')");
+                if (moved > 0) {
+                    logger.info("Moved " + moved + " history rows for " + month + " out of " + DEFAULT_PARTITION);
+                }
+            });
+        } catch (DataAccessException e) {
+            // Rolled back as a whole; the month's rows stay readable in the default partition and the next run retries
+            logger.log(Level.WARNING, "Could not create partition " + partition, e);
+        }
+    }
+
+    private void dropPartitionsBefore(YearMonth oldestKept) {
+        for (YearMonth month : partitions()) {
+            if (!month.isBefore(oldestKept)) {
+                break;
+            }
+            String partition = partitionName(month);
+            // Detaching first keeps the exclusive lock on the parent short; the drop then only touches the detached table
+            jdbcTemplate.execute("alter table " + TABLE + " detach partition " + partition);
+            jdbcTemplate.execute("drop table " + partition);
+            logger.info("Dropped expired history partition " + partition);
+        }
+        // Rows older than the first partition, such as imported history, only live in the default partition
+        deleteMonthsBefore(DEFAULT_PARTITION, oldestKept);
+    }
+
+    private void deleteMonthsBefore(String table, YearMonth oldestKept) {
+        Timestamp oldest = jdbcTemplate.queryForObject("select min(timestamp) from " + table, Timestamp.class);
+        if (oldest == null) {
+            return;
+        }
+        for (YearMonth month = YearMonth.from(oldest.toLocalDateTime()); month.isBefore(oldestKept); month = month.plusMonths(1)) {
+            int deleted = jdbcTemplate.update("delete from " + table + " where timestamp >= ? and timestamp < ?",
+                    startOf(month), startOf(month.plusMonths(1)));
+            if (deleted > 0) {
+                logger.info("Deleted " + deleted + " expired history rows for " + month + " from " + table);
+            }
+        }
+    }
+
+    private boolean isPostgres() {
+        try {
+            String product = JdbcUtils.extractDatabaseMetaData(jdbcTemplate.getDataSource(),
+                    DatabaseMetaData::getDatabaseProductName);
+            return "PostgreSQL".equals(product);
+        } catch (MetaDataAccessException e) {
+            throw new IllegalStateException("Could not determine the database product", e);
+        }
+    }
+
+    private static String partitionName(YearMonth month) {
+        return TABLE + "_p" + month.format(SUFFIX);
+    }
+
+    private static Timestamp startOf(YearMonth month) {
+        return Timestamp.valueOf(month.atDay(1).atStartOfDay());
+    }
+}
@@ -0,0 +1,52 @@
+package com.skillstorm.taxdemo.services;
+
+import com.skillstorm.taxdemo.models.UserCreditData;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+
+import java.util.Map;
+import java.util.logging.Logger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// user_credit_data and credit_account ids used to come from identity columns. When the schema update
+// adds their sequences, the sequences start at 1, below ids that already exist. This moves each
+// sequence past its table's max id before anything is inserted. The pooled optimizer hands out
+// (value - allocationSize, value], so the next value must be at least max + allocationSize.
+@Component
+public class IdSequenceAlignment {
+
+    private static final Logger logger = Logger.getLogger(IdSequenceAlignment.class.getName());
+
+    private static final Map<String, String> SEQUENCES = Map.of(
+            "user_credit_data", "user_credit_data_seq",
+            "credit_account", "credit_account_seq");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Only injected so the schema exists before the sequences are checked
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    public void alignSequences() {
+        SEQUENCES.forEach(this::align);
+    }
+
+    private void align(String table, String sequence) {
+        Long maxId = jdbcTemplate.queryForObject("select max(id) from " + table, Long.class);
+        if (maxId == null) {
+            return;
+        }
+        long next = jdbcTemplate.queryForObject("select nextval('" + sequence + "')", Long.class);
+        long required = maxId + UserCreditData.ID_ALLOCATION_SIZE + 1;
+        if (next < required) {
+            jdbcTemplate.execute("alter sequence " + sequence + " restart with " + required);
+            logger.info("Moved " + sequence + " from " + next + " to " + required + " past existing " + table + " ids");
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.skillstorm.taxdemo.services;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+// Cross-instance leases in job_lease. A lease is claimed, or renewed by its holder, with one conditional
+// update that only matches when the lease is free or expired, so at most one instance holds it at a time.
+// An instance that dies keeps its lease until it expires. Lease times come from the instances' clocks,
+// which only need to agree to well within the lease duration.
+@Service
+public class JobLeases {
+
+    private static final String CLAIM_SQL = "update job_lease set owner = ?, lease_until = ? "
+            + "where name = ? and (owner is null or owner = ? or lease_until < ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Identifies this process in job_lease and rescore_checkpoint
+    private final String owner = hostName() + "-" + UUID.randomUUID().toString().substring(0, 8);
+
+    public String owner() {
+        return owner;
+    }
+
+    // Claims or renews the lease for duration; false when another instance holds it
+    public boolean tryAcquire(String name, Duration duration) {
+        LocalDateTime now = LocalDateTime.now();
+        Object[] args = { owner, Timestamp.valueOf(now.plus(duration)), name, owner, Timestamp.valueOf(now) };
+        if (jdbcTemplate.update(CLAIM_SQL, args) > 0) {
+            return true;
+        }
+        try {
+            jdbcTemplate.update("insert into job_lease (name, owner, lease_until) values (?, ?, ?)", name, owner,
+                    Timestamp.valueOf(now.plus(duration)));
+            return true;
+        } catch (DuplicateKeyException e) {
+            // the row exists and another instance holds it, or it was just inserted by another instance
+            return jdbcTemplate.update(CLAIM_SQL, args) > 0;
+        }
+    }
+
+    public void release(String name) {
+        jdbcTemplate.update("update job_lease set owner = null, lease_until = null where name = ? and owner = ?", name, owner);
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "unknown";
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.skillstorm.taxdemo.services;
+
+import com.skillstorm.taxdemo.dtos.CreditProfile;
+import com.skillstorm.taxdemo.dtos.HistoryEntry;
+import com.skillstorm.taxdemo.dtos.HistoryWindow;
+import com.skillstorm.taxdemo.models.AccountType;
+import com.skillstorm.taxdemo.repositories.reactive.AccountTypeRow;
+import com.skillstorm.taxdemo.repositories.reactive.ReactiveCreditScoreHistoryRepository;
+import com.skillstorm.taxdemo.repositories.reactive.ReactiveUserCreditDataRepository;
+import com.skillstorm.taxdemo.scoring.CreditSnapshot;
+import com.skillstorm.taxdemo.scoring.ScoringEngine;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// Read-only counterpart of CreditScoreService on R2DBC. Nothing here blocks: queries complete on the
+// driver's event loop and the shared scoring and tip logic runs there too, as both are pure CPU work.
+// Scores are computed only; recording history stays on the JPA write path.
+@Service
+public class ReactiveCreditReadService {
+
+    @Autowired
+    private ReactiveUserCreditDataRepository repository;
+
+    @Autowired
+    private ReactiveCreditScoreHistoryRepository creditScoreHistoryRepository;
+
+    @Autowired
+    private CreditImprovementTips creditImprovementTips;
+
+    public Mono<Integer> calculateFICOScore(Long userId) {
+        return loadProfile(userId)
+                .flatMap(profile -> profile.accountTypeMask() != null
+                        ? Mono.just(CreditSnapshot.of(profile))
+                        : loadAccountTypeMask(userId).map(mask -> CreditSnapshot.of(withMask(profile, mask))))
+                .map(ScoringEngine::score);
+    }
+
+    public Flux<HistoryEntry> getCreditScoreHistory(Long userId, HistoryWindow window) {
+        return creditScoreHistoryRepository.findHistory(userId, window.from(), window.to())
+                .take(window.limitOrMax(), true);
+    }
+
+    public Mono<List<String>> getCreditImprovementTips(Long userId) {
+        return loadProfile(userId).map(creditImprovementTips::tipsFor);
+    }
+
+    private Mono<CreditProfile> loadProfile(Long userId) {
+        return repository.findProfileByUserId(userId)
+                .switchIfEmpty(Mono.error(() -> new RuntimeException("Credit data not found for user with ID: " + userId)));
+    }
+
+    private Mono<Integer> loadAccountTypeMask(Long userId) {
+        return repository.findAccountTypesByUserId(userId)
+                .map(ReactiveCreditReadService::typeOf)
+                .reduce(0, (mask, type) -> mask | type.bit());
+    }
+
+    private static AccountType typeOf(AccountTypeRow row) {
+        return row.accountTypeCode() != null ? AccountType.fromCode(row.accountTypeCode()) : AccountType.fromLabel(row.accountType());
+    }
+
+    private static CreditProfile withMask(CreditProfile profile, int mask) {
+        return new CreditProfile(profile.userId(), profile.onTimePayments(), profile.latePayments(), profile.missedPayments(),
+                profile.publicRecords(), profile.creditUtilization(), profile.totalDebt(), profile.oldestAccountAge(),
+                profile.recentInquiries(), profile.newAccounts(), mask, profile.version());
+    }
+}
@@ -0,0 +1,357 @@
+package com.skillstorm.taxdemo.services;
+
+import com.skillstorm.taxdemo.dtos.RescoreProgress;
+import com.skillstorm.taxdemo.metrics.CreditMetrics;
+import com.skillstorm.taxdemo.metrics.CreditMetrics.Operation;
+import com.skillstorm.taxdemo.metrics.CreditMetrics.Phase;
+import com.skillstorm.taxdemo.models.CreditScoreHistory;
+import com.skillstorm.taxdemo.models.RescoreCheckpoint;
+import com.skillstorm.taxdemo.models.RescoreCheckpoint.Status;
+import com.skillstorm.taxdemo.models.UserCreditData;
+import com.skillstorm.taxdemo.repositories.CreditScoreHistoryRepository;
+import com.skillstorm.taxdemo.repositories.RescoreCheckpointRepository;
+import com.skillstorm.taxdemo.repositories.UserCreditDataRepository;
+import com.skillstorm.taxdemo.scoring.CreditSnapshot;
+import com.skillstorm.taxdemo.scoring.ScoreBreakdown;
+import com.skillstorm.taxdemo.scoring.ScoringEngine;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Rescores every user, e.g. after the scoring rules change. The id range of user_credit_data is
+// split into partitions that are scored in parallel. Each partition streams its users through a
+// server-side cursor in a read-only transaction and commits history rows in chunks, together with
+// its checkpoint, in a separate transaction. A run that dies part way is resumed from the last
+// committed chunk of each partition, either on the next start() or at application startup.
+// Across instances each partition is claimed with a lease on its checkpoint row, so a resume or a
+// scheduled run on several instances never scores the same partition twice; a partition whose
+// instance died is taken over once its lease expires.
+@Service
+public class RescoringJob implements ApplicationRunner {
+
+    private static final Logger logger = Logger.getLogger(RescoringJob.class.getName());
+
+    @Autowired
+    private UserCreditDataRepository userCreditDataRepository;
+
+    @Autowired
+    private CreditScoreHistoryRepository creditScoreHistoryRepository;
+
+    @Autowired
+    private RescoreCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private CreditMetrics creditMetrics;
+
+    @Autowired
+    private CurrentScoreService currentScoreService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JobLeases jobLeases;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Each worker holds two connections while running (the cursor and the chunk commit)
+    @Value("${credit.rescore.partitions:4}")
+    private int partitions;
+
+    @Value("${credit.rescore.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${credit.rescore.resume-on-startup:true}")
+    private boolean resumeOnStartup;
+
+    // Extended by every chunk commit, so it only has to outlast one chunk
+    @Value("${credit.rescore.lease-ms:300000}")
+    private long leaseMs;
+
+    private final Object lock = new Object();
+    private CompletableFuture<Void> running;
+    private ExecutorService workers;
+
+    // Counters for the current execution, used for throughput and ETA
+    private final AtomicLong processedThisExecution = new AtomicLong();
+    private volatile long executionStartNanos;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (resumeOnStartup && findIncompleteRun() != null) {
+            logger.info("Resuming interrupted rescoring run");
+            start();
+        }
+    }
+
+    @Scheduled(cron = "${credit.rescore.cron:-}")
+    public void scheduledRun() {
+        if (isRunning()) {
+            logger.warning("Skipping scheduled rescoring run; the previous run is still in progress");
+            return;
+        }
+        // Not released: the same tick on the other instances falls inside the lease and is skipped there
+        if (!jobLeases.tryAcquire("rescore-schedule", Duration.ofMillis(leaseMs))) {
+            logger.info("Skipping scheduled rescoring run; another instance started it");
+            return;
+        }
+        start();
+    }
+
+    // Resumes the latest run if it is incomplete, otherwise plans a new one. Returns the running job
+    // when one is already in progress. Only partitions this instance can claim are run.
+    public CompletableFuture<Void> start() {
+        synchronized (lock) {
+            if (isRunning()) {
+                return running;
+            }
+            Long runId = findIncompleteRun();
+            List<RescoreCheckpoint> checkpoints = runId != null
+                    ? checkpointRepository.findByRunIdOrderByPartitionIndex(runId)
+                    : plan();
+
+            List<RescoreCheckpoint> pending = new ArrayList<>();
+            int leasedElsewhere = 0;
+            for (RescoreCheckpoint checkpoint : checkpoints) {
+                if (checkpoint.getStatus() == Status.COMPLETED) {
+                    continue;
+                }
+                RescoreCheckpoint claimed = claim(checkpoint);
+                if (claimed != null) {
+                    pending.add(claimed);
+                } else {
+                    leasedElsewhere++;
+                }
+            }
+            if (leasedElsewhere > 0) {
+                logger.info(leasedElsewhere + " partitions of rescoring run " + checkpoints.get(0).getRunId()
+                        + " are being run by another instance");
+            }
+            processedThisExecution.set(0);
+            executionStartNanos = System.nanoTime();
+            if (pending.isEmpty()) {
+                running = CompletableFuture.completedFuture(null);
+                return running;
+            }
+
+            AtomicInteger threadCount = new AtomicInteger();
+            workers = Executors.newFixedThreadPool(Math.min(pending.size(), Math.max(1, partitions)), runnable -> {
+                Thread thread = new Thread(runnable, "credit-rescore-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            List<CompletableFuture<Void>> parts = new ArrayList<>();
+            for (RescoreCheckpoint checkpoint : pending) {
+                parts.add(CompletableFuture.runAsync(() -> runPartition(checkpoint), workers));
+            }
+            ExecutorService executor = workers;
+            boolean wholeRun = leasedElsewhere == 0;
+            running = CompletableFuture.allOf(parts.toArray(CompletableFuture[]::new))
+                    .whenComplete((ignored, failure) -> {
+                        executor.shutdown();
+                        if (failure == null && wholeRun) {
+                            logger.info("Rescoring run " + checkpoints.get(0).getRunId() + " completed");
+                        }
+                    });
+            return running;
+        }
+    }
+
+    public boolean isRunning() {
+        synchronized (lock) {
+            return running != null && !running.isDone();
+        }
+    }
+
+    // The checkpoint as of the claim, or null when another instance holds it. Re-read after claiming,
+    // since the previous holder may have committed a chunk since it was first read.
+    private RescoreCheckpoint claim(RescoreCheckpoint checkpoint) {
+        TransactionTemplate write = new TransactionTemplate(transactionManager);
+        LocalDateTime now = LocalDateTime.now();
+        return write.execute(status -> checkpointRepository.claim(checkpoint.getId(), jobLeases.owner(),
+                now.plus(Duration.ofMillis(leaseMs)), now) == 0 ? null
+                        : checkpointRepository.findById(checkpoint.getId()).orElse(null));
+    }
+
+    private Long findIncompleteRun() {
+        Long runId = checkpointRepository.findLatestRunId().orElse(null);
+        if (runId == null) {
+            return null;
+        }
+        for (RescoreCheckpoint checkpoint : checkpointRepository.findByRunIdOrderByPartitionIndex(runId)) {
+            if (checkpoint.getStatus() != Status.COMPLETED) {
+                return runId;
+            }
+        }
+        return null;
+    }
+
+    // Splits the current id range into equally wide partitions and persists a checkpoint for each
+    private List<RescoreCheckpoint> plan() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        long runId = System.currentTimeMillis();
+        Long minId = userCreditDataRepository.findMinId().orElse(null);
+        Long maxId = userCreditDataRepository.findMaxId().orElse(null);
+        if (minId == null || maxId == null) {
+            return List.of();
+        }
+
+        long lowerBound = minId - 1;
+        long width = Math.max(1, (maxId - lowerBound + partitions - 1) / partitions);
+        List<RescoreCheckpoint> checkpoints = new ArrayList<>();
+        for (int i = 0; lowerBound < maxId; i++) {
+            long upperBound = Math.min(maxId, lowerBound + width);
+            long total = userCreditDataRepository.countByIdGreaterThanAndIdLessThanEqual(lowerBound, upperBound);
+            checkpoints.add(new RescoreCheckpoint(runId, i, lowerBound, upperBound, total, startedAt));
+            lowerBound = upperBound;
+        }
+        logger.info("Planned rescoring run " + runId + " over ids " + minId + ".." + maxId + " in "
+                + checkpoints.size() + " partitions");
+        return checkpointRepository.saveAll(checkpoints);
+    }
+
+    private void runPartition(RescoreCheckpoint checkpoint) {
+        TransactionTemplate read = new TransactionTemplate(transactionManager);
+        read.setReadOnly(true);
+        TransactionTemplate write = new TransactionTemplate(transactionManager);
+        write.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        try {
+            read.executeWithoutResult(status -> {
+                List<CreditScoreHistory> chunk = new ArrayList<>(chunkSize);
+                // Rescoring after a rule change must also refresh the materialized scores
+                Map<Long, ScoreBreakdown> breakdowns = new LinkedHashMap<>();
+                long lastId = checkpoint.getLastId();
+                long start = System.nanoTime();
+                try (Stream<UserCreditData> users = userCreditDataRepository.streamByIdRange(checkpoint.getLastId(),
+                        checkpoint.getRangeEnd())) {
+                    for (UserCreditData creditData : (Iterable<UserCreditData>) users::iterator) {
+                        CreditSnapshot snapshot = CreditSnapshot.of(creditData);
+                        int score = creditMetrics.score(snapshot);
+                        if (currentScoreService.isEnabled()) {
+                            breakdowns.put(creditData.getUserId(), ScoringEngine.breakdown(snapshot));
+                        }
+                        chunk.add(new CreditScoreHistory(null, creditData.getUserId(), score, checkpoint.getRunStartedAt()));
+                        lastId = creditData.getId();
+                        entityManager.detach(creditData);
+                        if (chunk.size() >= chunkSize) {
+                            start = creditMetrics.lap(Operation.RESCORE, Phase.COMPUTE, start);
+                            commitChunk(write, checkpoint, chunk, breakdowns, lastId, Status.RUNNING);
+                            start = creditMetrics.lap(Operation.RESCORE, Phase.DB, start);
+                        }
+                    }
+                }
+                start = creditMetrics.lap(Operation.RESCORE, Phase.COMPUTE, start);
+                commitChunk(write, checkpoint, chunk, breakdowns, lastId, Status.COMPLETED);
+                creditMetrics.lap(Operation.RESCORE, Phase.DB, start);
+            });
+        } catch (RuntimeException e) {
+            logger.log(Level.SEVERE, "Rescoring partition " + checkpoint.getPartitionIndex() + " of run "
+                    + checkpoint.getRunId() + " failed after id " + checkpoint.getLastId(), e);
+            // Gives up the lease, so another instance can pick the partition up on its next start
+            write.executeWithoutResult(status -> checkpointRepository.advance(checkpoint.getId(), jobLeases.owner(),
+                    checkpoint.getLastId(), 0, Status.FAILED, null, null));
+            throw e;
+        }
+    }
+
+    // History rows and the checkpoint commit together, so a restart never rescores or skips a user. A chunk
+    // whose lease was taken over by another instance is rolled back and the partition stops here.
+    private void commitChunk(TransactionTemplate write, RescoreCheckpoint checkpoint, List<CreditScoreHistory> chunk,
+            Map<Long, ScoreBreakdown> breakdowns, long lastId, Status status) {
+        boolean done = status == Status.COMPLETED;
+        LocalDateTime leaseUntil = done ? null : LocalDateTime.now().plus(Duration.ofMillis(leaseMs));
+        write.executeWithoutResult(tx -> {
+            creditScoreHistoryRepository.batchInsert(chunk);
+            if (!breakdowns.isEmpty()) {
+                currentScoreService.store(breakdowns, checkpoint.getRunStartedAt());
+            }
+            if (checkpointRepository.advance(checkpoint.getId(), jobLeases.owner(), lastId, chunk.size(), status,
+                    done ? null : jobLeases.owner(), leaseUntil) == 0) {
+                throw new IllegalStateException("Lost the lease on rescoring partition " + checkpoint.getPartitionIndex()
+                        + " of run " + checkpoint.getRunId());
+            }
+        });
+        checkpoint.setLastId(lastId);
+        checkpoint.setProcessed(checkpoint.getProcessed() + chunk.size());
+        checkpoint.setStatus(status);
+        processedThisExecution.addAndGet(chunk.size());
+        creditMetrics.historyRowsWritten(Operation.RESCORE, chunk.size());
+        chunk.clear();
+        breakdowns.clear();
+    }
+
+    public RescoreProgress progress() {
+        Long runId = checkpointRepository.findLatestRunId().orElse(null);
+        if (runId == null) {
+            return new RescoreProgress(null, RescoreProgress.State.IDLE, null, 0, 0, 0, 0, null, List.of());
+        }
+
+        List<RescoreCheckpoint> checkpoints = checkpointRepository.findByRunIdOrderByPartitionIndex(runId);
+        long total = 0;
+        long processed = 0;
+        boolean complete = true;
+        boolean leased = false;
+        LocalDateTime now = LocalDateTime.now();
+        List<RescoreProgress.Partition> partitionProgress = new ArrayList<>();
+        for (RescoreCheckpoint checkpoint : checkpoints) {
+            total += checkpoint.getTotal();
+            processed += checkpoint.getProcessed();
+            complete &= checkpoint.getStatus() == Status.COMPLETED;
+            leased |= checkpoint.getLeaseUntil() != null && checkpoint.getLeaseUntil().isAfter(now);
+            partitionProgress.add(new RescoreProgress.Partition(checkpoint.getPartitionIndex(), checkpoint.getRangeStart(),
+                    checkpoint.getRangeEnd(), checkpoint.getLastId(), checkpoint.getTotal(), checkpoint.getProcessed(),
+                    checkpoint.getStatus().name()));
+        }
+
+        // A live lease means some instance, possibly another one, is working on the run
+        RescoreProgress.State state = isRunning() || (!complete && leased) ? RescoreProgress.State.RUNNING
+                : complete ? RescoreProgress.State.COMPLETED : RescoreProgress.State.INCOMPLETE;
+        double elapsedSeconds = (System.nanoTime() - executionStartNanos) / 1e9;
+        double rate = state == RescoreProgress.State.RUNNING && elapsedSeconds > 0
+                ? processedThisExecution.get() / elapsedSeconds : 0;
+        // Users added after planning can push processed past total; never report more than 100%
+        long remaining = Math.max(0, total - processed);
+        Long eta = rate > 0 ? (long) Math.ceil(remaining / rate) : null;
+        double percent = total == 0 ? 100 : Math.min(100, 100.0 * processed / total);
+        return new RescoreProgress(runId, state, checkpoints.isEmpty() ? null : checkpoints.get(0).getRunStartedAt(),
+                total, processed, percent, rate, eta, partitionProgress);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        synchronized (lock) {
+            if (workers != null) {
+                // Interrupts the workers; whatever they committed is kept and the rest is resumed on the next start
+                workers.shutdownNow();
+            }
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package com.skillstorm.taxdemo.services;
+
+import com.skillstorm.taxdemo.dtos.DailyScoreStats;
+import com.skillstorm.taxdemo.dtos.ScoreDistribution;
+import com.skillstorm.taxdemo.models.CreditScoreHistory;
+import com.skillstorm.taxdemo.scoring.ScoreHistogram;
+import com.skillstorm.taxdemo.scoring.ScoringEngine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Population score analytics without scanning credit_score_history. Every history row inserted through
+// CreditScoreHistoryRepository.batchInsert is counted, once its transaction commits, into an in-memory
+// ScoreHistogram for its day. The pending counts are added to score_histogram every flush interval with
+// in-place increments, so several instances can flush into the same rows. A query reads at most 551
+// rows per day in range, whatever the number of users or history rows.
+@Service
+public class ScoreAnalytics {
+
+    private static final Logger logger = Logger.getLogger(ScoreAnalytics.class.getName());
+
+    private static final String INCREMENT_SQL = "update score_histogram set score_count = score_count + ? where score_date = ? and score = ?";
+    private static final String INSERT_SQL = "insert into score_histogram (score_date, score, score_count) values (?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int maxDays;
+    private final boolean retentionEnabled;
+    private final int rawDays;
+
+    private final Object lock = new Object();
+    private Map<LocalDate, ScoreHistogram> pending = new HashMap<>();
+
+    private final Counter recordedRows;
+    private final Counter failedFlushes;
+
+    public ScoreAnalytics(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+            @Value("${credit.analytics.enabled:true}") boolean enabled,
+            @Value("${credit.analytics.max-days:366}") int maxDays,
+            @Value("${credit.history.retention.enabled:true}") boolean retentionEnabled,
+            @Value("${credit.history.retention.raw-days:30}") int rawDays) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.maxDays = maxDays;
+        this.retentionEnabled = retentionEnabled;
+        this.rawDays = rawDays;
+        this.recordedRows = Counter.builder("credit.analytics.rows")
+                .description("History rows counted into the score histograms")
+                .register(meterRegistry);
+        this.failedFlushes = Counter.builder("credit.analytics.flush.failures")
+                .description("Histogram flushes that failed and were retried on the next interval")
+                .register(meterRegistry);
+    }
+
+    public int getMaxDays() {
+        return maxDays;
+    }
+
+    // Counts rows that have just been inserted. Inside a transaction they are only counted after it
+    // commits, so a rolled back write never shows up in the analytics.
+    public void record(List<CreditScoreHistory> rows) {
+        if (!enabled || rows.isEmpty()) {
+            return;
+        }
+        Map<LocalDate, ScoreHistogram> counted = new HashMap<>();
+        for (CreditScoreHistory row : rows) {
+            counted.computeIfAbsent(row.getTimestamp().toLocalDate(), day -> new ScoreHistogram()).add(row.getScore());
+        }
+        int count = rows.size();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    addPending(counted);
+                    recordedRows.increment(count);
+                }
+            });
+        } else {
+            addPending(counted);
+            recordedRows.increment(count);
+        }
+    }
+
+    private void addPending(Map<LocalDate, ScoreHistogram> counted) {
+        synchronized (lock) {
+            mergeInto(pending, counted);
+        }
+    }
+
+    @Scheduled(initialDelayString = "${credit.analytics.flush-interval-ms:10000}",
+            fixedDelayString = "${credit.analytics.flush-interval-ms:10000}")
+    public void flush() {
+        Map<LocalDate, ScoreHistogram> batch;
+        synchronized (lock) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = pending;
+            pending = new HashMap<>();
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> write(batch));
+        } catch (RuntimeException e) {
+            // Keep the counts for the next attempt, e.g. after losing an insert race with another instance
+            failedFlushes.increment();
+            logger.log(Level.WARNING, "Failed to flush score histograms for " + batch.size() + " days", e);
+            addPending(batch);
+        }
+    }
+
+    private void write(Map<LocalDate, ScoreHistogram> batch) {
+        List<Object[]> increments = new ArrayList<>();
+        for (Map.Entry<LocalDate, ScoreHistogram> day : batch.entrySet()) {
+            long[] counts = day.getValue().counts();
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] > 0) {
+                    increments.add(new Object[] { counts[i], Date.valueOf(day.getKey()), ScoringEngine.MIN_SCORE + i });
+                }
+            }
+        }
+        int[] updated = jdbcTemplate.batchUpdate(INCREMENT_SQL, increments);
+        List<Object[]> inserts = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                Object[] increment = increments.get(i);
+                inserts.add(new Object[] { increment[1], increment[2], increment[0] });
+            }
+        }
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, inserts);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    public ScoreDistribution distribution(LocalDate from, LocalDate to, int bandWidth) {
+        if (bandWidth < 1 || bandWidth > ScoreHistogram.BUCKETS) {
+            throw new IllegalArgumentException("bandWidth must be between 1 and " + ScoreHistogram.BUCKETS);
+        }
+        ScoreHistogram histogram = new ScoreHistogram();
+        for (ScoreHistogram day : load(from, to).values()) {
+            histogram.merge(day);
+        }
+        Map<Integer, Long> bands = new LinkedHashMap<>();
+        long[] counts = histogram.bands(bandWidth);
+        for (int i = 0; i < counts.length; i++) {
+            bands.put(ScoringEngine.MIN_SCORE + i * bandWidth, counts[i]);
+        }
+        return new ScoreDistribution(from, to, histogram.count(), histogram.mean(), histogram.min(), histogram.quantile(0.5),
+                histogram.quantile(0.9), histogram.quantile(0.95), histogram.quantile(0.99), histogram.max(), bands);
+    }
+
+    public List<DailyScoreStats> trend(LocalDate from, LocalDate to) {
+        Map<LocalDate, ScoreHistogram> days = load(from, to);
+        List<DailyScoreStats> trend = new ArrayList<>();
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            ScoreHistogram histogram = days.getOrDefault(day, new ScoreHistogram());
+            trend.add(new DailyScoreStats(day, histogram.count(), histogram.mean(), histogram.quantile(0.5), histogram.quantile(0.95)));
+        }
+        return trend;
+    }
+
+    // Persisted counts plus this instance's not yet flushed ones
+    private Map<LocalDate, ScoreHistogram> load(LocalDate from, LocalDate to) {
+        validateRange(from, to);
+        Map<LocalDate, ScoreHistogram> days = new TreeMap<>();
+        jdbcTemplate.query("select score_date, score, score_count from score_histogram where score_date between ? and ?",
+                rs -> {
+                    days.computeIfAbsent(rs.getDate("score_date").toLocalDate(), day -> new ScoreHistogram())
+                            .add(rs.getInt("score"), rs.getLong("score_count"));
+                }, Date.valueOf(from), Date.valueOf(to));
+        synchronized (lock) {
+            for (Map.Entry<LocalDate, ScoreHistogram> day : pending.entrySet()) {
+                if (!day.getKey().isBefore(from) && !day.getKey().isAfter(to)) {
+                    days.computeIfAbsent(day.getKey(), key -> new ScoreHistogram()).merge(day.getValue());
+                }
+            }
+        }
+        return days;
+    }
+
+    // First day a rebuild can recount. Days before the raw retention window have had their rows folded
+    // into one summary row per user (see HistoryCompactor), so they keep the counts taken live.
+    public LocalDate firstRebuildableDay(LocalDate from) {
+        if (!retentionEnabled) {
+            return from;
+        }
+        LocalDate rawFrom = LocalDate.now().minusDays(rawDays);
+        return from.isBefore(rawFrom) ? rawFrom : from;
+    }
+
+    // Recounts the days in range that are still inside the raw retention window from the raw rows of
+    // credit_score_history, the same rows record() counts, and returns the number of rows counted.
+    // Writers wait while this runs, and a row committed during the recount may be counted twice, so
+    // run it when the write load is low.
+    public long rebuild(LocalDate requestedFrom, LocalDate to) {
+        validateRange(requestedFrom, to);
+        LocalDate from = firstRebuildableDay(requestedFrom);
+        if (from.isAfter(to)) {
+            logger.info("Score histograms for " + requestedFrom + " to " + to + " are past the raw retention window; nothing rebuilt");
+            return 0;
+        }
+        synchronized (lock) {
+            pending.keySet().removeIf(day -> !day.isBefore(from) && !day.isAfter(to));
+            return transactionTemplate.execute(status -> {
+                jdbcTemplate.update("delete from score_histogram where score_date between ? and ?", Date.valueOf(from), Date.valueOf(to));
+                jdbcTemplate.update("insert into score_histogram (score_date, score, score_count) "
+                        + "select cast(timestamp as date), score, count(*) from credit_score_history "
+                        + "where (resolution is null or resolution = 'RAW') and timestamp >= ? and timestamp < ? "
+                        + "group by cast(timestamp as date), score",
+                        Timestamp.valueOf(from.atStartOfDay()), Timestamp.valueOf(to.plusDays(1).atStartOfDay()));
+                Long rows = jdbcTemplate.queryForObject("select coalesce(sum(score_count), 0) from score_histogram where score_date between ? and ?",
+                        Long.class, Date.valueOf(from), Date.valueOf(to));
+                logger.info("Rebuilt score histograms for " + from + " to " + to + " from " + rows + " history rows");
+                return rows;
+            });
+        }
+    }
+
+    private void validateRange(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= maxDays) {
+            throw new IllegalArgumentException("Range exceeds limit of " + maxDays + " days");
+        }
+    }
+
+    private static void mergeInto(Map<LocalDate, ScoreHistogram> target, Map<LocalDate, ScoreHistogram> source) {
+        for (Map.Entry<LocalDate, ScoreHistogram> day : source.entrySet()) {
+            target.computeIfAbsent(day.getKey(), key -> new ScoreHistogram()).merge(day.getValue());
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.skillstorm.taxdemo.services;
+
+import com.skillstorm.taxdemo.dtos.SimulationRequest.BalanceChange;
+import com.skillstorm.taxdemo.dtos.SimulationRequest.Scenario;
+import com.skillstorm.taxdemo.dtos.SimulationResponse;
+import com.skillstorm.taxdemo.dtos.SimulationResponse.ScenarioResult;
+import com.skillstorm.taxdemo.metrics.CreditMetrics;
+import com.skillstorm.taxdemo.metrics.CreditMetrics.Operation;
+import com.skillstorm.taxdemo.metrics.CreditMetrics.Phase;
+import com.skillstorm.taxdemo.models.AccountType;
+import com.skillstorm.taxdemo.models.CreditAccount;
+import com.skillstorm.taxdemo.models.UserCreditData;
+import com.skillstorm.taxdemo.repositories.UserCreditDataRepository;
+import com.skillstorm.taxdemo.scoring.CreditSnapshot;
+import com.skillstorm.taxdemo.scoring.ScoreBreakdown;
+import com.skillstorm.taxdemo.scoring.ScoringEngine;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Service;
+
+// What-if scoring. The user's credit data and accounts are read once, then every scenario is applied
+// to a copy of that snapshot and scored in memory; nothing is written, not even a history row.
+// Requests with at least parallel-threshold scenarios are split into slices scored concurrently.
+@Service
+public class ScoreSimulator {
+
+    private final UserCreditDataRepository repository;
+    private final CreditMetrics creditMetrics;
+    private final AsyncTaskExecutor executor;
+    private final int maxScenarios;
+    private final int parallelThreshold;
+    private final int parallelism;
+    private final long timeoutMs;
+
+    public ScoreSimulator(UserCreditDataRepository repository, CreditMetrics creditMetrics,
+            @Qualifier("applicationTaskExecutor") AsyncTaskExecutor executor,
+            @Value("${credit.simulate.max-scenarios:1000}") int maxScenarios,
+            @Value("${credit.simulate.parallel-threshold:64}") int parallelThreshold,
+            @Value("${credit.simulate.parallelism:4}") int parallelism,
+            @Value("${credit.simulate.timeout-ms:500}") long timeoutMs) {
+        this.repository = repository;
+        this.creditMetrics = creditMetrics;
+        this.executor = executor;
+        this.maxScenarios = maxScenarios;
+        this.parallelThreshold = parallelThreshold;
+        this.parallelism = Math.max(1, parallelism);
+        this.timeoutMs = timeoutMs;
+    }
+
+    public int getMaxScenarios() {
+        return maxScenarios;
+    }
+
+    public SimulationResponse simulate(Long userId, List<Scenario> scenarios) {
+        long start = creditMetrics.begin(Operation.SIMULATE);
+        UserCreditData creditData = repository.findWithAccountsByUserId(userId)
+                .orElseThrow(() -> new RuntimeException("Credit data not found for user with ID: " + userId));
+        start = creditMetrics.lap(Operation.SIMULATE, Phase.DB, start);
+        creditMetrics.accountsLoaded(Operation.SIMULATE,
+                creditData.getCreditAccounts() != null ? creditData.getCreditAccounts().size() : 0);
+
+        Baseline baseline = new Baseline(creditData);
+        ScenarioResult[] results = new ScenarioResult[scenarios.size()];
+        // Slices hold at least half a threshold's worth of scenarios, so forking stays worth its cost
+        int slices = results.length < parallelThreshold ? 1
+                : Math.min(parallelism, Math.max(2, results.length / Math.max(1, parallelThreshold / 2)));
+        if (slices == 1) {
+            simulateSlice(baseline, scenarios, results, 0, results.length);
+        } else {
+            int sliceSize = (results.length + slices - 1) / slices;
+            try (FetchScope scope = new FetchScope(executor)) {
+                for (int from = 0; from < results.length; from += sliceSize) {
+                    int sliceFrom = from;
+                    int sliceTo = Math.min(results.length, from + sliceSize);
+                    scope.fork(() -> simulateSlice(baseline, scenarios, results, sliceFrom, sliceTo));
+                }
+                scope.join(timeoutMs, TimeUnit.MILLISECONDS);
+            } catch (RuntimeException e) {
+                if (e.getCause() instanceof TimeoutException) {
+                    throw new IllegalStateException("Simulation of " + results.length + " scenarios exceeded " + timeoutMs + " ms", e);
+                }
+                throw e;
+            }
+        }
+        creditMetrics.lap(Operation.SIMULATE, Phase.COMPUTE, start);
+        return new SimulationResponse(baseline.breakdown, Arrays.asList(results));
+    }
+
+    // Each slice writes a disjoint range of the results array
+    private Void simulateSlice(Baseline baseline, List<Scenario> scenarios, ScenarioResult[] results, int from, int to) {
+        for (int i = from; i < to; i++) {
+            Scenario scenario = scenarios.get(i);
+            String name = scenario != null && scenario.name() != null ? scenario.name() : "scenario-" + i;
+            try {
+                ScoreBreakdown breakdown = ScoringEngine.breakdown(baseline.apply(scenario));
+                results[i] = new ScenarioResult(name, breakdown, difference(breakdown, baseline.breakdown), null);
+            } catch (IllegalArgumentException e) {
+                results[i] = new ScenarioResult(name, null, null, e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    private static ScoreBreakdown difference(ScoreBreakdown scenario, ScoreBreakdown current) {
+        return new ScoreBreakdown(scenario.paymentHistory() - current.paymentHistory(),
+                scenario.amountsOwed() - current.amountsOwed(),
+                scenario.creditHistoryLength() - current.creditHistoryLength(),
+                scenario.creditMix() - current.creditMix(),
+                scenario.newCredit() - current.newCredit(),
+                scenario.total() - current.total());
+    }
+
+    // The loaded data reduced to what scenarios need; shared read-only by all slices
+    private static final class Baseline {
+        private final CreditSnapshot snapshot;
+        private final ScoreBreakdown breakdown;
+        private final Map<Long, AccountType> accountTypes = new HashMap<>();
+        private final double cardLimit;
+
+        private Baseline(UserCreditData creditData) {
+            this.snapshot = CreditSnapshot.of(creditData);
+            this.breakdown = ScoringEngine.breakdown(snapshot);
+            double limit = 0;
+            if (creditData.getCreditAccounts() != null) {
+                for (CreditAccount account : creditData.getCreditAccounts()) {
+                    accountTypes.put(account.getId(), account.getType());
+                    if (account.getType() == AccountType.CREDIT_CARD) {
+                        limit += account.getCreditLimit();
+                    }
+                }
+            }
+            this.cardLimit = limit;
+        }
+
+        private CreditSnapshot apply(Scenario scenario) {
+            if (scenario == null) {
+                return snapshot;
+            }
+            double utilization = snapshot.creditUtilization() + orZero(scenario.creditUtilization());
+            double totalDebt = snapshot.totalDebt() + orZero(scenario.totalDebt());
+            int recentInquiries = adjust(snapshot.recentInquiries(), scenario.recentInquiries());
+            int newAccounts = adjust(snapshot.newAccounts(), scenario.newAccounts());
+            int accountTypeMask = snapshot.accountTypeMask();
+
+            if (scenario.balanceChanges() != null) {
+                for (BalanceChange change : scenario.balanceChanges()) {
+                    AccountType type = change != null ? accountTypes.get(change.accountId()) : null;
+                    if (type == null) {
+                        throw new IllegalArgumentException("Unknown account id: " + (change != null ? change.accountId() : null));
+                    }
+                    totalDebt += change.amount();
+                    // Utilization is revolving balance over revolving limit, so only card balances move it
+                    if (type == AccountType.CREDIT_CARD && cardLimit > 0) {
+                        utilization += change.amount() * 100 / cardLimit;
+                    }
+                }
+            }
+            if (scenario.openAccounts() != null) {
+                for (String accountType : scenario.openAccounts()) {
+                    accountTypeMask |= AccountType.fromLabel(accountType).bit();
+                    newAccounts++;
+                    recentInquiries++;
+                }
+            }
+
+            return new CreditSnapshot(adjust(snapshot.onTimePayments(), scenario.onTimePayments()),
+                    adjust(snapshot.latePayments(), scenario.latePayments()),
+                    adjust(snapshot.missedPayments(), scenario.missedPayments()),
+                    adjust(snapshot.publicRecords(), scenario.publicRecords()),
+                    Math.max(0, utilization), Math.max(0, totalDebt),
+                    adjust(snapshot.oldestAccountAge(), scenario.oldestAccountAge()),
+                    recentInquiries, newAccounts, accountTypeMask);
+        }
+
+        private static int adjust(int value, Integer delta) {
+            return delta != null ? Math.max(0, value + delta) : value;
+        }
+
+        private static double orZero(Double value) {
+            return value != null ? value : 0;
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.skillstorm.taxdemo.services;
+
+import com.skillstorm.taxdemo.dtos.CreditProfile;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+
+// Compiled form of the credit.tips rule table. Rules are flattened into parallel primitive arrays and
+// each rule is one comparison. The result for a profile is the bitmask of the rules it matched. With
+// up to PRECOMPUTED_RULES rules, the tip list for every mask is built and interned at compile time,
+// so evaluating a profile allocates nothing. Instances are immutable and swapped as a whole.
+public final class TipRuleTable {
+
+    // 2^12 precomputed lists at most; larger tables build the list for each evaluation instead
+    static final int PRECOMPUTED_RULES = 12;
+    static final int MAX_RULES = 63;
+
+    public enum Field {
+        ON_TIME_PAYMENTS, LATE_PAYMENTS, MISSED_PAYMENTS, PUBLIC_RECORDS, CREDIT_UTILIZATION, TOTAL_DEBT,
+        OLDEST_ACCOUNT_AGE, RECENT_INQUIRIES, NEW_ACCOUNTS;
+
+        // Accepts the CreditProfile property name (creditUtilization) or the constant (CREDIT_UTILIZATION)
+        public static Field parse(String name) {
+            return valueOf(name.replaceAll("([a-z])([A-Z])", "$1_$2").replace('-', '_').toUpperCase(Locale.ROOT));
+        }
+    }
+
+    public enum Operator {
+        GT, GE, LT, LE
+    }
+
+    // One row of the configured table: the tip is shown when "field operator threshold" holds
+    public record Rule(String field, String operator, double threshold, String message) {
+    }
+
+    public static final String DEFAULT_MESSAGE = "Your credit profile looks good! Keep up the good work.";
+
+    // The table used when configuration does not provide one; same thresholds as the original hard-coded tips
+    public static final List<Rule> DEFAULT_RULES = List.of(
+            new Rule("creditUtilization", "GT", 30, "Keep your credit utilization below 30% to improve your score."),
+            new Rule("missedPayments", "GT", 0, "Make all your payments on time to avoid negative marks on your credit report."),
+            new Rule("totalDebt", "GT", 50000, "Consider paying down your debt to reduce your total debt and improve your score."),
+            new Rule("recentInquiries", "GT", 2, "Limit the number of new credit inquiries to improve your score."),
+            new Rule("newAccounts", "GT", 2, "Avoid opening too many new accounts in a short period to improve your score."));
+
+    private final long generation;
+    private final List<Rule> rules;
+    private final Field[] fields;
+    private final Operator[] operators;
+    private final double[] thresholds;
+    private final String[] messages;
+    private final List<String> none;
+    private final List<String>[] byMask;
+
+    private TipRuleTable(long generation, List<Rule> rules, String defaultMessage) {
+        int size = rules.size();
+        if (size > MAX_RULES) {
+            throw new IllegalArgumentException("At most " + MAX_RULES + " tip rules are supported, got " + size);
+        }
+        this.generation = generation;
+        this.rules = List.copyOf(rules);
+        this.fields = new Field[size];
+        this.operators = new Operator[size];
+        this.thresholds = new double[size];
+        this.messages = new String[size];
+        for (int i = 0; i < size; i++) {
+            Rule rule = rules.get(i);
+            if (rule.field() == null || rule.operator() == null || rule.message() == null) {
+                throw new IllegalArgumentException("Tip rule " + i + " needs a field, an operator and a message");
+            }
+            try {
+                fields[i] = Field.parse(rule.field().trim());
+                operators[i] = Operator.valueOf(rule.operator().trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Tip rule " + i + " has an unknown field or operator: " + rule, e);
+            }
+            thresholds[i] = rule.threshold();
+            // Identical messages across generations share one instance
+            messages[i] = rule.message().intern();
+        }
+        this.none = List.of(defaultMessage.intern());
+
+        @SuppressWarnings("unchecked")
+        List<String>[] lists = size <= PRECOMPUTED_RULES ? new List[1 << size] : null;
+        if (lists != null) {
+            for (int mask = 0; mask < lists.length; mask++) {
+                lists[mask] = build(mask);
+            }
+        }
+        this.byMask = lists;
+    }
+
+    public static TipRuleTable compile(long generation, List<Rule> rules, String defaultMessage) {
+        return new TipRuleTable(generation, rules, defaultMessage != null ? defaultMessage : DEFAULT_MESSAGE);
+    }
+
+    public static TipRuleTable defaults() {
+        return compile(0, DEFAULT_RULES, DEFAULT_MESSAGE);
+    }
+
+    // Bit i is set when rule i matches
+    public long match(CreditProfile profile) {
+        long mask = 0;
+        for (int i = 0; i < fields.length; i++) {
+            if (test(operators[i], valueOf(fields[i], profile), thresholds[i])) {
+                mask |= 1L << i;
+            }
+        }
+        return mask;
+    }
+
+    public List<String> tipsFor(CreditProfile profile) {
+        return tipsFor(match(profile));
+    }
+
+    public List<String> tipsFor(long mask) {
+        if (mask == 0) {
+            return none;
+        }
+        return byMask != null ? byMask[(int) mask] : build(mask);
+    }
+
+    // Evaluates many profiles rule by rule: each pass reads a single field across the whole batch with
+    // one operator, which keeps the inner loop short and its branch predictable
+    public long[] match(List<CreditProfile> profiles) {
+        int count = profiles.size();
+        long[] masks = new long[count];
+        double[] values = new double[count];
+        for (int i = 0; i < fields.length; i++) {
+            Field field = fields[i];
+            for (int p = 0; p < count; p++) {
+                values[p] = valueOf(field, profiles.get(p));
+            }
+            Operator operator = operators[i];
+            double threshold = thresholds[i];
+            long bit = 1L << i;
+            for (int p = 0; p < count; p++) {
+                if (test(operator, values[p], threshold)) {
+                    masks[p] |= bit;
+                }
+            }
+        }
+        return masks;
+    }
+
+    public long getGeneration() {
+        return generation;
+    }
+
+    public List<Rule> getRules() {
+        return rules;
+    }
+
+    public String getDefaultMessage() {
+        return none.get(0);
+    }
+
+    // Depends only on the rule contents, so it is stable across restarts and identical reloads
+    public String getFingerprint() {
+        return Integer.toHexString(Objects.hash(rules, none));
+    }
+
+    private List<String> build(long mask) {
+        if (mask == 0) {
+            return none;
+        }
+        List<String> tips = new ArrayList<>(Long.bitCount(mask));
+        for (int i = 0; i < messages.length; i++) {
+            if ((mask & (1L << i)) != 0) {
+                tips.add(messages[i]);
+            }
+        }
+        return List.copyOf(tips);
+    }
+
+    private static boolean test(Operator operator, double value, double threshold) {
+        return switch (operator) {
+            case GT -> value > threshold;
+            case GE -> value >= threshold;
+            case LT -> value < threshold;
+            case LE -> value <= threshold;
+        };
+    }
+
+    private static double valueOf(Field field, CreditProfile profile) {
+        return switch (field) {
+            case ON_TIME_PAYMENTS -> profile.onTimePayments();
+            case LATE_PAYMENTS -> profile.latePayments();
+            case MISSED_PAYMENTS -> profile.missedPayments();
+            case PUBLIC_RECORDS -> profile.publicRecords();
+            case CREDIT_UTILIZATION -> profile.creditUtilization();
+            case TOTAL_DEBT -> profile.totalDebt();
+            case OLDEST_ACCOUNT_AGE -> profile.oldestAccountAge();
+            case RECENT_INQUIRIES -> profile.recentInquiries();
+            case NEW_ACCOUNTS -> profile.newAccounts();
+        };
+    }
+}
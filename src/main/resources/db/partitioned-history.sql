@@ -0,0 +1,30 @@
+-- Month-partitioned credit_score_history for PostgreSQL 12+. Runs before Hibernate's schema update when
+-- credit.history.partitioning.enabled is true, and is safe to run again on every start.
+--
+-- An existing flat table cannot be converted in place. Migrate it once before enabling the layout:
+--   alter table credit_score_history rename to credit_score_history_flat;
+--   (start the service with partitioning enabled, so this script creates the new table)
+--   insert into credit_score_history select * from credit_score_history_flat;
+--   select setval('credit_score_history_id_seq', (select max(id) from credit_score_history));
+--   drop table credit_score_history_flat;
+
+-- The partition key has to be part of the primary key. Identity columns are not allowed on
+-- partitioned tables before PostgreSQL 17, so ids come from a serial sequence instead.
+create table if not exists credit_score_history (
+    id bigserial not null,
+    user_id bigint not null,
+    score integer not null,
+    timestamp timestamp(6) not null,
+    resolution varchar(8),
+    min_score integer,
+    max_score integer,
+    primary key (id, timestamp)
+) partition by range (timestamp);
+
+-- Catches rows outside the monthly partitions, such as imported history older than the first partition.
+-- HistoryPartitionManager moves a month's rows out of here when it creates that month's partition.
+create table if not exists credit_score_history_default partition of credit_score_history default;
+
+-- Created on the parent so every partition gets its own copy
+create index if not exists idx_credit_score_history_user_ts_id on credit_score_history (user_id, timestamp desc, id desc, score);
+create index if not exists idx_credit_score_history_ts on credit_score_history (timestamp);
@@ -0,0 +1,53 @@
+package com.skillstorm.taxdemo;
+
+import com.skillstorm.taxdemo.controllers.ConcurrencyLimitFilter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ConcurrencyLimitFilterTest {
+
+    private static MockHttpServletRequest request() {
+        return new MockHttpServletRequest("GET", "/api/credit/score");
+    }
+
+    @Test
+    public void testRequestsBeyondLimitAreRejectedAndPermitsAreReturned() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(registry, true, 1, 0);
+        MockHttpServletResponse inner = new MockHttpServletResponse();
+        AtomicInteger served = new AtomicInteger();
+
+        // While the first request holds the only permit, a second one is turned away
+        filter.doFilter(request(), new MockHttpServletResponse(), (req, res) -> {
+            served.incrementAndGet();
+            filter.doFilter(request(), inner, (innerReq, innerRes) -> served.incrementAndGet());
+        });
+        assertEquals(1, served.get());
+        assertEquals(503, inner.getStatus());
+        assertEquals(1.0, registry.get("credit.concurrency.rejected").counter().count());
+
+        MockHttpServletResponse after = new MockHttpServletResponse();
+        filter.doFilter(request(), after, (req, res) -> served.incrementAndGet());
+        assertEquals(2, served.get());
+        assertEquals(200, after.getStatus());
+        assertEquals(0.0, registry.get("credit.concurrency.in-flight").gauge().value());
+    }
+
+    @Test
+    public void testDisabledFilterPassesEverythingThrough() throws Exception {
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(new SimpleMeterRegistry(), false, 0, 0);
+        AtomicInteger served = new AtomicInteger();
+
+        filter.doFilter(request(), new MockHttpServletResponse(), (req, res) -> served.incrementAndGet());
+
+        assertEquals(1, served.get());
+    }
+}
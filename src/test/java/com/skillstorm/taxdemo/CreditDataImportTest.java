@@ -0,0 +1,178 @@
+package com.skillstorm.taxdemo;
+
+import com.skillstorm.taxdemo.models.CreditAccount;
+import com.skillstorm.taxdemo.models.UserCreditData;
+import com.skillstorm.taxdemo.repositories.UserCreditDataRepository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:import;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "eureka.client.enabled=false",
+        "credit.rescore.resume-on-startup=false"
+})
+@AutoConfigureMockMvc
+public class CreditDataImportTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserCreditDataRepository userCreditDataRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void setUp() {
+        userCreditDataRepository.deleteAll();
+    }
+
+    private static String ndjsonLine(long userId, int onTime, String... accountTypes) {
+        List<String> accounts = new ArrayList<>();
+        for (String type : accountTypes) {
+            accounts.add("{\"accountType\":\"" + type + "\",\"balance\":1000,\"creditLimit\":5000}");
+        }
+        return "{\"userId\":" + userId + ",\"onTimePayments\":" + onTime + ",\"latePayments\":1,\"creditUtilization\":25,"
+                + "\"totalDebt\":20000,\"oldestAccountAge\":60,\"creditAccounts\":[" + String.join(",", accounts) + "]}\n";
+    }
+
+    private JsonNode importBody(String body, MediaType contentType, String mode, int chunkSize) throws Exception {
+        return objectMapper.readTree(mockMvc.perform(post("/api/credit/data/import")
+                .param("mode", mode)
+                .param("chunkSize", String.valueOf(chunkSize))
+                .contentType(contentType)
+                .content(body))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+    }
+
+    @Test
+    public void testNdjsonImportReportsBadLinesAndKeepsTheRest() throws Exception {
+        StringBuilder body = new StringBuilder();
+        for (long userId = 1; userId <= 25; userId++) {
+            body.append(ndjsonLine(userId, 10, "credit card", "loan"));
+        }
+        body.append("{not json\n");
+        body.append("{\"onTimePayments\":3}\n");
+        body.append(ndjsonLine(3, 99, "loan"));
+
+        JsonNode result = importBody(body.toString(), MediaType.APPLICATION_NDJSON, "insert", 10);
+
+        assertEquals(28, result.get("lines").asLong());
+        assertEquals(25, result.get("inserted").asLong());
+        assertEquals(3, result.get("failed").asLong());
+        List<Long> failedLines = new ArrayList<>();
+        result.get("errors").forEach(error -> failedLines.add(error.get("line").asLong()));
+        assertTrue(failedLines.containsAll(List.of(26L, 27L, 28L)), failedLines.toString());
+
+        assertEquals(25, userCreditDataRepository.count());
+        assertEquals(50, jdbcTemplate.queryForObject("select count(*) from credit_account", Long.class));
+        UserCreditData user = userCreditDataRepository.findWithAccountsByUserId(3L).orElseThrow();
+        assertEquals(10, user.getOnTimePayments());
+        assertEquals(2, user.getCreditAccounts().size());
+        assertTrue(user.getAccountTypeMask() != null && user.getAccountTypeMask() != 0);
+    }
+
+    @Test
+    public void testUpsertReplacesExistingUsersAndInsertsNewOnes() throws Exception {
+        importBody(ndjsonLine(1, 10, "credit card", "loan") + ndjsonLine(2, 10, "loan"), MediaType.APPLICATION_NDJSON,
+                "insert", 100);
+        Long versionBefore = userCreditDataRepository.findByUserId(1L).orElseThrow().getVersion();
+
+        JsonNode result = importBody(ndjsonLine(1, 42, "mortgage") + ndjsonLine(5, 7, "loan"), MediaType.APPLICATION_NDJSON,
+                "upsert", 100);
+
+        assertEquals(1, result.get("inserted").asLong());
+        assertEquals(1, result.get("updated").asLong());
+        UserCreditData updated = userCreditDataRepository.findWithAccountsByUserId(1L).orElseThrow();
+        assertEquals(42, updated.getOnTimePayments());
+        assertEquals(1, updated.getCreditAccounts().size());
+        assertEquals("mortgage", updated.getCreditAccounts().get(0).getAccountType());
+        assertTrue(updated.getVersion() > versionBefore);
+        assertEquals(3, jdbcTemplate.queryForObject("select count(*) from credit_account", Long.class));
+    }
+
+    @Test
+    public void testUpsertMergesAccountsById() throws Exception {
+        importBody(ndjsonLine(1, 10, "credit card", "loan") + ndjsonLine(2, 10, "mortgage"), MediaType.APPLICATION_NDJSON,
+                "insert", 100);
+        UserCreditData before = userCreditDataRepository.findWithAccountsByUserId(1L).orElseThrow();
+        Long cardId = before.getCreditAccounts().stream().filter(a -> a.getAccountType().equals("credit card")).findFirst()
+                .orElseThrow().getId();
+        Long otherUsersAccountId = userCreditDataRepository.findWithAccountsByUserId(2L).orElseThrow().getCreditAccounts().get(0).getId();
+
+        // Keeps the card (new balance), drops the loan and adds an auto loan; then a line naming user 2's account
+        String body = "{\"userId\":1,\"onTimePayments\":11,\"creditAccounts\":[{\"id\":" + cardId
+                + ",\"accountType\":\"credit card\",\"balance\":250,\"creditLimit\":5000},"
+                + "{\"accountType\":\"auto loan\",\"balance\":9000,\"creditLimit\":9000}]}\n"
+                + "{\"userId\":3,\"onTimePayments\":1,\"creditAccounts\":[]}\n"
+                + "{\"userId\":1,\"onTimePayments\":12,\"creditAccounts\":[{\"id\":" + otherUsersAccountId
+                + ",\"accountType\":\"mortgage\",\"balance\":1,\"creditLimit\":1}]}\n";
+        JsonNode result = importBody(body, MediaType.APPLICATION_NDJSON, "upsert", 100);
+
+        assertEquals(1, result.get("failed").asLong());
+        assertEquals(3, result.get("errors").get(0).get("line").asLong());
+        UserCreditData after = userCreditDataRepository.findWithAccountsByUserId(1L).orElseThrow();
+        assertEquals(11, after.getOnTimePayments());
+        assertEquals(2, after.getCreditAccounts().size());
+        CreditAccount card = after.getCreditAccounts().stream().filter(a -> a.getId().equals(cardId)).findFirst().orElseThrow();
+        assertEquals(250, card.getBalance());
+        assertTrue(after.getCreditAccounts().stream().anyMatch(a -> a.getAccountType().equals("auto loan")));
+        assertEquals(1, userCreditDataRepository.findWithAccountsByUserId(2L).orElseThrow().getCreditAccounts().size());
+    }
+
+    @Test
+    public void testUserIdIsUnique() throws Exception {
+        importBody(ndjsonLine(1, 10, "loan"), MediaType.APPLICATION_NDJSON, "insert", 100);
+
+        assertThrows(DuplicateKeyException.class, () -> jdbcTemplate.update("insert into user_credit_data "
+                + "(id, user_id, on_time_payments, late_payments, missed_payments, public_records, credit_utilization, total_debt, "
+                + "oldest_account_age, recent_inquiries, new_accounts) values (999999, 1, 0, 0, 0, 0, 0, 0, 0, 0, 0)"));
+        mockMvc.perform(post("/api/credit/data").contentType(MediaType.APPLICATION_JSON).content(ndjsonLine(1, 5, "loan")))
+                .andExpect(status().isConflict());
+        assertEquals(1, userCreditDataRepository.count());
+    }
+
+    @Test
+    public void testCsvImportWithQuotedAccounts() throws Exception {
+        String csv = "userId,onTimePayments,latePayments,creditUtilization,totalDebt,oldestAccountAge,creditAccounts\n"
+                + "11,20,0,10,5000,120,\"credit card:100:1000;loan:2000:3000\"\n"
+                + "12,x,0,10,5000,120,\n"
+                + "13,5,2,60,70000,24,\n";
+
+        JsonNode result = importBody(csv, MediaType.parseMediaType("text/csv"), "insert", 2);
+
+        assertEquals(3, result.get("lines").asLong());
+        assertEquals(2, result.get("inserted").asLong());
+        assertEquals(3, result.get("errors").get(0).get("line").asLong());
+        assertEquals(2, userCreditDataRepository.findWithAccountsByUserId(11L).orElseThrow().getCreditAccounts().size());
+        assertEquals(0, userCreditDataRepository.findWithAccountsByUserId(13L).orElseThrow().getCreditAccounts().size());
+    }
+}
@@ -0,0 +1,116 @@
+package com.skillstorm.taxdemo;
+
+import com.skillstorm.taxdemo.dtos.CreditDataPatch;
+import com.skillstorm.taxdemo.dtos.CreditDataPatch.AccountPatch;
+import com.skillstorm.taxdemo.models.AccountType;
+import com.skillstorm.taxdemo.models.CreditAccount;
+import com.skillstorm.taxdemo.models.UserCreditData;
+import com.skillstorm.taxdemo.repositories.UserCreditDataRepository;
+import com.skillstorm.taxdemo.services.CreditDataService;
+import com.skillstorm.taxdemo.services.CreditScoreCache;
+import com.skillstorm.taxdemo.services.CurrentScoreService;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CreditDataServiceTest {
+
+    @Mock
+    private UserCreditDataRepository userCreditDataRepository;
+
+    @Mock
+    private CreditScoreCache creditScoreCache;
+
+    @Mock
+    private CurrentScoreService currentScoreService;
+
+    @InjectMocks
+    private CreditDataService creditDataService;
+
+    private UserCreditData existing;
+    private CreditAccount card;
+    private CreditAccount loan;
+
+    @BeforeEach
+    public void setUp() {
+        card = new CreditAccount(10L, "credit card", 1000.0, 5000.0, null);
+        loan = new CreditAccount(11L, "loan", 15000.0, 15000.0, null);
+        existing = new UserCreditData(1L, 1L, 10, 2, 1, 0, 25, 30000, 60, new ArrayList<>(List.of(card, loan)), 1, 1);
+        existing.refreshAccountTypeMask();
+        when(userCreditDataRepository.findWithAccountsByUserId(1L)).thenReturn(Optional.of(existing));
+    }
+
+    @Test
+    public void testUpdateMergesAccountsById() {
+        UserCreditData update = new UserCreditData(null, 1L, 10, 2, 1, 0, 25, 30000, 60, List.of(
+                new CreditAccount(10L, "credit card", 900.0, 5000.0, null),
+                new CreditAccount(null, "mortgage", 200000.0, 250000.0, null)), 1, 1);
+
+        UserCreditData saved = creditDataService.update(1L, update);
+
+        assertEquals(2, saved.getCreditAccounts().size());
+        assertSame(card, saved.getCreditAccounts().get(0)); // updated in place, not replaced
+        assertEquals(900.0, card.getBalance());
+        assertEquals(AccountType.MORTGAGE, saved.getCreditAccounts().get(1).getType());
+        assertEquals(AccountType.CREDIT_CARD.bit() | AccountType.MORTGAGE.bit(), (int) saved.getAccountTypeMask());
+        verify(creditScoreCache).invalidate(1L);
+    }
+
+    @Test
+    public void testCacheIsInvalidatedOnlyAfterCommit() {
+        UserCreditData update = new UserCreditData(null, 1L, 11, 2, 1, 0, 25, 30000, 60, List.of(card, loan), 1, 1);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            creditDataService.update(1L, update);
+            verify(creditScoreCache, never()).invalidate(1L);
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(creditScoreCache).invalidate(1L);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void testPatchLeavesUnspecifiedFieldsAndDirtiesRowForInPlaceEdits() {
+        CreditDataPatch patch = new CreditDataPatch(null, null, null, null, null, null, null, null, null,
+                List.of(new AccountPatch(11L, null, 14000.0, null)), null);
+
+        creditDataService.patch(1L, patch);
+
+        assertEquals(10, existing.getOnTimePayments());
+        assertEquals(14000.0, loan.getBalance());
+        assertEquals(15000.0, loan.getCreditLimit());
+        assertEquals(2, existing.getCreditAccounts().size());
+        assertNotNull(existing.getLastModified()); // dirties the row so Hibernate bumps its version
+    }
+
+    @Test
+    public void testAccountsOfOtherUsersAreRejected() {
+        CreditDataPatch patch = new CreditDataPatch(null, null, null, null, null, null, null, null, null,
+                List.of(new AccountPatch(99L, null, 1.0, null)), null);
+
+        assertThrows(IllegalArgumentException.class, () -> creditDataService.patch(1L, patch));
+        assertThrows(IllegalArgumentException.class, () -> creditDataService.patch(1L,
+                new CreditDataPatch(null, null, null, null, null, null, null, null, null, null, List.of(99L))));
+        verify(creditScoreCache, never()).invalidate(any());
+    }
+}
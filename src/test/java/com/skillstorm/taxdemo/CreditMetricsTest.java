@@ -0,0 +1,114 @@
+package com.skillstorm.taxdemo;
+
+import com.skillstorm.taxdemo.metrics.CreditMetrics;
+import com.skillstorm.taxdemo.metrics.CreditMetrics.Operation;
+import com.skillstorm.taxdemo.metrics.CreditMetrics.OperationSplit;
+import com.skillstorm.taxdemo.metrics.CreditMetrics.Phase;
+import com.skillstorm.taxdemo.models.AccountType;
+import com.skillstorm.taxdemo.scoring.CreditSnapshot;
+import com.skillstorm.taxdemo.scoring.ScoringEngine;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+public class CreditMetricsTest {
+
+    private SimpleMeterRegistry registry;
+    private MutableClock clock;
+    private CreditMetrics metrics;
+
+    @BeforeEach
+    public void setUp() {
+        registry = new SimpleMeterRegistry();
+        clock = new MutableClock();
+        metrics = new CreditMetrics(registry, clock, true, 60_000, 10_000);
+    }
+
+    @Test
+    public void testTimedScoreMatchesScoringEngine() {
+        CreditSnapshot credit = new CreditSnapshot(40, 3, 2, 1, 65, 72000, 130, 4, 3,
+                AccountType.CREDIT_CARD.bit() | AccountType.LOAN.bit());
+
+        assertEquals(ScoringEngine.score(credit), metrics.score(credit));
+        assertEquals(1, registry.get("credit.scoring.component").tag("component", "credit-mix").timer().count());
+    }
+
+    @Test
+    public void testSplitSharesAddUpPerOperation() {
+        metrics.begin(Operation.SCORE);
+        metrics.record(Operation.SCORE, Phase.DB, TimeUnit.MILLISECONDS.toNanos(3));
+        metrics.record(Operation.SCORE, Phase.COMPUTE, TimeUnit.MILLISECONDS.toNanos(1));
+        metrics.begin(Operation.SCORE);
+        metrics.record(Operation.SCORE, Phase.DB, TimeUnit.MILLISECONDS.toNanos(5));
+        metrics.record(Operation.SCORE, Phase.COMPUTE, TimeUnit.MILLISECONDS.toNanos(1));
+
+        OperationSplit score = metrics.recentSplit().get(Operation.SCORE);
+        assertEquals(2, score.requests());
+        assertEquals(8.0, score.phases().get(Phase.DB).totalMs(), 1e-9);
+        assertEquals(4.0, score.phases().get(Phase.DB).meanMs(), 1e-9);
+        assertEquals(0.8, score.phases().get(Phase.DB).share(), 1e-9);
+        assertEquals(0.2, score.phases().get(Phase.COMPUTE).share(), 1e-9);
+        assertEquals(0, metrics.recentSplit().get(Operation.TIPS).requests());
+    }
+
+    @Test
+    public void testOldBucketsLeaveTheWindowButMetersKeepCounting() {
+        metrics.begin(Operation.TIPS);
+        metrics.record(Operation.TIPS, Phase.DB, 1_000_000);
+
+        clock.advance(50_000);
+        assertEquals(1, metrics.recentSplit().get(Operation.TIPS).requests());
+
+        clock.advance(20_000);
+        assertEquals(0, metrics.recentSplit().get(Operation.TIPS).requests());
+        assertEquals(1, registry.get("credit.request.phase").tag("operation", "tips").tag("phase", "db").timer().count());
+    }
+
+    @Test
+    public void testNoMeterIsTaggedPerUser() {
+        for (Meter meter : registry.getMeters()) {
+            assertFalse(meter.getId().getTags().stream().anyMatch(tag -> tag.getKey().toLowerCase().contains("user")),
+                    meter.getId().toString());
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+        private long millis = 1_000_000;
+
+        void advance(long delta) {
+            millis += delta;
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.skillstorm.taxdemo;
+
+import com.skillstorm.taxdemo.repositories.UserCreditDataRepository;
+import com.skillstorm.taxdemo.services.CreditScoreCache;
+import com.skillstorm.taxdemo.services.CreditScoreCache.Endpoint;
+import com.skillstorm.taxdemo.services.CreditScoreCache.Versioned;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CreditScoreCacheTest {
+
+    @Mock
+    private UserCreditDataRepository userCreditDataRepository;
+
+    private MutableClock clock;
+    private CreditScoreCache cache;
+    private AtomicInteger loads;
+    private Function<Long, Versioned<Integer>> loader;
+
+    @BeforeEach
+    public void setUp() {
+        clock = new MutableClock();
+        cache = new CreditScoreCache(userCreditDataRepository, new SimpleMeterRegistry(), clock,
+                true, true, false, 2, 1_000, 10_000);
+        loads = new AtomicInteger();
+        loader = userId -> new Versioned<>(1L, 700 + loads.incrementAndGet());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        cache.shutdown();
+    }
+
+    @Test
+    public void testFreshEntryIsServedWithoutDatabaseAccess() {
+        assertEquals(701, (int) cache.get(1L, Endpoint.SCORE, loader));
+        assertEquals(701, (int) cache.get(1L, Endpoint.SCORE, loader));
+
+        assertEquals(1, loads.get());
+        verifyNoInteractions(userCreditDataRepository);
+    }
+
+    @Test
+    public void testExpiredEntryWithSameVersionIsNotRecomputed() {
+        cache.get(1L, Endpoint.SCORE, loader);
+        when(userCreditDataRepository.findVersionByUserId(1L)).thenReturn(Optional.of(1L));
+
+        clock.advance(20_000);
+
+        assertEquals(701, (int) cache.get(1L, Endpoint.SCORE, loader));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void testExpiredEntryWithNewVersionIsRecomputed() {
+        cache.get(1L, Endpoint.SCORE, loader);
+        when(userCreditDataRepository.findVersionByUserId(1L)).thenReturn(Optional.of(2L));
+
+        clock.advance(20_000);
+
+        assertEquals(702, (int) cache.get(1L, Endpoint.SCORE, loader));
+    }
+
+    @Test
+    public void testInvalidateForcesReload() {
+        cache.get(1L, Endpoint.SCORE, loader);
+        cache.invalidate(1L);
+
+        assertEquals(702, (int) cache.get(1L, Endpoint.SCORE, loader));
+    }
+
+    @Test
+    public void testSizeBoundEvictsLeastRecentlyUsed() {
+        cache.get(1L, Endpoint.SCORE, loader);
+        cache.get(2L, Endpoint.SCORE, loader);
+        cache.get(3L, Endpoint.SCORE, loader);
+
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testDisabledEndpointAlwaysLoads() {
+        cache.get(1L, Endpoint.TIPS, loader);
+        cache.get(1L, Endpoint.TIPS, loader);
+
+        assertEquals(2, loads.get());
+        assertEquals(0, cache.size());
+    }
+
+    private static final class MutableClock extends Clock {
+        private long millis = 1_000_000;
+
+        void advance(long delta) {
+            millis += delta;
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(java.time.ZoneId zone) {
+            return this;
+        }
+    }
+}
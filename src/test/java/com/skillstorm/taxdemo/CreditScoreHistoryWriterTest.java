@@ -0,0 +1,170 @@
+package com.skillstorm.taxdemo;
+
+import com.skillstorm.taxdemo.models.CreditScoreHistory;
+import com.skillstorm.taxdemo.repositories.CreditScoreHistoryRepository;
+import com.skillstorm.taxdemo.services.CreditScoreHistoryWriter;
+import com.skillstorm.taxdemo.services.CreditScoreHistoryWriter.DurabilityMode;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CreditScoreHistoryWriterTest {
+
+    @Mock
+    private CreditScoreHistoryRepository creditScoreHistoryRepository;
+
+    private CreditScoreHistoryWriter writer;
+
+    private CreditScoreHistoryWriter newWriter(DurabilityMode mode, boolean skipUnchanged) {
+        // Long flush interval so only the size trigger, WAIT_FOR_FLUSH or shutdown cause a flush
+        writer = new CreditScoreHistoryWriter(creditScoreHistoryRepository, new SimpleMeterRegistry(),
+                true, mode, 100, 3, 60_000, 50, 5_000, skipUnchanged, 1000, 3, 400);
+        return writer;
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (writer != null) {
+            writer.shutdown();
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testQueuedRowsAreWrittenAsOneBatchOnShutdown() {
+        newWriter(DurabilityMode.FIRE_AND_FORGET, false);
+
+        writer.record(1L, 700, LocalDateTime.now());
+        writer.record(2L, 710, LocalDateTime.now());
+        verify(creditScoreHistoryRepository, never()).batchInsert(anyList());
+
+        writer.shutdown();
+
+        ArgumentCaptor<List<CreditScoreHistory>> captor = ArgumentCaptor.forClass(List.class);
+        verify(creditScoreHistoryRepository, times(1)).batchInsert(captor.capture());
+        assertEquals(2, captor.getValue().size());
+        assertEquals(0, writer.getQueueDepth());
+    }
+
+    @Test
+    public void testWaitForFlushReturnsAfterRowIsWritten() {
+        newWriter(DurabilityMode.WAIT_FOR_FLUSH, false);
+
+        writer.record(1L, 700, LocalDateTime.now());
+
+        verify(creditScoreHistoryRepository, times(1)).batchInsert(anyList());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testFailedFireAndForgetBatchIsRetried() {
+        newWriter(DurabilityMode.FIRE_AND_FORGET, false);
+        doThrow(new RuntimeException("database unavailable")).doNothing().when(creditScoreHistoryRepository).batchInsert(anyList());
+
+        writer.record(1L, 700, LocalDateTime.now());
+        writer.record(2L, 710, LocalDateTime.now());
+        writer.shutdown();
+
+        ArgumentCaptor<List<CreditScoreHistory>> captor = ArgumentCaptor.forClass(List.class);
+        verify(creditScoreHistoryRepository, times(2)).batchInsert(captor.capture());
+        assertEquals(2, captor.getAllValues().get(1).size());
+    }
+
+    @Test
+    public void testUnchangedScoresAreSkipped() {
+        newWriter(DurabilityMode.WAIT_FOR_FLUSH, true);
+        // Skips are decided by the last stored row: none yet, then the 700 just written
+        when(creditScoreHistoryRepository.findLatestByUserIds(eq(Set.of(1L)), any()))
+                .thenReturn(List.of(), List.of(new CreditScoreHistory(1L, 1L, 700, LocalDateTime.now())));
+
+        writer.record(1L, 700, LocalDateTime.now());
+        writer.record(1L, 700, LocalDateTime.now());
+        // Known to differ from the last written score, so no lookup is needed
+        writer.record(1L, 705, LocalDateTime.now());
+
+        verify(creditScoreHistoryRepository, times(2)).batchInsert(anyList());
+        verify(creditScoreHistoryRepository, times(2)).findLatestByUserIds(anyCollection(), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testSkipCheckRunsOncePerBatchOffTheCallerThread() {
+        newWriter(DurabilityMode.FIRE_AND_FORGET, true);
+        when(creditScoreHistoryRepository.findLatestByUserIds(eq(Set.of(1L, 2L)), any()))
+                .thenReturn(List.of(new CreditScoreHistory(9L, 1L, 700, LocalDateTime.now())));
+
+        writer.record(1L, 700, LocalDateTime.now());
+        writer.record(2L, 710, LocalDateTime.now());
+        writer.record(2L, 710, LocalDateTime.now());
+        verify(creditScoreHistoryRepository, never()).findLatestByUserIds(anyCollection(), any());
+
+        writer.shutdown();
+
+        ArgumentCaptor<List<CreditScoreHistory>> captor = ArgumentCaptor.forClass(List.class);
+        verify(creditScoreHistoryRepository, times(1)).findLatestByUserIds(anyCollection(), any());
+        verify(creditScoreHistoryRepository, times(1)).batchInsert(captor.capture());
+        // User 1 is unchanged from its stored row and user 2's second row repeats its first
+        assertEquals(1, captor.getValue().size());
+        assertEquals(2L, captor.getValue().get(0).getUserId());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testRowsRecordedDuringShutdownAreAllWritten() throws Exception {
+        newWriter(DurabilityMode.FIRE_AND_FORGET, false);
+        List<Integer> written = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(invocation -> {
+            written.add(((List<CreditScoreHistory>) invocation.getArgument(0)).size());
+            return null;
+        }).when(creditScoreHistoryRepository).batchInsert(anyList());
+
+        int threads = 4;
+        int rowsPerThread = 500;
+        CountDownLatch started = new CountDownLatch(threads);
+        List<Thread> recorders = new ArrayList<>();
+        List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+        for (int t = 0; t < threads; t++) {
+            long userId = t;
+            Thread recorder = new Thread(() -> {
+                started.countDown();
+                try {
+                    for (int i = 0; i < rowsPerThread; i++) {
+                        writer.record(userId, 300 + i % 500, LocalDateTime.now());
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            });
+            recorders.add(recorder);
+            recorder.start();
+        }
+        started.await();
+        writer.shutdown();
+        for (Thread recorder : recorders) {
+            recorder.join();
+        }
+
+        // Every row was either queued before the final drain or written by its caller afterwards
+        assertEquals(List.of(), failures);
+        assertEquals(threads * rowsPerThread, written.stream().mapToInt(Integer::intValue).sum());
+    }
+}
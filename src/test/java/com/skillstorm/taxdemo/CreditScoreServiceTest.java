@@ -2,29 +2,63 @@
 
 package com.skillstorm.taxdemo;
 
+import com.skillstorm.taxdemo.dtos.BatchScoreResponse;
+import com.skillstorm.taxdemo.dtos.BatchTipsResponse;
+import com.skillstorm.taxdemo.dtos.CreditDataStamp;
+import com.skillstorm.taxdemo.dtos.CreditProfile;
+import com.skillstorm.taxdemo.dtos.HistoryEntry;
+import com.skillstorm.taxdemo.dtos.HistoryWindow;
+import com.skillstorm.taxdemo.metrics.CreditMetrics;
+import com.skillstorm.taxdemo.metrics.CreditMetrics.OperationSplit;
+import com.skillstorm.taxdemo.metrics.CreditMetrics.Operation;
+import com.skillstorm.taxdemo.metrics.CreditMetrics.Phase;
 import com.skillstorm.taxdemo.models.CreditAccount;
 import com.skillstorm.taxdemo.models.CreditScoreHistory;
+import com.skillstorm.taxdemo.models.HistoryResolution;
 import com.skillstorm.taxdemo.models.UserCreditData;
 import com.skillstorm.taxdemo.repositories.CreditScoreHistoryRepository;
 import com.skillstorm.taxdemo.repositories.UserCreditDataRepository;
+import com.skillstorm.taxdemo.services.CreditImprovementTips;
+import com.skillstorm.taxdemo.services.CreditReportWriter;
+import com.skillstorm.taxdemo.services.CreditScoreCache;
+import com.skillstorm.taxdemo.services.CreditScoreCache.Versioned;
+import com.skillstorm.taxdemo.services.CreditScoreHistoryWriter;
 import com.skillstorm.taxdemo.services.CreditScoreService;
+import com.skillstorm.taxdemo.services.CurrentScoreService;
+import com.skillstorm.taxdemo.services.TipRuleTable;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.io.StringWriter;
+import java.time.Clock;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -36,14 +70,38 @@ public class CreditScoreServiceTest {
     @Mock
     private CreditScoreHistoryRepository creditScoreHistoryRepository;
 
+    @Mock
+    private CreditScoreHistoryWriter creditScoreHistoryWriter;
+
+    @Mock
+    private CreditScoreCache creditScoreCache;
+
+    @Mock
+    private CurrentScoreService currentScoreService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Spy
+    private CreditImprovementTips creditImprovementTips = new CreditImprovementTips(TipRuleTable.defaults());
+
+    @Spy
+    private CreditMetrics creditMetrics = new CreditMetrics(new SimpleMeterRegistry(), Clock.systemUTC(), true, 60_000, 1_000);
+
     @InjectMocks
     private CreditScoreService creditScoreService;
 
     private UserCreditData userCreditData;
     private CreditScoreHistory creditScoreHistory;
+    private HistoryEntry historyEntry;
 
     @BeforeEach
+    @SuppressWarnings("unchecked")
     public void setUp() {
+        // Cache passes straight through to the loader so every test exercises the real computation
+        lenient().when(creditScoreCache.get(any(), any(), any())).thenAnswer(invocation ->
+                ((Function<Long, Versioned<?>>) invocation.getArgument(2)).apply(invocation.getArgument(0)).value());
+
         List<CreditAccount> creditAccounts = new ArrayList<>();
         creditAccounts.add(new CreditAccount(1L, "credit card", 1000.0, 5000.0, null));
         creditAccounts.add(new CreditAccount(2L, "loan", 15000.0, 15000.0, null));
@@ -60,28 +118,48 @@ public class CreditScoreServiceTest {
         userCreditData.setRecentInquiries(1);
         userCreditData.setNewAccounts(1);
         userCreditData.setCreditAccounts(creditAccounts);
+        userCreditData.refreshAccountTypeMask();
 
         creditScoreHistory = new CreditScoreHistory();
         creditScoreHistory.setUserId(1L);
         creditScoreHistory.setScore(750);
         creditScoreHistory.setTimestamp(LocalDateTime.now());
+
+        historyEntry = HistoryEntry.raw(1L, 750, creditScoreHistory.getTimestamp());
+    }
+
+    private static CreditProfile profileOf(UserCreditData data) {
+        return new CreditProfile(data.getUserId(), data.getOnTimePayments(), data.getLatePayments(), data.getMissedPayments(),
+                data.getPublicRecords(), data.getCreditUtilization(), data.getTotalDebt(), data.getOldestAccountAge(),
+                data.getRecentInquiries(), data.getNewAccounts(), data.getAccountTypeMask(), data.getVersion());
     }
 
     @Test
     public void testCalculateFICOScore() {
-        when(userCreditDataRepository.findByUserId(1L)).thenReturn(Optional.of(userCreditData));
-        when(creditScoreHistoryRepository.save(any(CreditScoreHistory.class))).thenReturn(creditScoreHistory);
+        when(userCreditDataRepository.findProfileByUserId(1L)).thenReturn(Optional.of(profileOf(userCreditData)));
 
         int score = creditScoreService.calculateFICOScore(1L);
 
         assertEquals(714, score);
-        verify(creditScoreHistoryRepository, times(1)).save(any(CreditScoreHistory.class));
+        verify(creditScoreHistoryWriter, times(1)).record(eq(1L), eq(714), any(LocalDateTime.class));
+        verify(userCreditDataRepository, never()).findWithAccountsByUserId(any());
+        // Queueing the history row is its own phase; the database write is timed by the writer's flush
+        verify(creditMetrics).lap(eq(Operation.SCORE), eq(Phase.ENQUEUE), anyLong());
+    }
+
+    @Test
+    public void testCalculateFICOScoreLoadsAccountsWhenMaskIsNotBackfilled() {
+        userCreditData.setAccountTypeMask(null);
+        when(userCreditDataRepository.findProfileByUserId(1L)).thenReturn(Optional.of(profileOf(userCreditData)));
+        when(userCreditDataRepository.findWithAccountsByUserId(1L)).thenReturn(Optional.of(userCreditData));
+
+        assertEquals(714, creditScoreService.calculateFICOScore(1L));
     }
 
     @Test
     public void testGetCreditScoreHistory() {
         List<CreditScoreHistory> historyList = Collections.singletonList(creditScoreHistory);
-        when(creditScoreHistoryRepository.findByUserIdOrderByTimestampDesc(1L)).thenReturn(historyList);
+        when(creditScoreHistoryRepository.findHistory(eq(1L), any(), any())).thenReturn(historyList);
 
         List<CreditScoreHistory> result = creditScoreService.getCreditScoreHistory(1L);
 
@@ -91,19 +169,60 @@ public class CreditScoreServiceTest {
 
     @Test
     public void testGenerateCreditReport() {
-        when(userCreditDataRepository.findByUserId(1L)).thenReturn(Optional.of(userCreditData));
-        when(creditScoreHistoryRepository.findByUserIdOrderByTimestampDesc(1L)).thenReturn(Arrays.asList(creditScoreHistory));
-        when(creditScoreHistoryRepository.findTopByUserIdOrderByTimestampDesc(1L)).thenReturn(Optional.of(creditScoreHistory));
+        when(userCreditDataRepository.findWithAccountsByUserId(1L)).thenReturn(Optional.of(userCreditData));
+        when(creditScoreHistoryRepository.streamHistory(eq(1L), any(), any())).thenReturn(Stream.of(historyEntry));
 
-        String report = creditScoreService.generateCreditReport(1L);
+        String report = textReport(1L);
 
         assertEquals(true, report.contains("Credit Report for User ID: 1"));
         assertEquals(true, report.contains("750"));
     }
 
+    @Test
+    public void testGenerateCreditReportRecordsDbAndSerializationSplit() {
+        when(userCreditDataRepository.findWithAccountsByUserId(1L)).thenReturn(Optional.of(userCreditData));
+        when(creditScoreHistoryRepository.streamHistory(eq(1L), any(), any())).thenReturn(Stream.of(historyEntry));
+
+        textReport(1L);
+
+        OperationSplit report = creditMetrics.recentSplit().get(Operation.REPORT);
+        assertEquals(1, report.requests());
+        assertTrue(report.phases().get(Phase.DB).totalMs() > 0);
+        assertTrue(report.phases().get(Phase.SERIALIZATION).totalMs() > 0);
+        assertEquals(0, report.phases().get(Phase.COMPUTE).totalMs());
+        verify(creditMetrics).accountsLoaded(Operation.REPORT, 2);
+        verify(creditMetrics).historyRead(Operation.REPORT, 1);
+    }
+
+    @Test
+    public void testReportDataIsTheSameWhetherFetchedConcurrentlyOrNot() {
+        CreditDataStamp stamp = new CreditDataStamp(3L, null, 7L, historyEntry.timestamp());
+        when(userCreditDataRepository.findReportStampByUserId(eq(1L), any())).thenReturn(Optional.of(stamp));
+        when(userCreditDataRepository.findWithAccountsByUserId(1L)).thenReturn(Optional.of(userCreditData));
+        when(userCreditDataRepository.findWithAccountsByUserId(2L)).thenReturn(Optional.empty());
+
+        for (boolean concurrent : new boolean[] { false, true }) {
+            ReflectionTestUtils.setField(creditScoreService, "concurrentReportFetch", concurrent);
+            ReflectionTestUtils.setField(creditScoreService, "reportFetchTimeoutMs", 5000L);
+            ReflectionTestUtils.setField(creditScoreService, "reportFetchExecutor", new SimpleAsyncTaskExecutor());
+
+            List<Optional<CreditDataStamp>> checked = new ArrayList<>();
+            assertSame(userCreditData, creditScoreService.getCreditReportData(1L, s -> {
+                checked.add(s);
+                return false;
+            }).orElseThrow());
+            assertEquals(List.of(Optional.of(stamp)), checked);
+            // A 304 streams nothing
+            assertTrue(creditScoreService.getCreditReportData(1L, s -> true).isEmpty());
+
+            RuntimeException missing = assertThrows(RuntimeException.class, () -> creditScoreService.getCreditReportData(2L, s -> false));
+            assertEquals("User Credit Data not found for userId: 2", missing.getMessage());
+        }
+    }
+
     @Test
     public void testGetCreditImprovementTips() {
-        when(userCreditDataRepository.findByUserId(1L)).thenReturn(Optional.of(userCreditData));
+        when(userCreditDataRepository.findProfileByUserId(1L)).thenReturn(Optional.of(profileOf(userCreditData)));
 
         List<String> tips = creditScoreService.getCreditImprovementTips(1L);
 
@@ -112,12 +231,23 @@ public class CreditScoreServiceTest {
         assertEquals("Make all your payments on time to avoid negative marks on your credit report.", tips.get(0));
     }
 
+    @Test
+    public void testGetCreditImprovementTipsForBatch() {
+        when(userCreditDataRepository.findProfilesByUserIdIn(List.of(1L, 2L))).thenReturn(List.of(profileOf(userCreditData)));
+
+        BatchTipsResponse response = creditScoreService.getCreditImprovementTips(List.of(1L, 2L, 1L));
+
+        assertEquals(List.of("Make all your payments on time to avoid negative marks on your credit report."),
+                response.tips().get(1L));
+        assertEquals("User Credit Data not found for userId: 2", response.errors().get(2L));
+        verify(userCreditDataRepository, never()).findProfileByUserId(any());
+    }
+
     @Test
     public void testCalculateFICOScoreWithHighUtilization() {
         userCreditData.setCreditUtilization(50);
 
-        when(userCreditDataRepository.findByUserId(1L)).thenReturn(Optional.of(userCreditData));
-        when(creditScoreHistoryRepository.save(any(CreditScoreHistory.class))).thenReturn(creditScoreHistory);
+        when(userCreditDataRepository.findProfileByUserId(1L)).thenReturn(Optional.of(profileOf(userCreditData)));
 
         int score = creditScoreService.calculateFICOScore(1L);
 
@@ -128,8 +258,7 @@ public class CreditScoreServiceTest {
     public void testCalculateFICOScoreWithMultiplePublicRecords() {
         userCreditData.setPublicRecords(2);
 
-        when(userCreditDataRepository.findByUserId(1L)).thenReturn(Optional.of(userCreditData));
-        when(creditScoreHistoryRepository.save(any(CreditScoreHistory.class))).thenReturn(creditScoreHistory);
+        when(userCreditDataRepository.findProfileByUserId(1L)).thenReturn(Optional.of(profileOf(userCreditData)));
 
         int score = creditScoreService.calculateFICOScore(1L);
 
@@ -139,11 +268,10 @@ public class CreditScoreServiceTest {
     @Test
     public void testGenerateCreditReportForUserWithNoCreditHistory() {
         userCreditData.setCreditAccounts(new ArrayList<>());
-        when(userCreditDataRepository.findByUserId(1L)).thenReturn(Optional.of(userCreditData));
-        when(creditScoreHistoryRepository.findByUserIdOrderByTimestampDesc(1L)).thenReturn(new ArrayList<>());
-        when(creditScoreHistoryRepository.findTopByUserIdOrderByTimestampDesc(1L)).thenReturn(Optional.empty());
+        when(userCreditDataRepository.findWithAccountsByUserId(1L)).thenReturn(Optional.of(userCreditData));
+        when(creditScoreHistoryRepository.streamHistory(eq(1L), any(), any())).thenReturn(Stream.empty());
 
-        String report = creditScoreService.generateCreditReport(1L);
+        String report = textReport(1L);
 
         assertEquals(true, report.contains("Credit Report for User ID: 1"));
         assertEquals(true, report.contains("No Credit Score History Available."));
@@ -159,11 +287,78 @@ public class CreditScoreServiceTest {
         userCreditData.setRecentInquiries(1);
         userCreditData.setNewAccounts(1);
 
-        when(userCreditDataRepository.findByUserId(1L)).thenReturn(Optional.of(userCreditData));
+        when(userCreditDataRepository.findProfileByUserId(1L)).thenReturn(Optional.of(profileOf(userCreditData)));
 
         List<String> tips = creditScoreService.getCreditImprovementTips(1L);
 
         assertEquals(1, tips.size());
         assertEquals("Your credit profile looks good! Keep up the good work.", tips.get(0));
     }
+
+    @Test
+    public void testCalculateFICOScoresReportsMissingUsersPerUser() {
+        when(userCreditDataRepository.findProfilesByUserIdIn(Arrays.asList(1L, 2L))).thenReturn(List.of(profileOf(userCreditData)));
+
+        BatchScoreResponse response = creditScoreService.calculateFICOScores(Arrays.asList(1L, 2L, 1L));
+
+        assertEquals(1, response.scores().size());
+        assertTrue(response.scores().get(1L) >= 300 && response.scores().get(1L) <= 850);
+        assertEquals(1, response.errors().size());
+        assertTrue(response.errors().containsKey(2L));
+        verify(creditScoreHistoryRepository, times(1)).batchInsert(anyList());
+        verify(creditScoreHistoryRepository, never()).save(any(CreditScoreHistory.class));
+    }
+
+    @Test
+    public void testGetCreditScoreHistoriesGroupsByUser() {
+        CreditScoreHistory other = new CreditScoreHistory(2L, 3L, 680, LocalDateTime.now());
+        when(creditScoreHistoryRepository.findHistories(eq(Arrays.asList(1L, 3L, 4L)), any(), any()))
+                .thenReturn(Arrays.asList(creditScoreHistory, other));
+
+        Map<Long, List<CreditScoreHistory>> histories = creditScoreService.getCreditScoreHistories(Arrays.asList(1L, 3L, 4L));
+
+        assertEquals(3, histories.size());
+        assertEquals(750, histories.get(1L).get(0).getScore());
+        assertEquals(680, histories.get(3L).get(0).getScore());
+        assertTrue(histories.get(4L).isEmpty());
+    }
+
+    @Test
+    public void testWriteCreditReportAsJsonHonorsLimit() {
+        HistoryEntry older = HistoryEntry.raw(0L, 700, historyEntry.timestamp().minusDays(1));
+        when(creditScoreHistoryRepository.streamHistory(eq(1L), any(), any())).thenReturn(Stream.of(historyEntry, older));
+
+        StringWriter out = new StringWriter();
+        creditScoreService.writeCreditReport(userCreditData, new HistoryWindow(null, null, 1), CreditReportWriter.Format.JSON, out);
+
+        String json = out.toString();
+        assertTrue(json.startsWith("{\"userId\":1,"));
+        assertTrue(json.contains("\"latestScore\":{\"score\":750"));
+        assertEquals(false, json.contains("700"));
+    }
+
+    @Test
+    public void testReportShowsResolutionAndRangeOfSummaryRows() {
+        HistoryEntry daily = new HistoryEntry(0L, 700, historyEntry.timestamp().minusDays(40), HistoryResolution.DAILY, 640, 710);
+        when(userCreditDataRepository.findWithAccountsByUserId(1L)).thenReturn(Optional.of(userCreditData));
+        when(creditScoreHistoryRepository.streamHistory(eq(1L), any(), any())).thenAnswer(i -> Stream.of(historyEntry, daily));
+
+        String text = textReport(1L);
+        assertTrue(text.contains("  - Score: 750, Date: " + historyEntry.timestamp() + "\n"));
+        assertTrue(text.contains("  - Score: 700, Date: " + daily.timestamp() + " (DAILY, min 640, max 710)\n"));
+
+        StringWriter out = new StringWriter();
+        creditScoreService.writeCreditReport(userCreditData, HistoryWindow.unbounded(), CreditReportWriter.Format.JSON, out);
+        assertTrue(out.toString().contains("\"score\":700,\"timestamp\":\"" + daily.timestamp()
+                + "\",\"resolution\":\"DAILY\",\"minScore\":640,\"maxScore\":710}"));
+        assertTrue(out.toString().contains("\"resolution\":\"RAW\",\"minScore\":750,\"maxScore\":750}"));
+    }
+
+    // The /report path: header first, then the streamed body
+    private String textReport(Long userId) {
+        StringWriter out = new StringWriter();
+        creditScoreService.writeCreditReport(creditScoreService.getCreditReportData(userId), HistoryWindow.unbounded(),
+                CreditReportWriter.Format.TEXT, out);
+        return out.toString();
+    }
 }
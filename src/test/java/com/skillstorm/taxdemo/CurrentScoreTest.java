@@ -0,0 +1,126 @@
+package com.skillstorm.taxdemo;
+
+import com.skillstorm.taxdemo.dtos.ScoreConsistencyReport;
+import com.skillstorm.taxdemo.models.CreditAccount;
+import com.skillstorm.taxdemo.models.CurrentScore;
+import com.skillstorm.taxdemo.models.UserCreditData;
+import com.skillstorm.taxdemo.repositories.CreditScoreHistoryRepository;
+import com.skillstorm.taxdemo.repositories.CurrentScoreRepository;
+import com.skillstorm.taxdemo.repositories.UserCreditDataRepository;
+import com.skillstorm.taxdemo.scoring.CreditSnapshot;
+import com.skillstorm.taxdemo.scoring.ScoringEngine;
+import com.skillstorm.taxdemo.services.CurrentScoreService;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:currentscore;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "eureka.client.enabled=false",
+        "credit.rescore.resume-on-startup=false",
+        "credit.history.retention.enabled=false",
+        "credit.cache.enabled=false",
+        "credit.score.materialized=true",
+        "credit.score.backfill-chunk-size=2"
+})
+@AutoConfigureMockMvc
+public class CurrentScoreTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CurrentScoreService currentScoreService;
+
+    @Autowired
+    private CurrentScoreRepository currentScoreRepository;
+
+    @Autowired
+    private UserCreditDataRepository userCreditDataRepository;
+
+    @Autowired
+    private CreditScoreHistoryRepository creditScoreHistoryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void setUp() {
+        currentScoreRepository.deleteAll();
+        creditScoreHistoryRepository.deleteAll();
+        userCreditDataRepository.deleteAll();
+    }
+
+    @Test
+    public void testScoreIsComputedOnWriteAndReadBackWithoutHistory() throws Exception {
+        mockMvc.perform(post("/api/credit/data").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"userId\":1,\"onTimePayments\":10,\"latePayments\":2,\"missedPayments\":1,\"publicRecords\":0,"
+                        + "\"creditUtilization\":25,\"totalDebt\":30000,\"oldestAccountAge\":60,\"recentInquiries\":1,"
+                        + "\"newAccounts\":1,\"creditAccounts\":[{\"accountType\":\"credit card\",\"balance\":1000,\"creditLimit\":5000},"
+                        + "{\"accountType\":\"loan\",\"balance\":15000,\"creditLimit\":15000}]}"))
+                .andExpect(status().isOk());
+
+        CurrentScore stored = currentScoreRepository.findById(1L).orElseThrow();
+        assertEquals(714, stored.getScore());
+        assertEquals(169, stored.toBreakdown().paymentHistory());
+        assertEquals(1, creditScoreHistoryRepository.count());
+
+        // Reads neither compute nor record history
+        mockMvc.perform(get("/api/credit/score").header("User-ID", 1)).andExpect(content().string("714"));
+        mockMvc.perform(get("/api/credit/score").header("User-ID", 1)).andExpect(content().string("714"));
+        assertEquals(1, creditScoreHistoryRepository.count());
+
+        mockMvc.perform(patch("/api/credit/data").header("User-ID", 1).contentType(MediaType.APPLICATION_JSON)
+                .content("{\"missedPayments\":0}")).andExpect(status().isOk());
+        UserCreditData updated = userCreditDataRepository.findWithAccountsByUserId(1L).orElseThrow();
+        int expected = ScoringEngine.score(CreditSnapshot.of(updated));
+        mockMvc.perform(get("/api/credit/score").header("User-ID", 1)).andExpect(content().string(String.valueOf(expected)));
+        assertEquals(2, creditScoreHistoryRepository.count());
+    }
+
+    @Test
+    public void testBackfillAndConsistencyCheck() {
+        for (long userId = 1; userId <= 5; userId++) {
+            List<CreditAccount> accounts = new ArrayList<>(List.of(new CreditAccount(null, "loan", 1000, 5000, null)));
+            userCreditDataRepository.save(new UserCreditData(null, userId, 10 * (int) userId, 1, 0, 0, 25, 20000, 60, accounts, 1, 1));
+        }
+        // As if the users had been written before the mode was enabled
+        currentScoreRepository.deleteAll();
+
+        assertEquals(0, currentScoreService.check(false).checked());
+        assertEquals(5, currentScoreService.check(false).missing());
+        assertEquals(5, currentScoreService.backfill());
+        assertEquals(0, currentScoreService.backfill());
+
+        jdbcTemplate.update("update current_score set score = 1 where user_id = 3");
+        ScoreConsistencyReport report = currentScoreService.check(true);
+        assertEquals(5, report.checked());
+        assertEquals(1, report.mismatched());
+        assertEquals(0, report.missing());
+        assertEquals(1, report.repaired());
+        assertEquals(3L, report.mismatches().get(0).userId());
+        assertEquals(1, report.mismatches().get(0).stored());
+
+        assertEquals(0, currentScoreService.check(false).mismatched());
+        assertEquals(5, currentScoreService.lastCheck().orElseThrow().checked());
+    }
+}
@@ -0,0 +1,151 @@
+package com.skillstorm.taxdemo;
+
+import com.skillstorm.taxdemo.dtos.HistoryEntry;
+import com.skillstorm.taxdemo.models.CreditScoreHistory;
+import com.skillstorm.taxdemo.models.HistoryResolution;
+import com.skillstorm.taxdemo.repositories.CreditScoreHistoryRepository;
+import com.skillstorm.taxdemo.services.HistoryCompactor;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:retention;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "eureka.client.enabled=false",
+        "credit.rescore.resume-on-startup=false",
+        "credit.history.retention.enabled=false",
+        "credit.history.retention.batch-users=1"
+})
+public class HistoryCompactorTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 6, 15, 12, 0);
+
+    @Autowired
+    private HistoryCompactor historyCompactor;
+
+    @Autowired
+    private CreditScoreHistoryRepository creditScoreHistoryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void setUp() {
+        creditScoreHistoryRepository.deleteAll();
+    }
+
+    @Test
+    public void testRawRowsAreFoldedIntoDailyAndMonthlySummaries() {
+        List<CreditScoreHistory> rows = new ArrayList<>();
+        for (long userId = 1; userId <= 2; userId++) {
+            // Recent rows stay raw
+            rows.add(row(userId, 700, NOW.minusDays(1)));
+            rows.add(row(userId, 705, NOW.minusDays(2)));
+            // Three samples on one day, 40 days ago
+            LocalDateTime day = NOW.minusDays(40).withHour(8);
+            rows.add(row(userId, 650, day));
+            rows.add(row(userId, 690, day.plusHours(2)));
+            rows.add(row(userId, 670, day.plusHours(4)));
+            // Two samples in one month, well over a year ago
+            LocalDateTime month = LocalDateTime.of(2022, 3, 3, 9, 0);
+            rows.add(row(userId, 600, month));
+            rows.add(row(userId, 620, month.plusDays(10)));
+        }
+        creditScoreHistoryRepository.saveAll(rows);
+
+        // Five raw rows per user become daily rows; the two daily rows from 2022 then become one monthly row
+        assertEquals(14, historyCompactor.compact(NOW));
+        // Nothing left to do on a second pass
+        assertEquals(0, historyCompactor.compact(NOW));
+
+        for (long userId = 1; userId <= 2; userId++) {
+            long id = userId;
+            List<CreditScoreHistory> history = creditScoreHistoryRepository.findAll().stream()
+                    .filter(h -> h.getUserId() == id)
+                    .sorted(Comparator.comparing(CreditScoreHistory::getTimestamp).reversed())
+                    .toList();
+            assertEquals(4, history.size());
+            assertEquals(HistoryResolution.RAW, history.get(0).getResolution());
+            assertEquals(HistoryResolution.RAW, history.get(1).getResolution());
+
+            CreditScoreHistory daily = history.get(2);
+            assertEquals(HistoryResolution.DAILY, daily.getResolution());
+            assertEquals(670, daily.getScore());
+            assertEquals(650, daily.getMinScore());
+            assertEquals(690, daily.getMaxScore());
+            assertEquals(NOW.minusDays(40).withHour(12), daily.getTimestamp());
+
+            CreditScoreHistory monthly = history.get(3);
+            assertEquals(HistoryResolution.MONTHLY, monthly.getResolution());
+            assertEquals(620, monthly.getScore());
+            assertEquals(600, monthly.getMinScore());
+            assertEquals(620, monthly.getMaxScore());
+        }
+
+        // Readers see the mixed series newest first, each row with its resolution and score range
+        List<HistoryEntry> page = creditScoreHistoryRepository.findHistoryPage(1L, LocalDateTime.of(2000, 1, 1, 0, 0),
+                NOW.plusDays(1), PageRequest.of(0, 10));
+        assertEquals(List.of(700, 705, 670, 620), page.stream().map(e -> e.score()).toList());
+        assertEquals(List.of(HistoryResolution.RAW, HistoryResolution.RAW, HistoryResolution.DAILY, HistoryResolution.MONTHLY),
+                page.stream().map(HistoryEntry::resolution).toList());
+        assertEquals(List.of(700, 705, 650, 600), page.stream().map(HistoryEntry::minScore).toList());
+        assertEquals(List.of(700, 705, 690, 620), page.stream().map(HistoryEntry::maxScore).toList());
+    }
+
+    @Test
+    public void testLateRowIsMergedIntoExistingSummary() {
+        LocalDateTime day = NOW.minusDays(40).withHour(8);
+        creditScoreHistoryRepository.saveAll(List.of(row(1L, 650, day), row(1L, 690, day.plusHours(4))));
+        assertEquals(2, historyCompactor.compact(NOW));
+
+        // Written after the day was compacted, e.g. by a delayed import, with a timestamp inside the day
+        creditScoreHistoryRepository.save(row(1L, 640, day.plusHours(2)));
+        assertEquals(1, historyCompactor.compact(NOW));
+
+        List<CreditScoreHistory> history = creditScoreHistoryRepository.findAll();
+        assertEquals(1, history.size());
+        CreditScoreHistory daily = history.get(0);
+        assertEquals(HistoryResolution.DAILY, daily.getResolution());
+        // The newest sample of the day still supplies the score
+        assertEquals(690, daily.getScore());
+        assertEquals(640, daily.getMinScore());
+        assertEquals(690, daily.getMaxScore());
+        assertEquals(day.plusHours(4), daily.getTimestamp());
+    }
+
+    @Test
+    public void testCompactionIsSkippedWhileAnotherInstanceHoldsTheLease() {
+        LocalDateTime day = NOW.minusDays(40).withHour(8);
+        creditScoreHistoryRepository.saveAll(List.of(row(1L, 650, day), row(1L, 690, day.plusHours(4))));
+        // Earlier passes left the released lease row behind
+        historyCompactor.compact(NOW.minusYears(10));
+        jdbcTemplate.update("update job_lease set owner = 'other-instance', lease_until = ? where name = 'history-compaction'",
+                Timestamp.valueOf(LocalDateTime.now().plusMinutes(5)));
+        try {
+            assertEquals(0, historyCompactor.compact(NOW));
+            assertEquals(2, creditScoreHistoryRepository.count());
+        } finally {
+            jdbcTemplate.update("update job_lease set owner = null, lease_until = null where name = 'history-compaction'");
+        }
+        assertEquals(2, historyCompactor.compact(NOW));
+    }
+
+    private static CreditScoreHistory row(Long userId, int score, LocalDateTime timestamp) {
+        return new CreditScoreHistory(null, userId, score, timestamp);
+    }
+}
@@ -0,0 +1,116 @@
+package com.skillstorm.taxdemo;
+
+import com.skillstorm.taxdemo.models.CreditScoreHistory;
+import com.skillstorm.taxdemo.repositories.CreditScoreHistoryRepository;
+import com.skillstorm.taxdemo.services.HistoryPartitionManager;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:partitions;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "eureka.client.enabled=false",
+        "credit.rescore.resume-on-startup=false",
+        "credit.history.retention.enabled=false",
+        "credit.history.partitioning.enabled=true",
+        "credit.history.partitioning.retention-months=3"
+})
+public class HistoryPartitionManagerTest {
+
+    @Autowired
+    private HistoryPartitionManager historyPartitionManager;
+
+    @Autowired
+    private CreditScoreHistoryRepository creditScoreHistoryRepository;
+
+    @Test
+    public void testInMemoryFallbackExpiresWholeMonths() {
+        creditScoreHistoryRepository.deleteAll();
+        creditScoreHistoryRepository.saveAll(List.of(
+                row(610, LocalDateTime.of(2023, 11, 20, 10, 0)),
+                row(620, LocalDateTime.of(2024, 1, 31, 23, 59)),
+                row(630, LocalDateTime.of(2024, 2, 1, 0, 0)),
+                row(640, LocalDateTime.of(2024, 4, 10, 8, 0)),
+                row(650, LocalDateTime.of(2024, 5, 2, 8, 0))));
+
+        // Keeping three months back from May leaves February onwards
+        historyPartitionManager.maintain(LocalDate.of(2024, 5, 15));
+
+        assertTrue(historyPartitionManager.partitions().isEmpty());
+        assertEquals(List.of(650, 640, 630), creditScoreHistoryRepository
+                .findHistory(1L, null, null)
+                .stream().map(CreditScoreHistory::getScore).toList());
+    }
+
+    // H2 has no declarative partitioning, so the PostgreSQL statements are checked against a mocked JdbcTemplate
+    @Test
+    public void testPostgresPartitionIsFilledFromTheDefaultPartitionBeforeItIsAttached() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        HistoryPartitionManager manager = new HistoryPartitionManager();
+        ReflectionTestUtils.setField(manager, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(manager, "transactionManager", mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(manager, "premakeMonths", 1);
+        ReflectionTestUtils.setField(manager, "retentionMonths", 3);
+        ReflectionTestUtils.setField(manager, "declarative", true);
+        when(jdbcTemplate.queryForObject("select to_regclass(?) is not null", Boolean.class, "credit_score_history_p202405"))
+                .thenReturn(true);
+        when(jdbcTemplate.queryForObject("select to_regclass(?) is not null", Boolean.class, "credit_score_history_p202406"))
+                .thenReturn(false);
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), eq("credit_score_history")))
+                .thenReturn(List.of("credit_score_history_default", "credit_score_history_p202402", "credit_score_history_p202401"));
+        when(jdbcTemplate.queryForObject("select min(timestamp) from credit_score_history_default", Timestamp.class))
+                .thenReturn(Timestamp.valueOf(LocalDateTime.of(2023, 12, 5, 9, 0)));
+
+        // Keeping three months back from May leaves February onwards
+        manager.maintain(LocalDate.of(2024, 5, 15));
+
+        InOrder statements = inOrder(jdbcTemplate);
+        statements.verify(jdbcTemplate).execute("create table credit_score_history_p202406 "
+                + "(like credit_score_history including defaults including constraints)");
+        statements.verify(jdbcTemplate).update("with moved as (delete from credit_score_history_default "
+                + "where timestamp >= ? and timestamp < ? returning *) insert into credit_score_history_p202406 select * from moved",
+                startOf(2024, 6), startOf(2024, 7));
+        statements.verify(jdbcTemplate).execute("alter table credit_score_history attach partition credit_score_history_p202406 "
+                + "for values from ('2024-06-01') to ('2024-07-01')");
+        statements.verify(jdbcTemplate).execute("alter table credit_score_history detach partition credit_score_history_p202401");
+        statements.verify(jdbcTemplate).execute("drop table credit_score_history_p202401");
+        statements.verify(jdbcTemplate).update("delete from credit_score_history_default where timestamp >= ? and timestamp < ?",
+                startOf(2023, 12), startOf(2024, 1));
+        statements.verify(jdbcTemplate).update("delete from credit_score_history_default where timestamp >= ? and timestamp < ?",
+                startOf(2024, 1), startOf(2024, 2));
+        verify(jdbcTemplate, never()).execute(contains("credit_score_history_p202405"));
+        verify(jdbcTemplate, never()).execute(contains("credit_score_history_p202402"));
+    }
+
+    private static Timestamp startOf(int year, int month) {
+        return Timestamp.valueOf(LocalDateTime.of(year, month, 1, 0, 0));
+    }
+
+    private static CreditScoreHistory row(int score, LocalDateTime timestamp) {
+        return new CreditScoreHistory(null, 1L, score, timestamp);
+    }
+}
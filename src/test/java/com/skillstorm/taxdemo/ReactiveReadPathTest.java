@@ -0,0 +1,124 @@
+package com.skillstorm.taxdemo;
+
+import com.skillstorm.taxdemo.models.CreditAccount;
+import com.skillstorm.taxdemo.models.CreditScoreHistory;
+import com.skillstorm.taxdemo.models.UserCreditData;
+import com.skillstorm.taxdemo.repositories.CreditScoreHistoryRepository;
+import com.skillstorm.taxdemo.repositories.UserCreditDataRepository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// The reactive endpoints read the same tables through R2DBC; both drivers point at one in-memory H2
+// database here, so whatever JPA writes must come back identically from the non-blocking path.
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:reactive;DB_CLOSE_DELAY=-1;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.r2dbc.url=r2dbc:h2:mem:///reactive?options=DB_CLOSE_DELAY=-1;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE",
+        "spring.r2dbc.username=sa",
+        "spring.r2dbc.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "eureka.client.enabled=false",
+        "credit.cache.enabled=false",
+        "credit.history.writer.durability=WAIT_FOR_FLUSH"
+})
+@AutoConfigureMockMvc
+public class ReactiveReadPathTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserCreditDataRepository userCreditDataRepository;
+
+    @Autowired
+    private CreditScoreHistoryRepository creditScoreHistoryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void setUp() {
+        creditScoreHistoryRepository.deleteAll();
+        userCreditDataRepository.deleteAll();
+        userCreditDataRepository.save(new UserCreditData(null, 1L, 10, 1, 0, 0, 25, 20000, 60, new ArrayList<>(List.of(
+                new CreditAccount(null, "credit card", 1000, 5000, null),
+                new CreditAccount(null, "loan", 8000, 10000, null))), 1, 1));
+
+        List<CreditScoreHistory> history = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            history.add(new CreditScoreHistory(null, 1L, 650 + i, LocalDateTime.now().minusDays(i)));
+        }
+        creditScoreHistoryRepository.batchInsert(history);
+    }
+
+    private String body(RequestBuilder request) throws Exception {
+        MvcResult result = mockMvc.perform(request).andReturn();
+        assertTrue(result.getRequest().isAsyncStarted(), "reactive handlers must complete asynchronously");
+        return mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+    }
+
+    private int blockingScore() throws Exception {
+        return Integer.parseInt(mockMvc.perform(get("/api/credit/score").header("User-ID", 1)).andReturn().getResponse().getContentAsString());
+    }
+
+    @Test
+    public void testScoreMatchesBlockingPathWithAndWithoutStoredMask() throws Exception {
+        int expected = blockingScore();
+        assertEquals(expected, Integer.parseInt(body(get("/api/credit/reactive/score").header("User-ID", 1))));
+
+        // Rows not yet backfilled derive the mask from their accounts, like the blocking path does
+        jdbcTemplate.update("update credit_account set account_type_code = null");
+        jdbcTemplate.update("update user_credit_data set account_type_mask = null");
+        assertEquals(expected, Integer.parseInt(body(get("/api/credit/reactive/score").header("User-ID", 1))));
+    }
+
+    @Test
+    public void testHistoryStreamsOneNdjsonLinePerRowNewestFirst() throws Exception {
+        String ndjson = body(get("/api/credit/reactive/history").header("User-ID", 1).accept(MediaType.APPLICATION_NDJSON));
+
+        String[] lines = ndjson.strip().split("\n");
+        assertEquals(20, lines.length);
+        assertEquals(650, objectMapper.readTree(lines[0]).get("score").asInt());
+        assertEquals(669, objectMapper.readTree(lines[19]).get("score").asInt());
+        assertEquals("RAW", objectMapper.readTree(lines[0]).get("resolution").asText());
+        assertEquals(650, objectMapper.readTree(lines[0]).get("minScore").asInt());
+
+        String limited = body(get("/api/credit/reactive/history").header("User-ID", 1).param("limit", "3")
+                .accept(MediaType.APPLICATION_NDJSON));
+        assertEquals(3, limited.strip().split("\n").length);
+    }
+
+    @Test
+    public void testTipsMatchBlockingPath() throws Exception {
+        JsonNode expected = objectMapper.readTree(mockMvc.perform(get("/api/credit/tips").header("User-ID", 1))
+                .andReturn().getResponse().getContentAsString());
+
+        assertEquals(expected, objectMapper.readTree(body(get("/api/credit/reactive/tips").header("User-ID", 1))));
+    }
+}
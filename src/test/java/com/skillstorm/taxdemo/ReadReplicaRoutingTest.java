@@ -0,0 +1,95 @@
+package com.skillstorm.taxdemo;
+
+import com.skillstorm.taxdemo.config.ReplicaRouter;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Two embedded databases stand in for a primary and its replica; nothing replicates between them, so
+// the test writes the replica's heartbeat itself and a probe row tells which one answered.
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-primary;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "eureka.client.enabled=false",
+        "credit.rescore.resume-on-startup=false",
+        "credit.history.retention.enabled=false",
+        "credit.read-replicas.enabled=true",
+        "credit.read-replicas.instances[0].url=" + ReadReplicaRoutingTest.REPLICA_URL,
+        "credit.read-replicas.instances[0].username=sa",
+        "credit.read-replicas.max-lag-ms=5000",
+        // checked explicitly by the test
+        "credit.read-replicas.check-interval-ms=3600000"
+})
+public class ReadReplicaRoutingTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private ReplicaRouter replicaRouter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    public void testReadOnlyTransactionsOfReadPathsUseAFreshReplicaUnlessTheUserJustWrote() {
+        JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+        replica.execute("create table routing_probe (source varchar(16))");
+        replica.update("insert into routing_probe values ('replica')");
+        replica.execute("create table replica_heartbeat (id int primary key, beat_millis bigint not null)");
+        replica.update("insert into replica_heartbeat values (1, ?)", System.currentTimeMillis());
+        jdbcTemplate.execute("create table routing_probe (source varchar(16))");
+        jdbcTemplate.update("insert into routing_probe values ('primary')");
+        replicaRouter.checkReplicas();
+
+        // Not part of a request to a read path
+        assertEquals("primary", readSource(null));
+        assertEquals("primary", readSource(new ReplicaRouter.Request(1L, false)));
+
+        ReplicaRouter.Request request = new ReplicaRouter.Request(1L, true);
+        assertEquals("replica", readSource(request));
+        // After its own write the request, and the next one for the same user, read the primary
+        ReplicaRouter.bind(request);
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(
+                    status -> jdbcTemplate.update("update routing_probe set source = 'primary'"));
+        } finally {
+            ReplicaRouter.clear();
+        }
+        assertEquals("primary", readSource(request));
+        assertEquals("primary", readSource(new ReplicaRouter.Request(1L, true)));
+        assertEquals("replica", readSource(new ReplicaRouter.Request(2L, true)));
+
+        // A replica over the lag limit is skipped until it catches up
+        replica.update("update replica_heartbeat set beat_millis = ? where id = 1", System.currentTimeMillis() - 60_000);
+        replicaRouter.checkReplicas();
+        assertEquals("primary", readSource(new ReplicaRouter.Request(2L, true)));
+        replica.update("update replica_heartbeat set beat_millis = ? where id = 1", System.currentTimeMillis());
+        replicaRouter.checkReplicas();
+        assertEquals("replica", readSource(new ReplicaRouter.Request(2L, true)));
+    }
+
+    private String readSource(ReplicaRouter.Request request) {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        if (request != null) {
+            ReplicaRouter.bind(request);
+        }
+        try {
+            return readOnly.execute(status -> jdbcTemplate.queryForObject("select source from routing_probe", String.class));
+        } finally {
+            ReplicaRouter.clear();
+        }
+    }
+}
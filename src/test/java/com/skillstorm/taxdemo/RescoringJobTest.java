@@ -0,0 +1,188 @@
+package com.skillstorm.taxdemo;
+
+import com.skillstorm.taxdemo.dtos.RescoreProgress;
+import com.skillstorm.taxdemo.models.CreditAccount;
+import com.skillstorm.taxdemo.models.CreditScoreHistory;
+import com.skillstorm.taxdemo.models.RescoreCheckpoint;
+import com.skillstorm.taxdemo.models.RescoreCheckpoint.Status;
+import com.skillstorm.taxdemo.models.UserCreditData;
+import com.skillstorm.taxdemo.repositories.CreditScoreHistoryRepository;
+import com.skillstorm.taxdemo.repositories.RescoreCheckpointRepository;
+import com.skillstorm.taxdemo.repositories.UserCreditDataRepository;
+import com.skillstorm.taxdemo.scoring.CreditSnapshot;
+import com.skillstorm.taxdemo.scoring.ScoringEngine;
+import com.skillstorm.taxdemo.services.JobLeases;
+import com.skillstorm.taxdemo.services.RescoringJob;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:rescore;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "eureka.client.enabled=false",
+        "credit.rescore.partitions=3",
+        "credit.rescore.chunk-size=7",
+        "credit.rescore.resume-on-startup=false"
+})
+public class RescoringJobTest {
+
+    private static final int USERS = 50;
+
+    @Autowired
+    private RescoringJob rescoringJob;
+
+    @Autowired
+    private UserCreditDataRepository userCreditDataRepository;
+
+    @Autowired
+    private CreditScoreHistoryRepository creditScoreHistoryRepository;
+
+    @Autowired
+    private RescoreCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JobLeases jobLeases;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long minId;
+    private long maxId;
+
+    @BeforeEach
+    public void setUp() {
+        checkpointRepository.deleteAll();
+        creditScoreHistoryRepository.deleteAll();
+        userCreditDataRepository.deleteAll();
+        for (long userId = 1; userId <= USERS; userId++) {
+            List<CreditAccount> accounts = new ArrayList<>();
+            accounts.add(new CreditAccount(null, userId % 2 == 0 ? "credit card" : "loan", 1000, 5000, null));
+            userCreditDataRepository.save(new UserCreditData(null, userId, 10 + (int) userId, 1, 0, 0, 25, 20000, 60,
+                    accounts, 1, 1));
+        }
+        minId = userCreditDataRepository.findMinId().orElseThrow();
+        maxId = userCreditDataRepository.findMaxId().orElseThrow();
+    }
+
+    @Test
+    public void testFullRunScoresEveryUserOnceAcrossPartitions() throws Exception {
+        rescoringJob.start().get(30, TimeUnit.SECONDS);
+
+        List<CreditScoreHistory> history = creditScoreHistoryRepository.findAll();
+        assertEquals(USERS, history.size());
+        assertEquals(USERS, history.stream().map(CreditScoreHistory::getUserId).distinct().count());
+
+        UserCreditData user = userCreditDataRepository.findWithAccountsByUserId(7L).orElseThrow();
+        CreditScoreHistory row = creditScoreHistoryRepository.findHistory(7L, null, null).get(0);
+        assertEquals(ScoringEngine.score(CreditSnapshot.of(user)), row.getScore());
+
+        RescoreProgress progress = rescoringJob.progress();
+        assertEquals(RescoreProgress.State.COMPLETED, progress.state());
+        assertEquals(3, progress.partitions().size());
+        assertEquals(USERS, progress.total());
+        assertEquals(USERS, progress.processed());
+        assertEquals(100.0, progress.percentComplete());
+        assertTrue(progress.partitions().stream().allMatch(p -> p.lastId() == p.rangeEnd()));
+    }
+
+    @Test
+    public void testInterruptedRunResumesAfterLastCommittedChunk() throws Exception {
+        // State left behind by a crash: partition 0 committed its first 10 users, partition 1 had finished
+        long mid = minId - 1 + USERS / 2;
+        LocalDateTime startedAt = LocalDateTime.now().minusMinutes(5);
+        RescoreCheckpoint interrupted = new RescoreCheckpoint(1L, 0, minId - 1, mid, USERS / 2, startedAt);
+        interrupted.setLastId(minId - 1 + 10);
+        interrupted.setProcessed(10);
+        interrupted.setStatus(Status.RUNNING);
+        RescoreCheckpoint finished = new RescoreCheckpoint(1L, 1, mid, maxId, USERS - USERS / 2, startedAt);
+        finished.setLastId(maxId);
+        finished.setProcessed(USERS - USERS / 2);
+        finished.setStatus(Status.COMPLETED);
+        checkpointRepository.saveAll(List.of(interrupted, finished));
+
+        rescoringJob.start().get(30, TimeUnit.SECONDS);
+
+        List<CreditScoreHistory> history = creditScoreHistoryRepository.findAll();
+        assertEquals(USERS / 2 - 10, history.size());
+        assertTrue(history.stream().allMatch(h -> h.getUserId() > 10 && h.getUserId() <= USERS / 2));
+        RescoreProgress progress = rescoringJob.progress();
+        assertEquals(1L, progress.runId());
+        assertEquals(RescoreProgress.State.COMPLETED, progress.state());
+        assertEquals(USERS, progress.processed());
+
+        // Once complete, the next start plans a fresh run over everyone
+        rescoringJob.start().get(30, TimeUnit.SECONDS);
+        assertNotEquals(1L, rescoringJob.progress().runId());
+        assertEquals(USERS / 2 - 10 + USERS, creditScoreHistoryRepository.count());
+    }
+
+    @Test
+    public void testPartitionLeasedByAnotherInstanceIsLeftToIt() throws Exception {
+        long mid = minId - 1 + USERS / 2;
+        LocalDateTime startedAt = LocalDateTime.now().minusMinutes(5);
+        List<RescoreCheckpoint> checkpoints = checkpointRepository.saveAll(List.of(
+                new RescoreCheckpoint(1L, 0, minId - 1, mid, USERS / 2, startedAt),
+                new RescoreCheckpoint(1L, 1, mid, maxId, USERS - USERS / 2, startedAt)));
+        LocalDateTime now = LocalDateTime.now();
+        leaseToOtherInstance(checkpoints.get(1), now.plusMinutes(5));
+
+        rescoringJob.start().get(30, TimeUnit.SECONDS);
+
+        assertEquals(USERS / 2, creditScoreHistoryRepository.count());
+        assertTrue(creditScoreHistoryRepository.findAll().stream().allMatch(h -> h.getUserId() <= USERS / 2));
+        // The other instance still holds its partition, so the run is reported as running
+        assertEquals(RescoreProgress.State.RUNNING, rescoringJob.progress().state());
+
+        // Once that lease has expired the partition is taken over
+        leaseToOtherInstance(checkpoints.get(1), now.minusMinutes(1));
+        rescoringJob.start().get(30, TimeUnit.SECONDS);
+        assertEquals(USERS, creditScoreHistoryRepository.count());
+        assertEquals(RescoreProgress.State.COMPLETED, rescoringJob.progress().state());
+    }
+
+    @Test
+    public void testJobLeaseIsHeldByOneInstanceUntilItExpires() {
+        assertTrue(jobLeases.tryAcquire("test-job", Duration.ofMinutes(5)));
+        // Renewed by its holder
+        assertTrue(jobLeases.tryAcquire("test-job", Duration.ofMinutes(5)));
+
+        jdbcTemplate.update("update job_lease set owner = 'other-instance' where name = 'test-job'");
+        assertFalse(jobLeases.tryAcquire("test-job", Duration.ofMinutes(5)));
+        // Releasing a lease held by someone else does nothing
+        jobLeases.release("test-job");
+        assertFalse(jobLeases.tryAcquire("test-job", Duration.ofMinutes(5)));
+
+        jdbcTemplate.update("update job_lease set lease_until = ? where name = 'test-job'",
+                Timestamp.valueOf(LocalDateTime.now().minusSeconds(1)));
+        assertTrue(jobLeases.tryAcquire("test-job", Duration.ofMinutes(5)));
+        jobLeases.release("test-job");
+    }
+
+    private void leaseToOtherInstance(RescoreCheckpoint checkpoint, LocalDateTime leaseUntil) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> assertEquals(1,
+                checkpointRepository.claim(checkpoint.getId(), "other-instance", leaseUntil, LocalDateTime.now().plusYears(1))));
+    }
+}
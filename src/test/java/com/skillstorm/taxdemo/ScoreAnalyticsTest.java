@@ -0,0 +1,99 @@
+package com.skillstorm.taxdemo;
+
+import com.skillstorm.taxdemo.dtos.DailyScoreStats;
+import com.skillstorm.taxdemo.dtos.ScoreDistribution;
+import com.skillstorm.taxdemo.models.CreditScoreHistory;
+import com.skillstorm.taxdemo.repositories.CreditScoreHistoryRepository;
+import com.skillstorm.taxdemo.services.ScoreAnalytics;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:analytics;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "eureka.client.enabled=false",
+        "credit.rescore.resume-on-startup=false",
+        "credit.history.retention.enabled=false",
+        // flushed explicitly by the test
+        "credit.analytics.flush-interval-ms=3600000"
+})
+public class ScoreAnalyticsTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 6, 15);
+
+    @Autowired
+    private ScoreAnalytics scoreAnalytics;
+
+    @Autowired
+    private CreditScoreHistoryRepository creditScoreHistoryRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void testHistogramsFollowCommittedWritesAndMatchARebuild() {
+        // 100 rows scored 601..700 on DAY, written in two flushes, and one on the next day
+        List<CreditScoreHistory> rows = new ArrayList<>();
+        for (int i = 1; i <= 100; i++) {
+            rows.add(new CreditScoreHistory(null, (long) i, 600 + i, DAY.atTime(10, 0)));
+        }
+        creditScoreHistoryRepository.batchInsert(rows.subList(0, 50));
+        scoreAnalytics.flush();
+        creditScoreHistoryRepository.batchInsert(rows.subList(50, 100));
+        scoreAnalytics.flush();
+        creditScoreHistoryRepository.batchInsert(List.of(new CreditScoreHistory(null, 1L, 800, DAY.plusDays(1).atStartOfDay())));
+
+        // A rolled back insert is never counted
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            creditScoreHistoryRepository.batchInsert(List.of(new CreditScoreHistory(null, 2L, 300, DAY.atTime(11, 0))));
+            status.setRollbackOnly();
+        });
+
+        // The last row is still pending, and queries include it
+        ScoreDistribution distribution = scoreAnalytics.distribution(DAY, DAY.plusDays(1), 100);
+        assertEquals(101, distribution.count());
+        assertEquals(651, distribution.p50());
+        assertEquals(696, distribution.p95());
+        assertEquals(601, distribution.min());
+        assertEquals(800, distribution.max());
+        assertEquals(99, distribution.bands().get(600));
+        assertEquals(1, distribution.bands().get(700));
+        assertEquals(1, distribution.bands().get(800));
+
+        List<DailyScoreStats> trend = scoreAnalytics.trend(DAY.minusDays(1), DAY.plusDays(1));
+        assertEquals(0, trend.get(0).count());
+        assertNull(trend.get(0).p50());
+        assertEquals(100, trend.get(1).count());
+        assertEquals(650.5, trend.get(1).mean());
+        assertEquals(800, trend.get(2).p50());
+
+        scoreAnalytics.flush();
+        assertEquals(101L, jdbcTemplate.queryForObject("select sum(score_count) from score_histogram", Long.class));
+
+        assertEquals(101, scoreAnalytics.rebuild(DAY.minusDays(1), DAY.plusDays(1)));
+        assertEquals(distribution, scoreAnalytics.distribution(DAY, DAY.plusDays(1), 100));
+
+        // A compacted summary row stands for samples that were already counted live
+        jdbcTemplate.update("insert into credit_score_history (user_id, score, timestamp, resolution, min_score, max_score) "
+                + "values (1, 650, ?, 'DAILY', 640, 660)", DAY.atTime(23, 0));
+        assertEquals(101, scoreAnalytics.rebuild(DAY.minusDays(1), DAY.plusDays(1)));
+    }
+}
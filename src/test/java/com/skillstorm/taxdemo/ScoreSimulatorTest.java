@@ -0,0 +1,90 @@
+package com.skillstorm.taxdemo;
+
+import com.skillstorm.taxdemo.dtos.SimulationRequest.BalanceChange;
+import com.skillstorm.taxdemo.dtos.SimulationRequest.Scenario;
+import com.skillstorm.taxdemo.dtos.SimulationResponse;
+import com.skillstorm.taxdemo.dtos.SimulationResponse.ScenarioResult;
+import com.skillstorm.taxdemo.metrics.CreditMetrics;
+import com.skillstorm.taxdemo.models.CreditAccount;
+import com.skillstorm.taxdemo.models.UserCreditData;
+import com.skillstorm.taxdemo.repositories.UserCreditDataRepository;
+import com.skillstorm.taxdemo.services.ScoreSimulator;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ScoreSimulatorTest {
+
+    @Mock
+    private UserCreditDataRepository userCreditDataRepository;
+
+    private final CreditMetrics creditMetrics = new CreditMetrics(new SimpleMeterRegistry(), Clock.systemUTC(), false, 60_000, 1_000);
+
+    @BeforeEach
+    public void setUp() {
+        UserCreditData creditData = new UserCreditData(1L, 1L, 20, 0, 0, 0, 50, 60000, 60,
+                new ArrayList<>(List.of(new CreditAccount(10L, "Credit Card", 5000, 10000, null))), 1, 0);
+        when(userCreditDataRepository.findWithAccountsByUserId(1L)).thenReturn(Optional.of(creditData));
+    }
+
+    private static Scenario scenario(String name, List<BalanceChange> balanceChanges, List<String> openAccounts) {
+        return new Scenario(name, null, null, null, null, null, null, null, null, null, balanceChanges, openAccounts);
+    }
+
+    @Test
+    public void testScenariosAreScoredAgainstOneLoadWithoutWrites() {
+        ScoreSimulator simulator = new ScoreSimulator(userCreditDataRepository, creditMetrics, new SimpleAsyncTaskExecutor(),
+                1000, 64, 4, 5_000);
+
+        SimulationResponse response = simulator.simulate(1L, List.of(
+                scenario("pay down card", List.of(new BalanceChange(10L, -2000)), null),
+                scenario("open loan", null, List.of("loan")),
+                scenario("unknown account", List.of(new BalanceChange(99L, -1)), null)));
+
+        assertEquals(745, response.current().total());
+        ScenarioResult payDown = response.scenarios().get(0);
+        // Debt drops by $2,000 and card utilization by 20 points
+        assertEquals(847, payDown.breakdown().total());
+        assertEquals(102, payDown.delta().amountsOwed());
+        ScenarioResult loan = response.scenarios().get(1);
+        assertEquals(50, loan.delta().creditMix());
+        assertEquals(-15, loan.delta().newCredit());
+        assertEquals(35, loan.delta().total());
+        ScenarioResult unknown = response.scenarios().get(2);
+        assertNull(unknown.breakdown());
+        assertEquals("Unknown account id: 99", unknown.error());
+
+        verify(userCreditDataRepository).findWithAccountsByUserId(1L);
+        verifyNoMoreInteractions(userCreditDataRepository);
+    }
+
+    @Test
+    public void testParallelSlicesMatchSequentialResults() {
+        List<Scenario> scenarios = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            scenarios.add(scenario("pay " + i, List.of(new BalanceChange(10L, -10.0 * i)), i % 3 == 0 ? List.of("loan") : null));
+        }
+        ScoreSimulator sequential = new ScoreSimulator(userCreditDataRepository, creditMetrics, new SimpleAsyncTaskExecutor(),
+                1000, 1000, 4, 5_000);
+        ScoreSimulator parallel = new ScoreSimulator(userCreditDataRepository, creditMetrics, new SimpleAsyncTaskExecutor(),
+                1000, 8, 4, 5_000);
+
+        assertEquals(sequential.simulate(1L, scenarios), parallel.simulate(1L, scenarios));
+    }
+}
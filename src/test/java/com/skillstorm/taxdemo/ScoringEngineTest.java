@@ -0,0 +1,98 @@
+package com.skillstorm.taxdemo;
+
+import com.skillstorm.taxdemo.models.AccountType;
+import com.skillstorm.taxdemo.models.CreditAccount;
+import com.skillstorm.taxdemo.models.UserCreditData;
+import com.skillstorm.taxdemo.scoring.CreditSnapshot;
+import com.skillstorm.taxdemo.scoring.ScoreBreakdown;
+import com.skillstorm.taxdemo.scoring.ScoringEngine;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ScoringEngineTest {
+
+    private static CreditSnapshot snapshot(int onTime, int late, int missed, int publicRecords, double utilization,
+            double debt, int oldestAccountAge, int inquiries, int newAccounts, boolean card, boolean loan) {
+        int mask = (card ? AccountType.CREDIT_CARD.bit() : 0) | (loan ? AccountType.LOAN.bit() : 0);
+        return new CreditSnapshot(onTime, late, missed, publicRecords, utilization, debt, oldestAccountAge, inquiries,
+                newAccounts, mask);
+    }
+
+    @Test
+    public void testBreakdownUsesRealFields() {
+        ScoreBreakdown breakdown = ScoringEngine.breakdown(snapshot(10, 2, 1, 0, 25, 30000, 60, 1, 1, true, true));
+
+        assertEquals(169, breakdown.paymentHistory());
+        assertEquals(300, breakdown.amountsOwed());
+        assertEquals(60, breakdown.creditHistoryLength());
+        assertEquals(100, breakdown.creditMix());
+        assertEquals(85, breakdown.newCredit());
+        assertEquals(714, breakdown.total());
+    }
+
+    @Test
+    public void testAmountsOwedPenalizesUtilizationAndDebt() {
+        assertEquals(200, ScoringEngine.amountsOwedScore(snapshot(0, 0, 0, 0, 50, 0, 0, 0, 0, false, false)));
+        assertEquals(290, ScoringEngine.amountsOwedScore(snapshot(0, 0, 0, 0, 10, 60000, 0, 0, 0, false, false)));
+    }
+
+    @Test
+    public void testNoPaymentsScoresZeroPaymentHistoryAndClampsTotal() {
+        CreditSnapshot empty = snapshot(0, 0, 0, 0, 0, 0, 0, 0, 0, false, false);
+
+        assertEquals(0, ScoringEngine.paymentHistoryScore(empty));
+        assertEquals(450, ScoringEngine.score(empty));
+        assertEquals(ScoringEngine.MAX_SCORE, ScoringEngine.score(snapshot(500, 0, 0, 0, 0, 0, 300, 0, 0, true, true)));
+    }
+
+    @Test
+    public void testScoreMatchesBreakdownTotal() {
+        CreditSnapshot credit = snapshot(40, 3, 2, 1, 65, 72000, 130, 4, 3, true, false);
+
+        assertEquals(ScoringEngine.breakdown(credit).total(), ScoringEngine.score(credit));
+    }
+
+    @Test
+    public void testAccountTypesAreNormalizedIntoTheMask() {
+        UserCreditData creditData = new UserCreditData(1L, 1L, 10, 0, 0, 0, 0, 0, 0, List.of(
+                new CreditAccount(1L, " Credit Card", 0, 0, null),
+                new CreditAccount(2L, "payday advance", 0, 0, null)), 0, 0);
+
+        assertEquals(AccountType.CREDIT_CARD, creditData.getCreditAccounts().get(0).getType());
+        assertEquals(AccountType.OTHER, creditData.getCreditAccounts().get(1).getType());
+        assertEquals(50, ScoringEngine.creditMixScore(CreditSnapshot.of(creditData)));
+
+        // Once stored, the mask is authoritative until the accounts are written again
+        creditData.refreshAccountTypeMask();
+        creditData.getCreditAccounts().get(1).setAccountType("LOAN");
+        assertEquals(50, ScoringEngine.creditMixScore(CreditSnapshot.of(creditData)));
+        creditData.refreshAccountTypeMask();
+        assertEquals(100, ScoringEngine.creditMixScore(CreditSnapshot.of(creditData)));
+    }
+
+    @Test
+    public void testScoreDoesNotAllocate() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        CreditSnapshot credit = snapshot(40, 3, 2, 1, 65, 72000, 130, 4, 3, true, true);
+        long threadId = Thread.currentThread().getId();
+        int sink = 0;
+        for (int i = 0; i < 10_000; i++) {
+            sink += ScoringEngine.score(credit);
+        }
+
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 100_000; i++) {
+            sink += ScoringEngine.score(credit);
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        assertTrue(sink > 0);
+        assertTrue(allocated < 1024, "score() allocated " + allocated + " bytes");
+    }
+}
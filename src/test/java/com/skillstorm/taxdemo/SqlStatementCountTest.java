@@ -0,0 +1,321 @@
+package com.skillstorm.taxdemo;
+
+import com.skillstorm.taxdemo.models.AccountType;
+import com.skillstorm.taxdemo.models.CreditAccount;
+import com.skillstorm.taxdemo.models.CreditScoreHistory;
+import com.skillstorm.taxdemo.models.UserCreditData;
+import com.skillstorm.taxdemo.repositories.CreditScoreHistoryRepository;
+import com.skillstorm.taxdemo.repositories.UserCreditDataRepository;
+import com.skillstorm.taxdemo.services.AccountTypeBackfill;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Guards the fetch plans: every endpoint must issue a fixed number of SQL statements,
+// however many accounts or history rows the user has.
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:statements;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "eureka.client.enabled=false",
+        "credit.cache.enabled=false",
+        "credit.history.writer.durability=WAIT_FOR_FLUSH",
+        // A background histogram flush would land in whichever request is being counted
+        "credit.analytics.enabled=false"
+})
+@AutoConfigureMockMvc
+public class SqlStatementCountTest {
+
+    private static final AtomicInteger statements = new AtomicInteger();
+
+    @TestConfiguration
+    static class StatementCountingConfig {
+
+        // Wraps the pool so every statement prepared on any connection is counted
+        @Bean
+        static BeanPostProcessor statementCountingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (!(bean instanceof DataSource dataSource)) {
+                        return bean;
+                    }
+                    return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { DataSource.class },
+                            (proxy, method, args) -> {
+                                Object result = invoke(dataSource, method, args);
+                                return result instanceof Connection connection ? countingConnection(connection) : result;
+                            });
+                }
+            };
+        }
+
+        private static Connection countingConnection(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] { Connection.class },
+                    (proxy, method, args) -> {
+                        if ((method.getName().equals("prepareStatement") || method.getName().equals("createStatement")
+                                || method.getName().equals("prepareCall")) && !isIdAllocation(args)) {
+                            statements.incrementAndGet();
+                        }
+                        return invoke(connection, method, args);
+                    });
+        }
+
+        // Sequence calls are amortized over a pool of ids, so whether a request needs one depends on earlier inserts
+        private static boolean isIdAllocation(Object[] args) {
+            if (args == null || args.length == 0 || !(args[0] instanceof String sql)) {
+                return false;
+            }
+            String normalized = sql.toLowerCase();
+            return normalized.contains("nextval") || normalized.contains("next value for");
+        }
+
+        private static Object invoke(Object target, java.lang.reflect.Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserCreditDataRepository userCreditDataRepository;
+
+    @Autowired
+    private CreditScoreHistoryRepository creditScoreHistoryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AccountTypeBackfill accountTypeBackfill;
+
+    @BeforeEach
+    public void setUp() {
+        creditScoreHistoryRepository.deleteAll();
+        userCreditDataRepository.deleteAll();
+        for (long userId = 1; userId <= 3; userId++) {
+            List<CreditAccount> accounts = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                accounts.add(new CreditAccount(null, i % 2 == 0 ? "credit card" : "loan", 1000.0 * i, 5000.0, null));
+            }
+            userCreditDataRepository.save(new UserCreditData(null, userId, 10, 1, 0, 0, 25, 20000, 60, accounts, 1, 1));
+
+            List<CreditScoreHistory> history = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                history.add(new CreditScoreHistory(null, userId, 650 + i, LocalDateTime.now().minusDays(i)));
+            }
+            creditScoreHistoryRepository.batchInsert(history);
+        }
+        statements.set(0);
+    }
+
+    private int statementsFor(RequestBuilder request) throws Exception {
+        statements.set(0);
+        MvcResult result = mockMvc.perform(request).andReturn();
+        if (result.getRequest().isAsyncStarted()) {
+            // Streamed responses finish on an async dispatch
+            mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+        } else {
+            assertEquals(200, result.getResponse().getStatus());
+        }
+        return statements.get();
+    }
+
+    // score, tips and report each start with one validator lookup for conditional GETs
+    @Test
+    public void testScoreReadsProjectionWithStoredMaskPlusHistoryInsert() throws Exception {
+        assertEquals(3, statementsFor(get("/api/credit/score").header("User-ID", 1)));
+    }
+
+    @Test
+    public void testLegacyRowsLoadAccountsUntilBackfilled() throws Exception {
+        jdbcTemplate.update("update credit_account set account_type_code = null");
+        jdbcTemplate.update("update user_credit_data set account_type_mask = null");
+
+        assertEquals(4, statementsFor(get("/api/credit/score").header("User-ID", 1)));
+
+        accountTypeBackfill.backfillAccountTypeCodes();
+        assertEquals(3, accountTypeBackfill.backfillAccountTypeMasks());
+        assertEquals(3, statementsFor(get("/api/credit/score").header("User-ID", 1)));
+        assertEquals(AccountType.CREDIT_CARD.bit() | AccountType.LOAN.bit(), jdbcTemplate.queryForObject(
+                "select account_type_mask from user_credit_data where user_id = 1", Integer.class));
+    }
+
+    @Test
+    public void testTipsUseSingleProjectionQuery() throws Exception {
+        assertEquals(2, statementsFor(get("/api/credit/tips").header("User-ID", 1)));
+    }
+
+    @Test
+    public void testReportUsesDataAndHistoryQueriesOnly() throws Exception {
+        assertEquals(3, statementsFor(get("/api/credit/report").header("User-ID", 1)));
+    }
+
+    @Test
+    public void testJsonReportWithWindowUsesSameStatements() throws Exception {
+        assertEquals(3, statementsFor(get("/api/credit/report").header("User-ID", 1)
+                .param("format", "json")
+                .param("from", LocalDateTime.now().minusDays(5).toString())
+                .param("limit", "3")));
+    }
+
+    @Test
+    public void testUnchangedScoreIsAnswered304FromTheValidatorLookupAlone() throws Exception {
+        MvcResult first = mockMvc.perform(get("/api/credit/score").header("User-ID", 1)).andExpect(status().isOk()).andReturn();
+        String etag = first.getResponse().getHeader(HttpHeaders.ETAG);
+        long historyRows = creditScoreHistoryRepository.count();
+
+        statements.set(0);
+        mockMvc.perform(get("/api/credit/score").header("User-ID", 1).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        assertEquals(1, statements.get());
+        assertEquals(historyRows, creditScoreHistoryRepository.count()); // no history row for a 304
+
+        // Another user with the same data version must not match
+        mockMvc.perform(get("/api/credit/score").header("User-ID", 2).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(patch("/api/credit/data").header("User-ID", 1)
+                .contentType(MediaType.APPLICATION_JSON).content("{\"totalDebt\":21000}")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/credit/score").header("User-ID", 1).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void testReportEtagChangesWithNewHistory() throws Exception {
+        String etag = mockMvc.perform(get("/api/credit/report").header("User-ID", 1).param("format", "json"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/credit/report").header("User-ID", 1).param("format", "json")
+                .header(HttpHeaders.IF_NONE_MATCH, etag)).andExpect(status().isNotModified());
+        // A different representation of the same data
+        assertEquals(false, etag.equals(mockMvc.perform(get("/api/credit/report").header("User-ID", 1))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG)));
+
+        creditScoreHistoryRepository.batchInsert(List.of(new CreditScoreHistory(null, 1L, 700, LocalDateTime.now())));
+        MvcResult changed = mockMvc.perform(get("/api/credit/report").header("User-ID", 1).param("format", "json")
+                .header(HttpHeaders.IF_NONE_MATCH, etag)).andReturn();
+        assertEquals(true, changed.getRequest().isAsyncStarted());
+    }
+
+    @Test
+    public void testHistoryUsesSingleQuery() throws Exception {
+        assertEquals(1, statementsFor(get("/api/credit/history").header("User-ID", 1)));
+    }
+
+    @Test
+    public void testHistoryPagesUseOneStatementEachAndCoverAllRows() throws Exception {
+        Set<Long> seen = new HashSet<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            statements.set(0);
+            MockHttpServletRequestBuilder request = get("/api/credit/history/page").header("User-ID", 1).param("limit", "8");
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            JsonNode page = objectMapper.readTree(mockMvc.perform(request).andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString());
+            assertEquals(1, statements.get());
+            page.get("items").forEach(item -> seen.add(item.get("id").asLong()));
+            cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(3, pages);
+        assertEquals(20, seen.size());
+    }
+
+    @Test
+    public void testBatchScoreIsIndependentOfUserCount() throws Exception {
+        assertEquals(2, statementsFor(post("/api/credit/score/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"userIds\": [1, 2, 3, 4]}")));
+    }
+
+    @Test
+    public void testPutWithOneChangedBalanceTouchesOnlyThatAccount() throws Exception {
+        UserCreditData data = userCreditDataRepository.findWithAccountsByUserId(1L).orElseThrow();
+        StringBuilder accounts = new StringBuilder();
+        for (CreditAccount account : data.getCreditAccounts()) {
+            double balance = account.equals(data.getCreditAccounts().get(0)) ? 123.0 : account.getBalance();
+            accounts.append(accounts.length() == 0 ? "" : ",").append(String.format(
+                    "{\"id\":%d,\"accountType\":\"%s\",\"balance\":%s,\"creditLimit\":%s}",
+                    account.getId(), account.getAccountType(), balance, account.getCreditLimit()));
+        }
+        String body = "{\"onTimePayments\":10,\"latePayments\":1,\"missedPayments\":0,\"publicRecords\":0,"
+                + "\"creditUtilization\":25,\"totalDebt\":20000,\"oldestAccountAge\":60,\"recentInquiries\":1,"
+                + "\"newAccounts\":1,\"creditAccounts\":[" + accounts + "]}";
+
+        // Previously every PUT deleted and re-inserted all five accounts
+        assertEquals(3, statementsFor(put("/api/credit/data").header("User-ID", 1)
+                .contentType(MediaType.APPLICATION_JSON).content(body)));
+
+        UserCreditData saved = userCreditDataRepository.findWithAccountsByUserId(1L).orElseThrow();
+        assertEquals(data.getCreditAccounts().get(0).getId(), saved.getCreditAccounts().get(0).getId());
+        assertEquals(123.0, saved.getCreditAccounts().get(0).getBalance());
+        assertEquals(data.getVersion() + 1, saved.getVersion());
+    }
+
+    @Test
+    public void testPatchAddsAndRemovesSingleAccounts() throws Exception {
+        UserCreditData data = userCreditDataRepository.findWithAccountsByUserId(1L).orElseThrow();
+        Long removed = data.getCreditAccounts().get(0).getId();
+        String body = "{\"totalDebt\":25000,\"accounts\":[{\"accountType\":\"mortgage\",\"balance\":1000,\"creditLimit\":2000}],"
+                + "\"removeAccountIds\":[" + removed + "]}";
+
+        // select, insert and link the new account, unlink and delete the removed one, update the scalar field
+        assertEquals(6, statementsFor(patch("/api/credit/data").header("User-ID", 1)
+                .contentType(MediaType.APPLICATION_JSON).content(body)));
+
+        UserCreditData saved = userCreditDataRepository.findWithAccountsByUserId(1L).orElseThrow();
+        assertEquals(5, saved.getCreditAccounts().size());
+        assertEquals(25000.0, saved.getTotalDebt());
+        assertEquals(10, saved.getOnTimePayments());
+        assertEquals(false, saved.getCreditAccounts().stream().anyMatch(account -> account.getId().equals(removed)));
+    }
+}
@@ -0,0 +1,24 @@
+package com.skillstorm.taxdemo;
+
+import com.skillstorm.taxdemo.config.StartupConfig;
+import com.skillstorm.taxdemo.controllers.CreditScoreController;
+import com.skillstorm.taxdemo.services.ScoreAnalytics;
+import com.skillstorm.taxdemo.services.ScoreSimulator;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class StartupConfigTest {
+
+    @Test
+    public void testScheduledBeansAndTheScorePathStayEager() {
+        LazyInitializationExcludeFilter filter = StartupConfig.eagerStartupBeans();
+
+        assertTrue(filter.isExcluded("scoreAnalytics", null, ScoreAnalytics.class));
+        assertTrue(filter.isExcluded("creditScoreController", null, CreditScoreController.class));
+        assertFalse(filter.isExcluded("scoreSimulator", null, ScoreSimulator.class));
+    }
+}
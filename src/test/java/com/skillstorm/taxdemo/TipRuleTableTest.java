@@ -0,0 +1,79 @@
+package com.skillstorm.taxdemo;
+
+import com.skillstorm.taxdemo.dtos.CreditProfile;
+import com.skillstorm.taxdemo.services.CreditImprovementTips;
+import com.skillstorm.taxdemo.services.CreditScoreCache;
+import com.skillstorm.taxdemo.services.CreditScoreCache.Endpoint;
+import com.skillstorm.taxdemo.services.TipRuleTable;
+import com.skillstorm.taxdemo.services.TipRuleTable.Rule;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+public class TipRuleTableTest {
+
+    private static final CreditProfile TROUBLED = new CreditProfile(1L, 10, 4, 3, 1, 80, 90000, 24, 5, 4, 0, 1L);
+    private static final CreditProfile HEALTHY = new CreditProfile(2L, 120, 0, 0, 0, 10, 5000, 180, 0, 0, 6, 1L);
+    private static final CreditProfile BORDERLINE = new CreditProfile(3L, 50, 0, 0, 0, 30, 50000, 60, 2, 3, 1, 1L);
+
+    @Test
+    public void testDefaultsMatchTheOriginalRulesAndShareLists() {
+        TipRuleTable table = TipRuleTable.defaults();
+
+        assertEquals(5, table.tipsFor(TROUBLED).size());
+        assertEquals(List.of(TipRuleTable.DEFAULT_MESSAGE), table.tipsFor(HEALTHY));
+        // Thresholds are exclusive: 30% utilization and $50,000 debt do not trigger a tip
+        assertEquals(List.of("Avoid opening too many new accounts in a short period to improve your score."),
+                table.tipsFor(BORDERLINE));
+        // Precomputed per match mask, so repeated evaluations return the same instance
+        assertSame(table.tipsFor(TROUBLED), table.tipsFor(TROUBLED));
+
+        List<CreditProfile> batch = List.of(TROUBLED, HEALTHY, BORDERLINE);
+        assertArrayEquals(new long[] { table.match(TROUBLED), table.match(HEALTHY), table.match(BORDERLINE) },
+                table.match(batch));
+    }
+
+    @Test
+    public void testCompileRejectsUnknownFieldsAndOperators() {
+        assertThrows(IllegalArgumentException.class,
+                () -> TipRuleTable.compile(1, List.of(new Rule("income", "GT", 1, "x")), null));
+        assertThrows(IllegalArgumentException.class,
+                () -> TipRuleTable.compile(1, List.of(new Rule("totalDebt", "EQ", 1, "x")), null));
+    }
+
+    @Test
+    public void testReloadSwapsTableAndKeepsOldOneOnBadConfiguration() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("credit.tips.rules[0].field", "totalDebt")
+                .withProperty("credit.tips.rules[0].operator", "GE")
+                .withProperty("credit.tips.rules[0].threshold", "90000")
+                .withProperty("credit.tips.rules[0].message", "Pay down debt.");
+        CreditScoreCache cache = mock(CreditScoreCache.class);
+        CreditImprovementTips tips = new CreditImprovementTips(environment, cache);
+        assertEquals(List.of("Pay down debt."), tips.tipsFor(TROUBLED));
+
+        environment.setProperty("credit.tips.rules[0].threshold", "100000");
+        tips.onEnvironmentChange(new EnvironmentChangeEvent(Set.of("credit.tips.rules[0].threshold")));
+
+        Map<Long, List<String>> batch = tips.tipsFor(List.of(TROUBLED, HEALTHY));
+        assertEquals(List.of(TipRuleTable.DEFAULT_MESSAGE), batch.get(1L));
+        assertEquals(2, tips.getTable().getGeneration());
+        verify(cache).invalidateAll(Endpoint.TIPS);
+
+        environment.setProperty("credit.tips.rules[0].operator", "ABOUT");
+        assertFalse(tips.reload());
+        assertEquals(2, tips.getTable().getGeneration());
+    }
+}